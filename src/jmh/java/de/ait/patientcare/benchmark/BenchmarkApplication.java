@@ -0,0 +1,49 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.PatientCareApplication;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Starts the application without a web server on an in-memory H2, which the
+ * benchmarks seed with {@link BenchmarkDataset}. Shared by the benchmarks that
+ * run against the database; every fork gets its own JVM and therefore a fresh
+ * database.
+ * ----------------------------------------------------------------------------
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param properties additional properties, overriding the benchmark defaults
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] defaults = {
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "spring.liquibase.contexts=benchmark",
+                "spring.jpa.show-sql=false",
+                "logging.file.name=",
+                "logging.level.root=WARN",
+                "logging.level.de.ait=WARN"};
+        return new SpringApplicationBuilder(PatientCareApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(Stream.concat(Stream.of(defaults), Stream.of(properties)).toArray(String[]::new))
+                .run();
+    }
+
+    // Ids come from the pooled sequence (changeset 007), so they are not 1..rows
+    static long[] activeIds(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("SELECT id FROM patients WHERE deleted = FALSE ORDER BY id", Long.class)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,87 @@
+package de.ait.patientcare.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Compares two JMH JSON result files, e.g. of the main branch and a change:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@compare -Djmh.baseline=baseline.json
+ * </pre>
+ * Benchmarks are matched by name and parameters. A result counts as a
+ * regression when it is more than {@code threshold} percent worse and the
+ * difference exceeds both error margins together; the process then exits
+ * with status 1, so a CI job can fail on it.
+ * ----------------------------------------------------------------------------
+ */
+public final class BenchmarkComparison {
+
+    private record Result(String mode, double score, double error, String unit) {
+    }
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+            double change = (now.score() - before.score()) / before.score() * 100;
+            // Lower is better for time per operation, higher for throughput
+            double worse = now.mode().equals("thrpt") ? -change : change;
+            boolean significant = Math.abs(now.score() - before.score()) > now.error() + before.error();
+            boolean regression = worse > threshold && significant;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.score(), now.score(),
+                    change, now.unit(), regression ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d of %d benchmarks regressed by more than %.1f%%%n", regressions, current.size(), threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Key: short benchmark name plus parameters, e.g. "PatientLookupBenchmark.getPatientById {caches=true, rows=10000}"
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            String benchmark = run.path("benchmark").asText();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            StringJoiner key = new StringJoiner(", ", name + (params.isEmpty() ? "" : " {"), params.isEmpty() ? "" : "}");
+            params.forEach((param, value) -> key.add(param + "=" + value));
+
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0.0);
+            results.put(key.toString(), new Result(run.path("mode").asText(), metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0.0 : error, metric.path("scoreUnit").asText()));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,137 @@
+package de.ait.patientcare.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.ait.patientcare.config.BinaryFormatConfig;
+import de.ait.patientcare.dto.PatientPage;
+import de.ait.patientcare.dto.PatientSearchPage;
+import de.ait.patientcare.dto.PatientView;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.json.PatientJsonSerializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * ----------------------------------------------------------------------------
+ * JSON against CBOR and Smile for the responses binary clients pull in bulk:
+ * a list page ({@code PatientPage}), a search page ({@code PatientSearchPage})
+ * and an export stream of {@value #EXPORT_ROWS} patients, one value per row.
+ * Mappers are configured like the application's (ISO dates, hand-written
+ * patient serializers, {@link BinaryFormatConfig} factories). The encoded size
+ * of each payload is printed during setup. Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientBinaryFormatBenchmark -prof gc"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientBinaryFormatBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int EXPORT_ROWS = 10_000;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"list", "search", "export"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private ObjectWriter rowWriter;
+    private ObjectReader reader;
+    private Object response;
+    private List<Patient> export;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> BinaryFormatConfig.smileFactory(true);
+            // Like PatientExportService: no stringrefs across a sequence of values
+            case "cbor" -> BinaryFormatConfig.cborFactory(!"export".equals(payload));
+            default -> new JsonFactory();
+        };
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializers(new PatientJsonSerializers.PatientSerializer(),
+                        new PatientJsonSerializers.PatientViewSerializer())
+                .factory(factory)
+                .build();
+        rowWriter = mapper.writerFor(Patient.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if ("json".equals(format)) {
+            rowWriter = rowWriter.withRootValueSeparator("\n");
+        }
+
+        List<PatientView> page = IntStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(i -> PatientView.of(PatientJsonBenchmark.patient(i)))
+                .toList();
+        switch (payload) {
+            case "list" -> {
+                response = new PatientPage(page, "U21pdGgASmFuZQAy", PAGE_SIZE);
+                reader = mapper.readerFor(PatientPage.class);
+            }
+            case "search" -> {
+                response = new PatientSearchPage(page, 0, PAGE_SIZE, true, 100_000L);
+                reader = mapper.readerFor(PatientSearchPage.class);
+            }
+            default -> {
+                export = IntStream.rangeClosed(1, EXPORT_ROWS).mapToObj(PatientJsonBenchmark::patient).toList();
+                reader = mapper.readerFor(Patient.class);
+            }
+        }
+        encoded = encode();
+        System.out.printf("%n%s as %s: %,d bytes%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (export == null) {
+            return mapper.writeValueAsBytes(response);
+        }
+        // Like PatientExportService: one generator, one value per row
+        ByteArrayOutputStream out = new ByteArrayOutputStream(EXPORT_ROWS * 128);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            for (Patient patient : export) {
+                rowWriter.writeValue(generator, patient);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        if (export == null) {
+            return reader.readValue(encoded);
+        }
+        try (MappingIterator<Patient> rows = reader.readValues(encoded)) {
+            return rows.readAll();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.InsuranceNumberFilter;
+import de.ait.patientcare.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Latency of {@code PatientService.createPatient} on the direct path (one
+ * transaction per patient, no group commit) into a table of {@code rows}
+ * patients, with and without the insurance number filter in front of the
+ * uniqueness check. Every call stores a new patient with an unused insurance
+ * number. Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientCreateBenchmark -p rows=100000"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientCreateBenchmark {
+
+    private static final BloodType[] BLOOD_TYPES = BloodType.values();
+    private static final Gender[] GENDERS = Gender.values();
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean insuranceFilter;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(
+                "app.group-commit.enabled=false",
+                "app.insurance-filter.enabled=" + insuranceFilter,
+                "app.phonetic.backfill.enabled=false");
+        BenchmarkDataset.seed(context, rows);
+        context.getBean(InsuranceNumberFilter.class).rebuild();
+        patientService = context.getBean(PatientService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Patient createPatient() {
+        long n = ++sequence;
+        return patientService.createPatient(Patient.builder()
+                .firstName("Jmh" + n % 997)
+                .lastName("Create" + n % 50021)
+                .dateOfBirth(LocalDate.of(1950, 1, 1).plusDays(n % 25_000))
+                .gender(GENDERS[(int) (n % GENDERS.length)])
+                .insuranceNumber("JMH" + n)
+                .bloodType(BLOOD_TYPES[(int) (n % BLOOD_TYPES.length)])
+                .build());
+    }
+}
@@ -0,0 +1,125 @@
+package de.ait.patientcare.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.json.PatientJsonSerializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Jackson serialization of {@link Patient} as the controllers write it: one
+ * patient, a list of {@code pageSize} patients, and reading a create request
+ * body. The mapper is built like Spring Boot's, without starting the
+ * application; {@code serializer} compares Jackson's bean serializer
+ * ({@code default}) with {@link PatientJsonSerializers} ({@code custom}),
+ * which the application registers unless disabled. Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientJsonBenchmark -prof gc"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientJsonBenchmark {
+
+    private static final String CREATE_REQUEST = """
+            {"firstName":"Anna","lastName":"Schmidt","dateOfBirth":"1985-04-12","gender":"FEMALE",\
+            "insuranceNumber":"INS-000123","bloodType":"A_POS"}""";
+
+    @Param({"default", "custom"})
+    public String serializer;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Patient patient;
+    private byte[] createRequest;
+
+    @State(Scope.Benchmark)
+    public static class Page {
+
+        @Param({"50", "500"})
+        public int pageSize;
+
+        List<Patient> patients;
+
+        @Setup(Level.Trial)
+        public void build() {
+            patients = IntStream.rangeClosed(1, pageSize).mapToObj(PatientJsonBenchmark::patient).toList();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void build() {
+        // Spring Boot's defaults: ISO dates instead of timestamps, unknown properties ignored
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("custom".equals(serializer)) {
+            builder.serializers(new PatientJsonSerializers.PatientSerializer(),
+                    new PatientJsonSerializers.PatientViewSerializer());
+        }
+        ObjectMapper mapper = builder.build();
+        writer = mapper.writer();
+        reader = mapper.readerFor(Patient.class);
+        patient = patient(1);
+        createRequest = CREATE_REQUEST.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static Patient patient(int i) {
+        return Patient.builder()
+                .id((long) i)
+                .firstName("First" + i % 997)
+                .lastName("Last" + i % 50021)
+                .dateOfBirth(LocalDate.of(1950, 1, 1).plusDays(i * 7919L % 25_000))
+                .gender(Gender.values()[i % Gender.values().length])
+                .insuranceNumber("INS-" + i)
+                .bloodType(BloodType.values()[i % BloodType.values().length])
+                .createdAt(LocalDateTime.of(2025, 1, 1, 12, 0).plusSeconds(i))
+                .version((long) i % 5)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializePatient() throws JsonProcessingException {
+        return writer.writeValueAsBytes(patient);
+    }
+
+    @Benchmark
+    public byte[] serializePage(Page page) throws JsonProcessingException {
+        return writer.writeValueAsBytes(page.patients);
+    }
+
+    @Benchmark
+    public Patient deserializePatient() throws IOException {
+        return reader.readValue(createRequest);
+    }
+}
@@ -0,0 +1,75 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Latency of {@code PatientService.getPatientById} for uniformly random active
+ * patients, with the patient cache and the Hibernate second-level cache both
+ * on (the default configuration) or both off. With caches on, the hit rate
+ * falls as {@code rows} outgrows the cache sizes. Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientLookupBenchmark -p rows=100000"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientLookupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean caches;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(
+                "app.cache.patients.enabled=" + caches,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + caches,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + caches,
+                "app.phonetic.backfill.enabled=false");
+        BenchmarkDataset.seed(context, rows);
+        ids = BenchmarkApplication.activeIds(context.getBean(JdbcTemplate.class));
+        patientService = context.getBean(PatientService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Patient getPatientById() {
+        return patientService.getPatientById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
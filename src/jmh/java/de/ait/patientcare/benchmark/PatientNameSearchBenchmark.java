@@ -0,0 +1,89 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientNameKey;
+import de.ait.patientcare.service.PatientNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Latency of {@link PatientNameIndex#search} over {@code rows} generated
+ * German-style names, for misspelled full names, single last names and a
+ * query without matches. The index is filled from generated rows instead of
+ * the database, so only the lookup itself is measured. Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientNameSearchBenchmark -p rows=1000000"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientNameSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Hans", "Lukas", "Marie", "Jonas", "Sophie", "Felix", "Lea", "Paul", "Emma",
+            "Maximilian", "Hannah", "Leon", "Mia", "Elias", "Lena", "Finn", "Clara", "Noah", "Johanna",
+            "Karl", "Greta", "Oskar", "Ida", "Theo", "Frieda", "Emil", "Mathilda", "Anton", "Luise",
+            "Friedrich", "Helene", "Moritz", "Charlotte", "Jakob", "Ella", "Vincent", "Martha", "Ben", "Ronja"};
+    private static final String[] STEMS = {
+            "Mei", "Schmi", "Schnei", "Fisch", "Web", "Wag", "Beck", "Hoff", "Schul", "Koch",
+            "Rich", "Klei", "Wolf", "Schr\u00f6", "Neu", "Schwarz", "Zimmer", "Braun", "Kr\u00fc", "Hart"};
+    private static final String[] ENDINGS = {
+            "er", "dt", "mann", "berg", "ke", "ner", "ler", "hardt", "sen", "bauer"};
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"Maier Hans", "Shmidt", "Zimermann Johana", "Xylophon"})
+    public String query;
+
+    private PatientNameIndex index;
+
+    @Setup(Level.Trial)
+    public void build() {
+        PatientJdbcRepository names = new PatientJdbcRepository(new DriverManagerDataSource(), 1000) {
+            @Override
+            public void streamActiveNames(Consumer<PatientNameKey> consumer) {
+                for (int i = 1; i <= rows; i++) {
+                    consumer.accept(new PatientNameKey(i, FIRST_NAMES[i % FIRST_NAMES.length], lastName(i)));
+                }
+            }
+        };
+        index = new PatientNameIndex(names, true, 0.3);
+        index.rebuild();
+    }
+
+    // About 40,000 distinct last names, most of them double-barrelled
+    private static String lastName(int i) {
+        String name = STEMS[i % STEMS.length] + ENDINGS[(i / STEMS.length) % ENDINGS.length];
+        int second = (i / 200) % (STEMS.length + 1);
+        return second == STEMS.length
+                ? name
+                : name + "-" + STEMS[second].toLowerCase() + ENDINGS[(i / 4200) % ENDINGS.length];
+    }
+
+    @Benchmark
+    public List<PatientNameIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+}
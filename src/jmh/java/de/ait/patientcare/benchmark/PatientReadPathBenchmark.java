@@ -0,0 +1,96 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Allocation per search request: one page of female patients with total count,
+ * loaded as managed {@link Patient} entities inside a read-write transaction
+ * (the former search path) or as {@code PatientView} projections inside a
+ * read-only transaction. Both Hibernate caches are off, so every operation
+ * runs the SQL and builds its result objects. Compare {@code gc.alloc.rate.norm}
+ * (bytes per operation) of the GC profiler:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientReadPathBenchmark -prof gc"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientReadPathBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"entity", "projection"})
+    public String path;
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PatientRepository patientRepository;
+    private TransactionTemplate transactionTemplate;
+    private Specification<Patient> spec;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "app.statistics.in-memory.enabled=false",
+                "app.search.name-index.enabled=false",
+                "app.phonetic.backfill.enabled=false");
+        BenchmarkDataset.seed(context, rows);
+        patientRepository = context.getBean(PatientRepository.class);
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(path.equals("projection"));
+        spec = PatientSpecifications.matching(Gender.FEMALE, null, null, null);
+        pageable = PageRequest.of(0, pageSize, Sort.by("lastName", "firstName", "id"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<?> search() {
+        return transactionTemplate.execute(status -> path.equals("projection")
+                ? patientRepository.findViewPage(spec, pageable)
+                : patientRepository.findAll(spec, pageable));
+    }
+}
@@ -0,0 +1,107 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.dto.PatientSearchPage;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.PatientSearchIndex;
+import de.ait.patientcare.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Compares {@code PatientService.searchPatients} on the JPQL path with the
+ * in-memory bitmap index, both returning the first id ordered page, for
+ * several filter mixes from none to all three filters. Every trial starts the
+ * application on a fresh in-memory H2 seeded with {@code rows} patients.
+ * Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientSearchBenchmark -p rows=1000000"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientSearchBenchmark {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 50, Sort.by("id"));
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"jpql", "bitmap"})
+    public String path;
+
+    @Param({"none", "gender+age", "bloodType", "gender+bloodType+age"})
+    public String filter;
+
+    @Param({"false", "true"})
+    public boolean withTotal;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private Gender gender;
+    private BloodType bloodType;
+    private Integer ageFrom;
+    private Integer ageTo;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(
+                "app.statistics.in-memory.enabled=false",
+                "app.search.bitmap-index.enabled=" + path.equals("bitmap"));
+        BenchmarkDataset.seed(context, rows);
+        context.getBean(PatientSearchIndex.class).rebuild();
+        patientService = context.getBean(PatientService.class);
+
+        switch (filter) {
+            case "none" -> {
+            }
+            case "gender+age" -> {
+                gender = Gender.FEMALE;
+                ageFrom = 30;
+                ageTo = 40;
+            }
+            case "bloodType" -> bloodType = BloodType.AB_NEG;
+            case "gender+bloodType+age" -> {
+                gender = Gender.MALE;
+                bloodType = BloodType.O_NEG;
+                ageFrom = 60;
+                ageTo = 65;
+            }
+            default -> throw new IllegalArgumentException("Unknown filter: " + filter);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public PatientSearchPage search() {
+        return patientService.searchPatients(gender, bloodType, ageFrom, ageTo, FIRST_PAGE, withTotal);
+    }
+}
@@ -0,0 +1,70 @@
+package de.ait.patientcare.benchmark;
+
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.PatientService;
+import de.ait.patientcare.service.PatientStatisticsCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Latency of {@code PatientService.getStatistics} answered from the in-memory
+ * counters or by the aggregate query over {@code rows} patients. The counters
+ * are rebuilt after seeding, as the scheduled reconcile would. Run with:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PatientStatisticsBenchmark -p counters=false"
+ * </pre>
+ * ----------------------------------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientStatisticsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean counters;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(
+                "app.statistics.in-memory.enabled=" + counters,
+                "app.phonetic.backfill.enabled=false");
+        BenchmarkDataset.seed(context, rows);
+        context.getBean(PatientStatisticsCounters.class).rebuild();
+        patientService = context.getBean(PatientService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> getStatistics() {
+        return patientService.getStatistics();
+    }
+}
@@ -0,0 +1,70 @@
+package de.ait.patientcare.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * ----------------------------------------------------------------------------
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile})
+ * message converters, so every patient endpoint answers in a binary format
+ * when the client asks for it with {@code Accept}. They replace the converters
+ * Spring MVC would add on its own and use Spring Boot's Jackson settings
+ * (ISO dates, {@code @JsonComponent} serializers), so the objects are the
+ * same as in JSON.
+ * <p>
+ * Repeated field names and short values are written once per document and
+ * referenced afterwards: Smile's shared names and values, CBOR's stringref
+ * extension. Both matter most for long lists and the export stream.
+ * ----------------------------------------------------------------------------
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    // Boot's Jackson2ObjectMapperBuilder is a prototype bean: every injection is a fresh, configured builder
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder,
+            @Value("${app.binary.smile.shared-values:true}") boolean sharedValues) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory(sharedValues)).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder,
+            @Value("${app.binary.cbor.stringref:true}") boolean stringRefs) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(cborFactory(stringRefs)).build());
+    }
+
+    /**
+     * Smile with shared property names (always) and shared string values up
+     * to 64 bytes, e.g. gender and blood type, if {@code sharedValues}.
+     */
+    public static SmileFactory smileFactory(boolean sharedValues) {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, sharedValues)
+                .build();
+    }
+
+    /**
+     * CBOR, with repeated strings written as stringrefs (tag 25 inside tag 256)
+     * if {@code stringRefs}. Clients must support the extension to decode them.
+     */
+    public static CBORFactory cborFactory(boolean stringRefs) {
+        return CBORFactory.builder()
+                .configure(CBORGenerator.Feature.STRINGREF, stringRefs)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package de.ait.patientcare.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Bounds the number of threads that hold or wait for a pooled connection.
+ * <p>
+ * With virtual threads every request gets its own thread, so thousands of them
+ * can ask the connection pool at once. A fair semaphore with one permit per
+ * pooled connection lets them queue in arrival order in front of the pool,
+ * where waiting is cheap, instead of all contending inside it. A connection
+ * returns its permit when it is closed. A caller that gets no permit within
+ * {@code acquireTimeout} fails like a pool timeout would.
+ * ----------------------------------------------------------------------------
+ */
+@Slf4j
+public class ConnectionPoolGuard extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final Duration acquireTimeout;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Permits in use and waiting threads right now, plus counters since startup.
+     */
+    public record Stats(int maxPermits, int inUse, int waiting, long acquired, long timeouts) {
+    }
+
+    public ConnectionPoolGuard(DataSource target, int maxPermits, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Wraps every {@link DataSource} bean in a guard with {@code maxPermits} permits.
+     */
+    public static BeanPostProcessor postProcessor(int maxPermits, Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionPoolGuard)) {
+                    log.info("Guarding data source '{}' with {} permits", beanName, maxPermits);
+                    return new ConnectionPoolGuard(dataSource, maxPermits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    public Stats getStats() {
+        return new Stats(maxPermits, maxPermits - permits.availablePermits(), permits.getQueueLength(),
+                acquired.sum(), timeouts.sum());
+    }
+
+    // Shuts the wrapped pool down with the context, as Spring would for the unwrapped bean
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return guarded(obtain(() -> super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return guarded(obtain(() -> super.getConnection(username, password)));
+    }
+
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    // Gives the permit back if the pool itself fails
+    private Connection obtain(ConnectionSource source) throws SQLException {
+        try {
+            return source.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("No database connection available within "
+                        + acquireTimeout.toMillis() + " ms (" + permits.getQueueLength() + " threads waiting)");
+            }
+            acquired.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    // Releases the permit exactly once, on the first close()
+    private Connection guarded(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,64 @@
+package de.ait.patientcare.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import de.ait.patientcare.entity.Patient;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Local JCache (Caffeine) manager backing the Hibernate second-level and query
+ * caches. Regions are created here so their size and expiry come from
+ * {@code application.properties} instead of a separate provider config file.
+ * Whether Hibernate uses the caches at all is controlled by the standard
+ * {@code hibernate.cache.use_second_level_cache} / {@code use_query_cache} settings.
+ * ----------------------------------------------------------------------------
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    // One manager per application context, so parallel contexts (e.g. in tests) never share regions
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.hibernate-cache.patients.max-size:50000}") long patientsMaxSize,
+            @Value("${app.hibernate-cache.patients.ttl:PT30M}") Duration patientsTtl,
+            @Value("${app.hibernate-cache.queries.max-size:2000}") long queriesMaxSize,
+            @Value("${app.hibernate-cache.queries.ttl:PT5M}") Duration queriesTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:patientcare:hibernate:" + UUID.randomUUID()),
+                        HibernateCacheConfig.class.getClassLoader());
+        cacheManager.createCache(Patient.CACHE_REGION, bounded(patientsMaxSize, patientsTtl));
+        cacheManager.createCache(QUERY_RESULTS_REGION, bounded(queriesMaxSize, queriesTtl));
+        // Update timestamps must outlive every cached query result, so this region is never evicted
+        cacheManager.createCache(TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,73 @@
+package de.ait.patientcare.config;
+
+import de.ait.patientcare.entity.Patient;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit ratios of the Hibernate second-level cache regions, read from Hibernate
+ * statistics ({@code hibernate.generate_statistics=true}) and logged periodically.
+ */
+@Component
+@Slf4j
+public class HibernateCacheStatistics {
+
+    private final Statistics statistics;
+
+    /**
+     * Counters of one cache region since startup.
+     */
+    public record RegionStats(String region, long hits, long misses, long puts) {
+
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+
+    public HibernateCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * @return one entry per region in use; empty if statistics or the caches are disabled
+     */
+    public List<RegionStats> regions() {
+        List<RegionStats> regions = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return regions;
+        }
+        // Unknown regions throw instead of returning null; there are none with the second-level cache off
+        if (Arrays.asList(statistics.getSecondLevelCacheRegionNames()).contains(Patient.CACHE_REGION)) {
+            add(regions, Patient.CACHE_REGION, statistics.getDomainDataRegionStatistics(Patient.CACHE_REGION));
+        }
+        add(regions, HibernateCacheConfig.QUERY_RESULTS_REGION,
+                statistics.getQueryRegionStatistics(HibernateCacheConfig.QUERY_RESULTS_REGION));
+        return regions;
+    }
+
+    @Scheduled(fixedDelayString = "${app.hibernate-cache.stats-log-interval:PT5M}",
+            initialDelayString = "${app.hibernate-cache.stats-log-interval:PT5M}")
+    public void logStats() {
+        for (RegionStats region : regions()) {
+            log.info("Hibernate cache region {}: hits={}, misses={}, puts={}, hitRatio={}",
+                    region.region(), region.hits(), region.misses(), region.puts(),
+                    String.format("%.3f", region.hitRatio()));
+        }
+    }
+
+    private static void add(List<RegionStats> regions, String name, CacheRegionStatistics region) {
+        if (region != null) {
+            regions.add(new RegionStats(name, region.getHitCount(), region.getMissCount(), region.getPutCount()));
+        }
+    }
+}
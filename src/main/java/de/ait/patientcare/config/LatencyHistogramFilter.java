@@ -0,0 +1,121 @@
+package de.ait.patientcare.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Percentiles and SLO buckets of the latency timers, configurable per endpoint.
+ * <p>
+ * Applies to {@code http.server.requests} (one timer per URI template and
+ * status), {@code patientcare.service} ({@code @Timed} PatientService methods)
+ * and {@code spring.data.repository.invocations} (repository methods). The
+ * percentiles are computed in-process from Micrometer's HdrHistogram based
+ * time-window histogram, which forgets samples after {@code expiry}; SLO
+ * buckets are exported as cumulative Prometheus buckets, so percentiles can
+ * also be computed across instances.
+ * <p>
+ * {@code app.metrics.latency.*} sets the defaults and
+ * {@code app.metrics.latency.endpoints.[key].*} overrides them for one timer.
+ * The key is {@code "GET /api/patients/{id}"} or {@code "/api/patients/{id}"}
+ * for HTTP endpoints, {@code "PatientService.searchPatients"} and
+ * {@code "PatientRepository.findViewPage"} for methods.
+ * ----------------------------------------------------------------------------
+ */
+public class LatencyHistogramFilter implements MeterFilter {
+
+    public static final String HTTP_TIMER = "http.server.requests";
+    public static final String SERVICE_TIMER = "patientcare.service";
+    public static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+
+    /**
+     * Distribution settings; a {@code null} field keeps the default.
+     *
+     * @param percentiles client-side percentiles, e.g. 0.5 and 0.99
+     * @param slo         upper bounds of the exported histogram buckets
+     * @param histogram   whether to export Micrometer's full set of buckets as well
+     */
+    public record Distribution(List<Double> percentiles, List<Duration> slo, Boolean histogram) {
+    }
+
+    private final Distribution defaults;
+    private final Map<String, Distribution> endpoints;
+    private final Duration expiry;
+
+    public LatencyHistogramFilter(Distribution defaults, Map<String, Distribution> endpoints, Duration expiry) {
+        this.defaults = defaults;
+        this.endpoints = Map.copyOf(endpoints);
+        this.expiry = expiry;
+    }
+
+    @Override
+    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        List<String> keys = endpointKeys(id);
+        if (keys == null) {
+            return config;
+        }
+        Distribution endpoint = keys.stream()
+                .map(endpoints::get)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(new Distribution(null, null, null));
+
+        List<Double> percentiles = endpoint.percentiles() != null ? endpoint.percentiles() : defaults.percentiles();
+        List<Duration> slo = endpoint.slo() != null ? endpoint.slo() : defaults.slo();
+        Boolean histogram = endpoint.histogram() != null ? endpoint.histogram() : defaults.histogram();
+
+        return DistributionStatisticConfig.builder()
+                .percentiles(percentiles == null ? new double[0]
+                        : percentiles.stream().mapToDouble(Double::doubleValue).toArray())
+                .serviceLevelObjectives(slo == null ? new double[0]
+                        : slo.stream().mapToDouble(Duration::toNanos).toArray())
+                .percentilesHistogram(Boolean.TRUE.equals(histogram))
+                .percentilePrecision(2)
+                .expiry(expiry)
+                .bufferLength(3)
+                .build()
+                .merge(config);
+    }
+
+    // Most specific key first; null for meters this filter does not configure
+    static List<String> endpointKeys(Meter.Id id) {
+        List<String> keys = new ArrayList<>();
+        switch (id.getName()) {
+            case HTTP_TIMER -> {
+                String uri = id.getTag("uri");
+                if (uri != null) {
+                    String method = id.getTag("method");
+                    if (method != null) {
+                        keys.add(method + " " + uri);
+                    }
+                    keys.add(uri);
+                }
+            }
+            case SERVICE_TIMER -> {
+                String type = id.getTag("class");
+                String method = id.getTag("method");
+                if (type != null && method != null) {
+                    keys.add(type.substring(type.lastIndexOf('.') + 1) + "." + method);
+                }
+            }
+            case REPOSITORY_TIMER -> {
+                String repository = id.getTag("repository");
+                String method = id.getTag("method");
+                if (repository != null && method != null) {
+                    keys.add(repository + "." + method);
+                }
+            }
+            default -> {
+                return null;
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,50 @@
+package de.ait.patientcare.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Latency timers for the Prometheus endpoint ({@code /actuator/prometheus}).
+ * <p>
+ * Spring Boot already times every controller endpoint
+ * ({@code http.server.requests}), every repository method
+ * ({@code spring.data.repository.invocations}) and exports Hikari and
+ * Hibernate statistics. This adds {@code @Timed} support for PatientService
+ * and the per-endpoint percentile and SLO settings of
+ * {@link LatencyHistogramFilter}; the application's own gauges and counters
+ * are bound in {@link PatientCareMetrics}.
+ * ----------------------------------------------------------------------------
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public LatencyHistogramFilter latencyHistogramFilter(Environment environment) {
+        Binder binder = Binder.get(environment);
+        LatencyHistogramFilter.Distribution defaults = binder
+                .bind("app.metrics.latency", LatencyHistogramFilter.Distribution.class)
+                .orElseGet(() -> new LatencyHistogramFilter.Distribution(List.of(0.5, 0.95, 0.99), List.of(), false));
+        Map<String, LatencyHistogramFilter.Distribution> endpoints = binder
+                .bind("app.metrics.latency.endpoints",
+                        Bindable.mapOf(String.class, LatencyHistogramFilter.Distribution.class))
+                .orElseGet(Map::of);
+        Duration expiry = binder.bind("app.metrics.latency.expiry", Duration.class)
+                .orElse(Duration.ofMinutes(2));
+        return new LatencyHistogramFilter(defaults, endpoints, expiry);
+    }
+}
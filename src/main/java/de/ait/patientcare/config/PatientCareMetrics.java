@@ -0,0 +1,172 @@
+package de.ait.patientcare.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import de.ait.patientcare.logging.CountingAsyncAppender;
+import de.ait.patientcare.logging.RequestSamplingTurboFilter;
+import de.ait.patientcare.service.InsuranceNumberFilter;
+import de.ait.patientcare.service.PatientCache;
+import de.ait.patientcare.service.PatientGroupCommitter;
+import de.ait.patientcare.service.PatientPhoneticBackfill;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Publishes the statistics the components already keep (and so far only
+ * logged) as meters: connection pool saturation, the connection pool guard,
+ * the patient cache, the insurance number filter, group commit, the phonetic
+ * backfill, virtual thread pinning and lost log events. All values are read
+ * on scrape.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientCareMetrics implements MeterBinder {
+
+    private static final String LOST_EVENTS = "Log events lost by the async appenders: all events when the queue "
+            + "was full (queue_full), DEBUG and INFO when it was nearly full (discarded)";
+
+    private final DataSource dataSource;
+    private final PatientCache patientCache;
+    private final InsuranceNumberFilter insuranceNumberFilter;
+    private final PatientGroupCommitter groupCommitter;
+    private final PatientPhoneticBackfill phoneticBackfill;
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindConnectionPool(registry);
+        bindPatientCache(registry);
+        bindInsuranceNumberFilter(registry);
+        bindLogging(registry);
+
+        FunctionCounter.builder("patientcare.group_commit.batches", groupCommitter, g -> g.getStats().batches())
+                .description("Batches stored by the group committer")
+                .register(registry);
+        FunctionCounter.builder("patientcare.group_commit.requests", groupCommitter, g -> g.getStats().requests())
+                .description("Patients created through group commit")
+                .register(registry);
+
+        FunctionCounter.builder("patientcare.phonetic_backfill.rows", phoneticBackfill,
+                        b -> b.getStats().updated())
+                .description("Rows given phonetic codes by the startup backfill")
+                .register(registry);
+        Gauge.builder("patientcare.phonetic_backfill.running", phoneticBackfill,
+                        b -> b.getStats().running() ? 1 : 0)
+                .register(registry);
+
+        FunctionTimer.builder("patientcare.virtual_threads.pinned", pinningMonitor,
+                        m -> m.getStats().events(), m -> m.getStats().pinned().toNanos(), TimeUnit.NANOSECONDS)
+                .description("Virtual threads blocked while pinned to their carrier, above the monitor threshold")
+                .register(registry);
+    }
+
+    // Hikari's own meters (hikaricp.connections.*) are exported by Spring Boot; this adds one ratio to alert on
+    private void bindConnectionPool(MeterRegistry registry) {
+        HikariDataSource hikari = unwrap(dataSource, HikariDataSource.class);
+        if (hikari != null) {
+            Gauge.builder("patientcare.datasource.saturation", hikari, PatientCareMetrics::saturation)
+                    .description("Connections in use plus threads waiting for one, relative to the pool size; "
+                            + "above 1 requests queue for the pool")
+                    .register(registry);
+        }
+
+        if (dataSource instanceof ConnectionPoolGuard guard) {
+            Gauge.builder("patientcare.datasource.guard.permits", guard, g -> g.getStats().maxPermits())
+                    .register(registry);
+            Gauge.builder("patientcare.datasource.guard.in_use", guard, g -> g.getStats().inUse())
+                    .register(registry);
+            Gauge.builder("patientcare.datasource.guard.waiting", guard, g -> g.getStats().waiting())
+                    .description("Threads queued for a permit in front of the pool")
+                    .register(registry);
+            FunctionCounter.builder("patientcare.datasource.guard.acquired", guard, g -> g.getStats().acquired())
+                    .register(registry);
+            FunctionCounter.builder("patientcare.datasource.guard.timeouts", guard, g -> g.getStats().timeouts())
+                    .description("Callers that got no permit within the acquire timeout")
+                    .register(registry);
+        }
+    }
+
+    private void bindPatientCache(MeterRegistry registry) {
+        FunctionCounter.builder("patientcare.cache.requests", patientCache, c -> c.stats().hits())
+                .tags("cache", "patients", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("patientcare.cache.requests", patientCache, c -> c.stats().misses())
+                .tags("cache", "patients", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("patientcare.cache.evictions", patientCache, c -> c.stats().evictions())
+                .tags("cache", "patients")
+                .register(registry);
+        Gauge.builder("patientcare.cache.size", patientCache, c -> c.stats().size())
+                .tags("cache", "patients")
+                .register(registry);
+    }
+
+    private void bindInsuranceNumberFilter(MeterRegistry registry) {
+        FunctionCounter.builder("patientcare.insurance_filter.lookups", insuranceNumberFilter,
+                        f -> f.stats().definitelyAbsent())
+                .tags("result", "definitely_absent")
+                .register(registry);
+        FunctionCounter.builder("patientcare.insurance_filter.lookups", insuranceNumberFilter,
+                        f -> f.stats().confirmedPresent())
+                .tags("result", "confirmed_present")
+                .register(registry);
+        FunctionCounter.builder("patientcare.insurance_filter.lookups", insuranceNumberFilter,
+                        f -> f.stats().falsePositives())
+                .tags("result", "false_positive")
+                .register(registry);
+        Gauge.builder("patientcare.insurance_filter.size", insuranceNumberFilter, f -> f.stats().bytes())
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    // Logback's appenders and filters are not beans; their counters are static and survive a reconfiguration
+    private void bindLogging(MeterRegistry registry) {
+        FunctionCounter.builder("patientcare.logging.events.lost", CountingAsyncAppender.class,
+                        a -> CountingAsyncAppender.stats().dropped())
+                .description(LOST_EVENTS)
+                .tags("reason", "queue_full")
+                .register(registry);
+        FunctionCounter.builder("patientcare.logging.events.lost", CountingAsyncAppender.class,
+                        a -> CountingAsyncAppender.stats().discarded())
+                .description(LOST_EVENTS)
+                .tags("reason", "discarded")
+                .register(registry);
+        FunctionCounter.builder("patientcare.logging.events.sampled_out", RequestSamplingTurboFilter.class,
+                        f -> RequestSamplingTurboFilter.sampledOut())
+                .description("DEBUG and INFO events of requests not sampled for logging")
+                .register(registry);
+        Gauge.builder("patientcare.logging.queue.size", CountingAsyncAppender.class,
+                        a -> CountingAsyncAppender.stats().queued())
+                .register(registry);
+    }
+
+    // The pool starts with the first connection; until then nothing is in use
+    private static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null || hikari.getMaximumPoolSize() <= 0) {
+            return 0.0;
+        }
+        return (double) (pool.getActiveConnections() + pool.getThreadsAwaitingConnection())
+                / hikari.getMaximumPoolSize();
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
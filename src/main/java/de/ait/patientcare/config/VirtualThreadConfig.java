@@ -0,0 +1,36 @@
+package de.ait.patientcare.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Virtual thread mode ({@code spring.threads.virtual.enabled=true}).
+ * <p>
+ * Spring Boot then runs Tomcat request handling, MVC async work (streaming
+ * exports) and {@code @Scheduled} tasks on virtual threads. Since the number
+ * of request threads is no longer bounded by {@code server.tomcat.threads.max},
+ * the data source is wrapped in a {@link ConnectionPoolGuard} sized like the
+ * connection pool, and {@link VirtualThreadPinningMonitor} reports threads
+ * that block while pinned to their carrier.
+ * ----------------------------------------------------------------------------
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    // Static, so the post-processor is registered before the data source is created
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.guard.enabled", havingValue = "true")
+    public static BeanPostProcessor connectionPoolGuardPostProcessor(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int permits = environment.getProperty("app.datasource.guard.permits", Integer.class, poolSize);
+        Duration acquireTimeout = environment.getProperty("app.datasource.guard.acquire-timeout", Duration.class,
+                Duration.ofSeconds(30));
+        return ConnectionPoolGuard.postProcessor(permits, acquireTimeout);
+    }
+}
@@ -0,0 +1,143 @@
+package de.ait.patientcare.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Reports virtual threads that block while pinned to their carrier thread,
+ * e.g. inside {@code synchronized} code or a JDBC driver call that holds a
+ * monitor. Pinned threads keep a carrier busy, so too many of them throttle
+ * every other virtual thread.
+ * <p>
+ * Listens to the JFR event {@code jdk.VirtualThreadPinned} in-process, for
+ * blocking longer than {@code app.virtual-threads.pinning-monitor.threshold}.
+ * The first event per call site is logged with its stack; counts and total
+ * pinned time per call site are logged every
+ * {@code app.virtual-threads.pinning-monitor.stats-log-interval}.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "de.ait.";
+    private static final int LOGGED_FRAMES = 15;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    private static final class Site {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder pinnedNanos = new LongAdder();
+    }
+
+    /**
+     * Pinning events per call site since startup.
+     */
+    public record Stats(long events, Duration pinned, Map<String, Long> eventsBySite) {
+    }
+
+    public VirtualThreadPinningMonitor(
+            @Value("${app.virtual-threads.pinning-monitor.enabled:false}") boolean enabled,
+            @Value("${app.virtual-threads.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public Stats getStats() {
+        long events = 0;
+        long nanos = 0;
+        Map<String, Long> bySite = new LinkedHashMap<>();
+        List<Map.Entry<String, Site>> entries = sites.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().events.sum(), a.getValue().events.sum()))
+                .toList();
+        for (Map.Entry<String, Site> entry : entries) {
+            long siteEvents = entry.getValue().events.sum();
+            events += siteEvents;
+            nanos += entry.getValue().pinnedNanos.sum();
+            bySite.put(entry.getKey(), siteEvents);
+        }
+        return new Stats(events, Duration.ofNanos(nanos), bySite);
+    }
+
+    @Scheduled(fixedDelayString = "${app.virtual-threads.pinning-monitor.stats-log-interval:PT5M}",
+            initialDelayString = "${app.virtual-threads.pinning-monitor.stats-log-interval:PT5M}")
+    public void logStats() {
+        if (!enabled || sites.isEmpty()) {
+            return;
+        }
+        Stats stats = getStats();
+        log.warn("Virtual threads pinned {} times for {} ms in total, by call site: {}",
+                stats.events(), stats.pinned().toMillis(), stats.eventsBySite());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = callSite(frames);
+        Site counters = sites.computeIfAbsent(site, s -> new Site());
+        counters.events.increment();
+        counters.pinnedNanos.add(event.getDuration().toNanos());
+        if (counters.events.sum() == 1) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), site,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::format)
+                            .collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    // The innermost application frame, since that is the code to change; else the innermost frame
+    private static String callSite(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .filter(f -> f.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::format)
+                .orElse("unknown");
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
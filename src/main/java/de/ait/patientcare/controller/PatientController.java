@@ -1,22 +1,48 @@
 package de.ait.patientcare.controller;
 
+import de.ait.patientcare.config.BinaryFormatConfig;
+import de.ait.patientcare.dto.PatientBulkResult;
+import de.ait.patientcare.dto.PatientBulkUpdate;
+import de.ait.patientcare.dto.PatientBulkUpdateResult;
+import de.ait.patientcare.dto.PatientNameMatch;
+import de.ait.patientcare.dto.PatientPage;
+import de.ait.patientcare.dto.PatientSearchPage;
+import de.ait.patientcare.dto.PatientSelection;
 import de.ait.patientcare.entity.Patient;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.entity.enums.PhoneticAlgorithm;
+import de.ait.patientcare.service.PatientBulkService;
+import de.ait.patientcare.service.PatientBulkUpdateService;
+import de.ait.patientcare.service.PatientExportService;
 import de.ait.patientcare.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @Tag(name = "Patient Management API")
 @RestController
@@ -26,6 +52,9 @@ import java.util.Map;
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientExportService patientExportService;
+    private final PatientBulkService patientBulkService;
+    private final PatientBulkUpdateService patientBulkUpdateService;
 
     @Value("${app.clinic.name:Patient Care Clinic}")
     private String clinicName;
@@ -35,17 +64,57 @@ public class PatientController {
         return ResponseEntity.ok("Welcome to " + clinicName + "!");
     }
 
-    @Operation(summary = "Get all patients")
+    @Operation(summary = "Get patients page by page (keyset pagination)")
     @GetMapping
-    public ResponseEntity<List<Patient>> getAll() {
-        return ResponseEntity.ok(patientService.getAllPatients());
+    public ResponseEntity<PatientPage> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(patientService.getPatientsPage(cursor, size));
     }
 
-    @Operation(summary = "Get patient by ID")
+    @Operation(summary = "Export all active patients as newline-delimited JSON, or as a CBOR or Smile sequence")
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        MediaType format = exportFormat(accept);
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            long rows = patientExportService.exportActive(target, format);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            log.info("Exported {} patients (format={}, gzip={})", rows, format, gzip);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Operation(summary = "Get patient by ID; ETag is the version, If-None-Match answers 304")
     @GetMapping("/{id}")
-    public ResponseEntity<Patient> getById(@PathVariable Long id) {
+    public ResponseEntity<Patient> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(patientService.getPatientById(id));
+            if (ifNoneMatch != null) {
+                // Only the version is looked up; the entity is neither loaded nor serialized for a 304
+                Long version = patientService.getPatientVersion(id)
+                        .orElseThrow(() -> new RuntimeException("Patient not found"));
+                if (PatientETag.noneMatchHits(ifNoneMatch, version)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(PatientETag.of(version)).build();
+                }
+            }
+            Patient patient = patientService.getPatientById(id);
+            return ResponseEntity.ok().eTag(PatientETag.of(patient.getVersion())).body(patient);
         } catch (RuntimeException e) {
             log.warn("Patient not found with ID: {}", id);
             return ResponseEntity.notFound().build();
@@ -69,12 +138,38 @@ public class PatientController {
         }
     }
 
-    @Operation(summary = "Update existing patient by ID")
+    @Operation(summary = "Create many patients from a JSON array or an NDJSON stream")
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<PatientBulkResult> createBulk(InputStream body) throws IOException {
+        // The body is parsed entry by entry, never materialized as a whole
+        return ResponseEntity.ok(patientBulkService.createAll(body));
+    }
+
+    @Operation(summary = "Correct fields (blood type, gender) of all selected patients at once")
+    @PatchMapping("/bulk")
+    public ResponseEntity<PatientBulkUpdateResult> updateBulk(@Valid @RequestBody PatientBulkUpdate update) {
+        return ResponseEntity.ok(patientBulkUpdateService.update(update));
+    }
+
+    @Operation(summary = "Soft delete all selected patients at once (by ids and/or filter)")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<PatientBulkUpdateResult> deleteBulk(@Valid @RequestBody PatientSelection selection) {
+        return ResponseEntity.ok(patientBulkUpdateService.softDelete(selection));
+    }
+
+    @Operation(summary = "Update existing patient by ID; If-Match answers 412 for a stale version")
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable Long id, @Valid @RequestBody Patient updated) {
+    public ResponseEntity<?> update(
+            @PathVariable Long id,
+            @Valid @RequestBody Patient updated,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Patient patient = patientService.updatePatient(id, updated);
-            return ResponseEntity.ok(patient);
+            List<Long> expectedVersions = ifMatch != null ? PatientETag.matchVersions(ifMatch) : null;
+            Patient patient = patientService.updatePatient(id, updated, expectedVersions);
+            return ResponseEntity.ok().eTag(PatientETag.of(patient.getVersion())).body(patient);
+        } catch (OptimisticLockException | OptimisticLockingFailureException e) {
+            // The latter when a concurrent write commits between the If-Match check and this commit
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             log.warn("Patient not found for update: {}", id);
             return ResponseEntity.notFound().build();
@@ -97,21 +192,73 @@ public class PatientController {
         }
     }
 
-    @Operation(summary = "Search patients by filters")
+    @Operation(summary = "Search patients by filters (paged, sortable)")
     @GetMapping("/search")
-    public ResponseEntity<List<Patient>> search(
+    public ResponseEntity<PatientSearchPage> search(
             @RequestParam(required = false) Gender gender,
             @RequestParam(required = false) BloodType bloodType,
             @RequestParam(required = false) Integer ageFrom,
-            @RequestParam(required = false) Integer ageTo) {
+            @RequestParam(required = false) Integer ageTo,
+            @PageableDefault(size = 50, sort = {"lastName", "firstName"}, direction = Sort.Direction.ASC)
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
-        List<Patient> patients = patientService.searchPatients(gender, bloodType, ageFrom, ageTo);
+        PatientSearchPage patients = patientService.searchPatients(
+                gender, bloodType, ageFrom, ageTo, pageable, withTotal);
         return ResponseEntity.ok(patients);
     }
 
+    @Operation(summary = "Fuzzy search by first and/or last name, ranked by similarity")
+    @GetMapping("/search/name")
+    public ResponseEntity<?> searchByName(@RequestParam String q,
+                                          @RequestParam(required = false) Integer limit) {
+        try {
+            List<PatientNameMatch> matches = patientService.searchByName(q, limit);
+            return ResponseEntity.ok(matches);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            log.warn("Name search unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Search by phonetic code of last and optionally first name (Koelner Phonetik or Double Metaphone)")
+    @GetMapping("/search/phonetic")
+    public ResponseEntity<?> searchByPhonetic(@RequestParam String lastName,
+                                              @RequestParam(required = false) String firstName,
+                                              @RequestParam(required = false) PhoneticAlgorithm algorithm,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            List<Patient> patients = patientService.searchByPhonetic(lastName, firstName, algorithm, limit);
+            return ResponseEntity.ok(patients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Get patient statistics")
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> statistics() {
-        return ResponseEntity.ok(patientService.getStatistics());
+    public ResponseEntity<Map<String, Object>> statistics(
+            @RequestParam(required = false) List<Integer> ageBuckets) {
+        return ResponseEntity.ok(patientService.getStatistics(ageBuckets));
+    }
+
+    // Highest quality export format the client accepts; NDJSON for */* or no Accept header
+    private static MediaType exportFormat(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_NDJSON;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        // Stable sort: equal qualities keep the client's order
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            for (MediaType format : PatientExportService.FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
     }
-}
\ No newline at end of file
+}
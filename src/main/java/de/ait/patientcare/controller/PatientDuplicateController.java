@@ -0,0 +1,65 @@
+package de.ait.patientcare.controller;
+
+import de.ait.patientcare.dto.PatientDuplicateCandidate;
+import de.ait.patientcare.dto.PatientDuplicateRun;
+import de.ait.patientcare.service.PatientDuplicateDetector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@Tag(name = "Patient Duplicates API")
+@RestController
+@RequestMapping("/api/patients/duplicates")
+@RequiredArgsConstructor
+@Slf4j
+public class PatientDuplicateController {
+
+    private final PatientDuplicateDetector duplicateDetector;
+
+    @Operation(summary = "Start duplicate detection in the background")
+    @PostMapping("/detection")
+    public ResponseEntity<?> startDetection() {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(duplicateDetector.start());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Get state, counts and per-phase timings of the last detection run")
+    @GetMapping("/detection")
+    public ResponseEntity<PatientDuplicateRun> getDetection() {
+        try {
+            return ResponseEntity.ok(duplicateDetector.getStatus());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Review list of probable duplicates from the last run, highest score first")
+    @GetMapping
+    public ResponseEntity<List<PatientDuplicateCandidate>> getCandidates(
+            @RequestParam(required = false) Double minScore,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(duplicateDetector.getCandidates(minScore, limit));
+    }
+
+    @Operation(summary = "Merge a reviewed pair: keep patientId, soft-delete duplicateId")
+    @PostMapping("/merge")
+    public ResponseEntity<?> merge(@RequestParam long patientId, @RequestParam long duplicateId) {
+        try {
+            return ResponseEntity.ok(duplicateDetector.merge(patientId, duplicateId));
+        } catch (NoSuchElementException e) {
+            log.warn("Merge rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
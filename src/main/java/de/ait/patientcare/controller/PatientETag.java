@@ -0,0 +1,56 @@
+package de.ait.patientcare.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strong entity tags for patients: the quoted {@code @Version}, e.g. {@code "3"}.
+ * The version changes with every committed write, so equal tags mean equal representations.
+ */
+final class PatientETag {
+
+    private PatientETag() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * {@code If-None-Match} uses the weak comparison, so {@code W/"3"} matches version 3 as well.
+     */
+    static boolean noneMatchHits(String ifNoneMatch, long version) {
+        String tag = of(version);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(tag) || trimmed.equals("W/" + tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions listed in {@code If-Match}. The strong comparison applies, so weak
+     * and foreign tags are skipped; if none is left, no version can match.
+     *
+     * @return {@code null} for {@code *}, which only requires the patient to exist
+     */
+    static List<Long> matchVersions(String ifMatch) {
+        List<Long> versions = new ArrayList<>();
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*")) {
+                return null;
+            }
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of our tags
+                }
+            }
+        }
+        return versions;
+    }
+}
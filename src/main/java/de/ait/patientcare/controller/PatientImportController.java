@@ -0,0 +1,95 @@
+package de.ait.patientcare.controller;
+
+import de.ait.patientcare.dto.PatientImportStatus;
+import de.ait.patientcare.service.PatientImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@Tag(name = "Patient Import API")
+@RestController
+@RequestMapping("/api/patients/imports")
+@RequiredArgsConstructor
+@Slf4j
+public class PatientImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final PatientImportService patientImportService;
+
+    @Operation(summary = "Upload a CSV file and import it in the background")
+    @PostMapping(consumes = {TEXT_CSV, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<PatientImportStatus> start(
+            InputStream body,
+            @RequestParam(required = false) Character delimiter) throws IOException {
+        // Streamed to disk as it arrives, never buffered in memory
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientImportService.start(body, delimiter));
+    }
+
+    @Operation(summary = "List all imports with their progress")
+    @GetMapping
+    public ResponseEntity<List<PatientImportStatus>> getAll() throws IOException {
+        return ResponseEntity.ok(patientImportService.getAll());
+    }
+
+    @Operation(summary = "Get progress and throughput of an import")
+    @GetMapping("/{id}")
+    public ResponseEntity<PatientImportStatus> getStatus(@PathVariable String id) throws IOException {
+        try {
+            return ResponseEntity.ok(patientImportService.getStatus(id));
+        } catch (NoSuchElementException e) {
+            log.warn("Import not found: {}", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Resume an import after its last checkpoint")
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resume(@PathVariable String id) throws IOException {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientImportService.resume(id));
+        } catch (NoSuchElementException e) {
+            log.warn("Import not found for resume: {}", id);
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Cancel a running import; it can be resumed later")
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(patientImportService.cancel(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Download the rejected rows of an import with the reason per row")
+    @GetMapping(value = "/{id}/rejected", produces = TEXT_CSV)
+    public ResponseEntity<Resource> getRejected(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".rejected.csv\"")
+                    .body(new FileSystemResource(patientImportService.getRejectedFile(id)));
+        } catch (NoSuchElementException e) {
+            log.warn("No rejected rows for import: {}", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package de.ait.patientcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Outcome of one entry of a bulk create request.
+ *
+ * @param index  zero-based position of the entry in the request
+ * @param status what happened to the entry
+ * @param id     id of the created patient, only set for {@link Status#CREATED}
+ * @param errors reasons the entry was rejected, {@code null} for created entries
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientBulkItemResult(int index, Status status, Long id, List<String> errors) {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE,
+        FAILED
+    }
+
+    public static PatientBulkItemResult created(int index, Long id) {
+        return new PatientBulkItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static PatientBulkItemResult rejected(int index, Status status, List<String> errors) {
+        return new PatientBulkItemResult(index, status, null, errors);
+    }
+}
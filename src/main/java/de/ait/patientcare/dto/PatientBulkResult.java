@@ -0,0 +1,18 @@
+package de.ait.patientcare.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk create request.
+ *
+ * @param total         number of entries received
+ * @param created       number of patients inserted
+ * @param rejected      number of entries that were not inserted
+ * @param elapsedMillis wall-clock time spent on the request
+ * @param rowsPerSecond entries processed per second
+ * @param items         one result per entry, in request order
+ */
+public record PatientBulkResult(int total, int created, int rejected,
+                                long elapsedMillis, double rowsPerSecond,
+                                List<PatientBulkItemResult> items) {
+}
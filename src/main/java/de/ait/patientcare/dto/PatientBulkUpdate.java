@@ -0,0 +1,20 @@
+package de.ait.patientcare.dto;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Field corrections for many patients at once, e.g. a blood type that was
+ * recorded wrongly. Fields left {@code null} keep their current value.
+ */
+public record PatientBulkUpdate(@NotNull @Valid PatientSelection selection,
+                                BloodType bloodType, Gender gender) {
+
+    @AssertTrue(message = "At least one field to update is required")
+    public boolean isChanging() {
+        return bloodType != null || gender != null;
+    }
+}
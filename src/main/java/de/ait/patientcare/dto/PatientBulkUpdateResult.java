@@ -0,0 +1,11 @@
+package de.ait.patientcare.dto;
+
+/**
+ * Result of a bulk update or soft delete.
+ *
+ * @param matched       active patients in the selection
+ * @param affected      patients actually changed; their {@code version} was incremented
+ * @param elapsedMillis wall-clock time spent on the request
+ */
+public record PatientBulkUpdateResult(int matched, int affected, long elapsedMillis) {
+}
@@ -0,0 +1,23 @@
+package de.ait.patientcare.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A pair of patients that probably are the same person, for review.
+ * The patient registered first is reported as {@code patient}.
+ *
+ * @param score     weighted similarity of names, birth date, gender and blood type, from 0 to 1
+ * @param matchedOn blocking key the pair was found by
+ */
+public record PatientDuplicateCandidate(long patientId, String patientName, LocalDate patientDateOfBirth,
+                                        long duplicateId, String duplicateName, LocalDate duplicateDateOfBirth,
+                                        double score, String matchedOn) {
+
+    public boolean involves(long id) {
+        return patientId == id || duplicateId == id;
+    }
+
+    public boolean pairs(long id, long otherId) {
+        return (patientId == id && duplicateId == otherId) || (patientId == otherId && duplicateId == id);
+    }
+}
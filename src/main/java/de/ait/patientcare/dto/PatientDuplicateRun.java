@@ -0,0 +1,29 @@
+package de.ait.patientcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Progress and outcome of a duplicate detection run.
+ *
+ * @param patients        active patients compared
+ * @param blocks          groups of patients sharing a blocking key, compared pairwise
+ * @param oversizedBlocks groups above {@code app.duplicates.max-block-size}, skipped
+ * @param comparisons     candidate pairs scored
+ * @param candidates      pairs at or above {@code app.duplicates.min-score}
+ * @param phaseMillis     wall-clock time per phase, in execution order
+ * @param error           why the run failed, if it did
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientDuplicateRun(State state, long patients, long blocks, long oversizedBlocks,
+                                  long comparisons, long candidates, Map<String, Long> phaseMillis,
+                                  Instant startedAt, Instant finishedAt, String error) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,36 @@
+package de.ait.patientcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Progress of a CSV import.
+ *
+ * @param recordsRead   data records read from the file so far (header excluded)
+ * @param imported      patients inserted, across all runs of this import
+ * @param rejected      records written to the rejected-rows file, across all runs
+ * @param checkpoint    number of data records fully processed; a resume continues after it
+ * @param bytesRead     bytes of the file consumed by the reader in this run
+ * @param totalBytes    size of the file
+ * @param rowsPerSecond records processed per second in the current or last run
+ * @param queueDepths   batches waiting in front of each pipeline stage
+ * @param error         why the import failed, if it did
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientImportStatus(String id, State state,
+                                  long recordsRead, long imported, long rejected, long checkpoint,
+                                  long bytesRead, long totalBytes, double rowsPerSecond,
+                                  Map<String, Integer> queueDepths,
+                                  Instant startedAt, Instant finishedAt, String error) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED,
+        /** The application stopped while the import was running; it can be resumed. */
+        INTERRUPTED
+    }
+}
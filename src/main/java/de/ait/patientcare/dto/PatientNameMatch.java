@@ -0,0 +1,11 @@
+package de.ait.patientcare.dto;
+
+import de.ait.patientcare.entity.Patient;
+
+/**
+ * One result of the fuzzy name search.
+ *
+ * @param similarity trigram similarity between the query and the patient's name, from 0 to 1
+ */
+public record PatientNameMatch(Patient patient, double similarity) {
+}
@@ -0,0 +1,13 @@
+package de.ait.patientcare.dto;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated patient list.
+ *
+ * @param items      patients of this page, ordered by last name, first name and id
+ * @param nextCursor opaque token for the following page, {@code null} on the last page
+ * @param size       the effective page size that was applied
+ */
+public record PatientPage(List<PatientView> items, String nextCursor, int size) {
+}
@@ -0,0 +1,16 @@
+package de.ait.patientcare.dto;
+
+import java.util.List;
+
+/**
+ * One page of search results.
+ *
+ * @param items         patients of the requested page
+ * @param page          zero-based page number
+ * @param size          requested page size
+ * @param hasNext       whether another page follows
+ * @param totalElements total number of matches, only computed when requested, otherwise {@code null}
+ */
+public record PatientSearchPage(List<PatientView> items, int page, int size,
+                                boolean hasNext, Long totalElements) {
+}
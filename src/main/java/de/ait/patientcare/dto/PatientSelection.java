@@ -0,0 +1,29 @@
+package de.ait.patientcare.dto;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Active patients a bulk operation applies to: the given ids and/or all
+ * patients matching the filters. An empty selection is rejected, so a bulk
+ * operation never hits the whole table by accident.
+ *
+ * @param ids            patient ids, at most 10,000
+ * @param bornOnOrBefore latest date of birth (inclusive)
+ * @param bornOnOrAfter  earliest date of birth (inclusive)
+ */
+public record PatientSelection(@Size(max = 10_000) List<Long> ids,
+                               Gender gender, BloodType bloodType,
+                               LocalDate bornOnOrBefore, LocalDate bornOnOrAfter) {
+
+    @AssertTrue(message = "Selection must contain ids or at least one filter")
+    public boolean isRestricted() {
+        return (ids != null && !ids.isEmpty())
+                || gender != null || bloodType != null || bornOnOrBefore != null || bornOnOrAfter != null;
+    }
+}
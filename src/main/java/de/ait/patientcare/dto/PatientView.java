@@ -0,0 +1,32 @@
+package de.ait.patientcare.dto;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only copy of a patient for list and search responses, serialized like
+ * {@link Patient}. Selected as a JPQL constructor expression, so no managed
+ * entity, dirty-checking snapshot or change-tracking state is created per row.
+ */
+public record PatientView(Long id, String firstName, String lastName, LocalDate dateOfBirth,
+                          Gender gender, String insuranceNumber, BloodType bloodType,
+                          LocalDateTime createdAt, Long version) {
+
+    /**
+     * Constructor expression selecting the view of {@code Patient p}; the query
+     * continues with its FROM clause.
+     */
+    public static final String SELECT = "SELECT new de.ait.patientcare.dto.PatientView(" +
+            "p.id, p.firstName, p.lastName, p.dateOfBirth, p.gender, p.insuranceNumber, " +
+            "p.bloodType, p.createdAt, p.version) ";
+
+    public static PatientView of(Patient patient) {
+        return new PatientView(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getDateOfBirth(), patient.getGender(), patient.getInsuranceNumber(),
+                patient.getBloodType(), patient.getCreatedAt(), patient.getVersion());
+    }
+}
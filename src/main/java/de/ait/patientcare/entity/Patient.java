@@ -9,6 +9,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
@@ -25,12 +27,21 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(of = {"firstName", "lastName", "insuranceNumber"})
-@SQLDelete(sql = "UPDATE patients SET deleted = true WHERE id=?")
+// Hibernate binds the id and, because of @Version, the version
+@SQLDelete(sql = "UPDATE patients SET deleted = true WHERE id = ? AND version = ?")
 @Where(clause = "deleted = false")
+@EntityListeners(PatientEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Patient.CACHE_REGION)
 public class Patient {
 
+    // Second-level cache region, sized in HibernateCacheConfig
+    public static final String CACHE_REGION = "patients";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (changeset 007): ids are assigned without an INSERT, so inserts can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @EqualsAndHashCode.Include
     private Long id;
@@ -76,4 +87,35 @@ public class Patient {
     @Builder.Default
     @JsonIgnore
     private boolean deleted = false;
-}
\ No newline at end of file
+
+    // Phonetic codes of the names (changeset 008), derived on every insert and update
+    @JsonIgnore
+    private String firstNameCologne;
+
+    @JsonIgnore
+    private String lastNameCologne;
+
+    @JsonIgnore
+    private String firstNameMetaphone;
+
+    @JsonIgnore
+    private String firstNameMetaphoneAlt;
+
+    @JsonIgnore
+    private String lastNameMetaphone;
+
+    @JsonIgnore
+    private String lastNameMetaphoneAlt;
+
+    // State as last read from / written to the database, maintained by PatientEntityListener
+    @Transient
+    @JsonIgnore
+    private PatientSnapshot persistedState;
+
+    // Hibernate reads the state again after @PreUpdate, so the codes are written with the names
+    @PrePersist
+    @PreUpdate
+    void computePhoneticCodes() {
+        PatientPhoneticCodes.of(firstName, lastName).applyTo(this);
+    }
+}
@@ -0,0 +1,55 @@
+package de.ait.patientcare.entity;
+
+import de.ait.patientcare.event.PatientChangedEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * ----------------------------------------------------------------------------
+ * JPA lifecycle listener that turns writes on {@link Patient} into
+ * {@link PatientChangedEvent}s. Hibernate obtains it from the Spring context,
+ * so it can use the application event publisher.
+ * The state seen at load time is remembered on the entity, which lets update
+ * events carry the previous values (e.g. an old gender or blood type).
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onLoad(Patient patient) {
+        patient.setPersistedState(PatientSnapshot.of(patient));
+    }
+
+    @PostPersist
+    public void onPersist(Patient patient) {
+        PatientSnapshot after = PatientSnapshot.of(patient);
+        patient.setPersistedState(after);
+        eventPublisher.publishEvent(new PatientChangedEvent(null, after));
+    }
+
+    @PostUpdate
+    public void onUpdate(Patient patient) {
+        PatientSnapshot before = patient.getPersistedState();
+        PatientSnapshot after = PatientSnapshot.of(patient);
+        patient.setPersistedState(after);
+        eventPublisher.publishEvent(new PatientChangedEvent(before, after));
+    }
+
+    @PostRemove
+    public void onRemove(Patient patient) {
+        PatientSnapshot before = patient.getPersistedState() != null
+                ? patient.getPersistedState()
+                : PatientSnapshot.of(patient);
+        patient.setPersistedState(null);
+        eventPublisher.publishEvent(new PatientChangedEvent(before, null));
+    }
+}
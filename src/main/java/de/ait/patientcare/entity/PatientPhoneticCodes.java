@@ -0,0 +1,79 @@
+package de.ait.patientcare.entity;
+
+import org.apache.commons.codec.language.ColognePhonetic;
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Phonetic codes of a patient's names, stored in the {@code *_cologne} and
+ * {@code *_metaphone*} columns of {@code patients} (changeset 008).
+ * <p>
+ * Koelner Phonetik is built for German spelling variants ({@code Meier},
+ * {@code Mayer}, {@code Maier} all become {@code 67}); Double Metaphone covers
+ * names of other origins and yields an alternate code where the pronunciation
+ * is ambiguous. Both encoders are stateless and safe to share between threads.
+ */
+public record PatientPhoneticCodes(String firstNameCologne, String lastNameCologne,
+                                   String firstNameMetaphone, String firstNameMetaphoneAlt,
+                                   String lastNameMetaphone, String lastNameMetaphoneAlt) {
+
+    private static final ColognePhonetic COLOGNE = new ColognePhonetic();
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    public static PatientPhoneticCodes of(String firstName, String lastName) {
+        return new PatientPhoneticCodes(cologne(firstName), cologne(lastName),
+                metaphone(firstName), metaphoneAlternate(firstName),
+                metaphone(lastName), metaphoneAlternate(lastName));
+    }
+
+    /**
+     * Koelner Phonetik code; empty if the name contains no letters.
+     */
+    public static String cologne(String name) {
+        if (name == null) {
+            return "";
+        }
+        String code = COLOGNE.colognePhonetic(name);
+        return code == null ? "" : code;
+    }
+
+    /**
+     * Primary Double Metaphone code; empty if the name contains no letters.
+     */
+    public static String metaphone(String name) {
+        return doubleMetaphone(name, false);
+    }
+
+    /**
+     * Alternate Double Metaphone code, equal to the primary one for unambiguous names.
+     */
+    public static String metaphoneAlternate(String name) {
+        return doubleMetaphone(name, true);
+    }
+
+    public void applyTo(Patient patient) {
+        patient.setFirstNameCologne(firstNameCologne);
+        patient.setLastNameCologne(lastNameCologne);
+        patient.setFirstNameMetaphone(firstNameMetaphone);
+        patient.setFirstNameMetaphoneAlt(firstNameMetaphoneAlt);
+        patient.setLastNameMetaphone(lastNameMetaphone);
+        patient.setLastNameMetaphoneAlt(lastNameMetaphoneAlt);
+    }
+
+    private static String doubleMetaphone(String name, boolean alternate) {
+        String code = METAPHONE.doubleMetaphone(toAscii(name), alternate);
+        return code == null ? "" : code;
+    }
+
+    // Double Metaphone skips letters outside A-Z, so umlauts and accents are spelled out first
+    private static String toAscii(String name) {
+        if (name == null) {
+            return "";
+        }
+        String lower = name.toLowerCase(Locale.ROOT)
+                .replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss");
+        return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+}
@@ -0,0 +1,24 @@
+package de.ait.patientcare.entity;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the persistent state of a {@link Patient} at one point in time.
+ */
+public record PatientSnapshot(Long id, String firstName, String lastName, LocalDate dateOfBirth,
+                              Gender gender, String insuranceNumber, BloodType bloodType,
+                              Long version, boolean deleted) {
+
+    public static PatientSnapshot of(Patient patient) {
+        return new PatientSnapshot(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getDateOfBirth(), patient.getGender(), patient.getInsuranceNumber(),
+                patient.getBloodType(), patient.getVersion(), patient.isDeleted());
+    }
+
+    public boolean isActive() {
+        return !deleted;
+    }
+}
@@ -0,0 +1,6 @@
+package de.ait.patientcare.entity.enums;
+
+public enum PhoneticAlgorithm {
+    COLOGNE,
+    DOUBLE_METAPHONE
+}
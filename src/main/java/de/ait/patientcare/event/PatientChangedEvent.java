@@ -0,0 +1,18 @@
+package de.ait.patientcare.event;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+
+/**
+ * Published whenever a patient row is inserted, updated or (soft) deleted.
+ * Listeners that keep derived in-memory state should subscribe with
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param before state before the change, {@code null} for newly created patients
+ * @param after  state after the change, {@code null} if the row was removed
+ */
+public record PatientChangedEvent(PatientSnapshot before, PatientSnapshot after) {
+
+    public Long patientId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,80 @@
+package de.ait.patientcare.generator;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Liquibase custom change (changeset 009, context {@code generated}) that
+ * fills a fresh database with {@link PatientDatasetGenerator} patients:
+ * <pre>
+ * spring.liquibase.contexts=generated
+ * spring.liquibase.parameters.generator.rows=5000000
+ * </pre>
+ * Inserts on Liquibase's own connection and in its transaction, so it runs
+ * single-threaded; for large volumes on an existing database use
+ * {@link PatientDatasetLoader}, which inserts in parallel.
+ * ----------------------------------------------------------------------------
+ */
+@Setter
+@Slf4j
+public class PatientDatasetChange implements CustomTaskChange {
+
+    // Set by Liquibase from the <param> elements of the changeset
+    private String rows;
+    private String seed;
+    private String batchSize;
+
+    private long inserted;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        long start = System.nanoTime();
+        try {
+            JdbcConnection connection = (JdbcConnection) database.getConnection();
+            inserted = new PatientDatasetGenerator(Long.parseLong(seed))
+                    .insert(connection.getUnderlyingConnection(), 0, Long.parseLong(rows), Integer.parseInt(batchSize));
+        } catch (SQLException e) {
+            throw new CustomChangeException("Generating patients failed", e);
+        }
+        log.info("Generated {} patients in {} ms", inserted, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Generated " + inserted + " patients";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        try {
+            if (Long.parseLong(rows) < 0) {
+                errors.addError("rows must not be negative");
+            }
+            Long.parseLong(seed);
+            if (Integer.parseInt(batchSize) < 1) {
+                errors.addError("batchSize must be positive");
+            }
+        } catch (NumberFormatException e) {
+            errors.addError("rows, seed and batchSize must be numbers: " + e.getMessage());
+        }
+        return errors;
+    }
+}
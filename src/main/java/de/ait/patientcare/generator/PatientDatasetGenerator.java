@@ -0,0 +1,271 @@
+package de.ait.patientcare.generator;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientPhoneticCodes;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Deterministic synthetic patients for benchmarks and load tests.
+ * <p>
+ * Patient {@code index} depends only on the seed and the index, so every run,
+ * thread split and batch size produces the same patients. Distributions
+ * follow the German population: ages from the 2023 age pyramid, slightly more
+ * women than men, blood types by their frequency in Germany, and first and
+ * last names from frequency lists with Zipf-like weights, some last names
+ * double-barrelled. Dates are relative to {@link #REFERENCE_DATE}, not today.
+ * <p>
+ * Insurance numbers look like the German KVNR (a letter, eight digits and a
+ * check digit) and are a permutation of the index, so they are unique for
+ * all indexes of one seed. They never collide with the hand-written seed data
+ * ({@code INS...}); two different seeds in one database can.
+ * ----------------------------------------------------------------------------
+ */
+public final class PatientDatasetGenerator {
+
+    public static final LocalDate REFERENCE_DATE = LocalDate.of(2025, 1, 1);
+
+    private static final String INSERT =
+            "INSERT INTO patients (id, first_name, last_name, date_of_birth, gender, insurance_number, " +
+            "blood_type, created_at, deleted, version, first_name_cologne, last_name_cologne, " +
+            "first_name_metaphone, first_name_metaphone_alt, last_name_metaphone, last_name_metaphone_alt) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false, 0, ?, ?, ?, ?, ?, ?)";
+
+    // Each value ends a block of ID_BLOCK ids, like Hibernate's pooled optimizer for Patient
+    private static final String NEXT_ID_BLOCK = "SELECT nextval('patients_seq')";
+    private static final int ID_BLOCK = 50;
+
+    private static final String CSV_HEADER = "first_name,last_name,date_of_birth,gender,insurance_number,blood_type";
+
+    // Letter A-Z times eight digits; a multiplier coprime to it makes index -> number a bijection
+    private static final long INSURANCE_SPACE = 26L * 100_000_000L;
+    private static final long INSURANCE_MULTIPLIER = 1_000_000_007L;
+
+    private static final long CREATED_WITHIN_SECONDS = 5L * 365 * 24 * 3600;
+
+    // Share of double-barrelled last names, which also spread the few list names over many values
+    private static final int DOUBLE_BARRELLED_PERCENT = 8;
+
+    private static final Weighted<Name> FEMALE_NAMES = Weighted.names(List.of(
+            "Maria", "Ursula", "Monika", "Petra", "Elisabeth", "Sabine", "Renate", "Helga", "Karin", "Brigitte",
+            "Ingrid", "Erika", "Andrea", "Gisela", "Claudia", "Susanne", "Gabriele", "Christa", "Christine",
+            "Hildegard", "Anna", "Birgit", "Barbara", "Julia", "Stefanie", "Nicole", "Katharina", "Laura",
+            "Sarah", "Lisa", "Sophie", "Marie", "Emma", "Hannah", "Mia", "Lea", "Lena", "Johanna", "Clara",
+            "Jülide", "Ayşe", "Olga", "Natalia", "Agnieszka"));
+    private static final Weighted<Name> MALE_NAMES = Weighted.names(List.of(
+            "Peter", "Michael", "Thomas", "Andreas", "Wolfgang", "Klaus", "Jürgen", "Günter", "Stefan",
+            "Christian", "Uwe", "Werner", "Horst", "Frank", "Dieter", "Manfred", "Gerhard", "Hans", "Bernd",
+            "Torsten", "Markus", "Matthias", "Alexander", "Martin", "Jan", "Daniel", "Tobias", "Sebastian",
+            "Lukas", "Felix", "Jonas", "Leon", "Paul", "Noah", "Elias", "Finn", "Ben", "Maximilian",
+            "Mehmet", "Mustafa", "Sergej", "Piotr", "Dmitri"));
+    private static final Weighted<Name> LAST_NAMES = Weighted.names(List.of(
+            "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz",
+            "Hoffmann", "Schäfer", "Koch", "Bauer", "Richter", "Klein", "Wolf", "Schröder", "Neumann",
+            "Schwarz", "Zimmermann", "Braun", "Krüger", "Hofmann", "Hartmann", "Lange", "Schmitt", "Werner",
+            "Schmitz", "Krause", "Meier", "Lehmann", "Schmid", "Schulze", "Maier", "Köhler", "Herrmann",
+            "König", "Walter", "Mayer", "Huber", "Kaiser", "Fuchs", "Peters", "Lang", "Scholz", "Möller",
+            "Weiß", "Jung", "Hahn", "Schubert", "Vogel", "Friedrich", "Keller", "Günther", "Frank", "Berger",
+            "Winkler", "Roth", "Beck", "Lorenz", "Baumann", "Franke", "Albrecht", "Schuster", "Simon",
+            "Ludwig", "Böhm", "Winter", "Kraus", "Martin", "Schumacher", "Krämer", "Vogt", "Stein", "Jäger",
+            "Otto", "Sommer", "Groß", "Seidel", "Heinrich", "Brandt", "Haas", "Schreiber", "Graf",
+            "Schulte", "Dietrich", "Ziegler", "Kuhn", "Kühn", "Pohl", "Engel", "Horn", "Busch", "Bergmann",
+            "Thomas", "Voigt", "Sauer", "Arnold", "Wolff", "Pfeiffer", "Yılmaz", "Kaya", "Demir", "Nowak",
+            "Kowalski", "Wiśniewski", "Popescu", "Ivanov", "Petrović", "Nguyen", "Rossi", "García"));
+
+    // Share of the population per ten-year age band 0-9 ... 90-99, in percent
+    private static final Weighted<Integer> AGE_BANDS = Weighted.of(
+            List.of(0, 10, 20, 30, 40, 50, 60, 70, 80, 90),
+            new double[]{9.5, 9.2, 10.6, 13.0, 12.0, 15.6, 13.7, 9.0, 6.2, 1.2});
+    private static final Weighted<Gender> GENDERS = Weighted.of(
+            List.of(Gender.FEMALE, Gender.MALE, Gender.OTHER),
+            new double[]{50.6, 49.3, 0.1});
+    private static final Weighted<BloodType> BLOOD_TYPES = Weighted.of(
+            List.of(BloodType.A_POS, BloodType.O_POS, BloodType.B_POS, BloodType.AB_POS,
+                    BloodType.A_NEG, BloodType.O_NEG, BloodType.B_NEG, BloodType.AB_NEG),
+            new double[]{37, 35, 9, 4, 6, 6, 2, 1});
+
+    private final long seed;
+
+    public PatientDatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Patient number {@code index} of this seed, with its phonetic codes set
+     * and without id; {@link #insert} assigns ids.
+     *
+     * @throws IllegalArgumentException if the index is outside the insurance number space
+     */
+    public Patient patient(long index) {
+        if (index < 0 || index >= INSURANCE_SPACE) {
+            throw new IllegalArgumentException("Index out of range: " + index);
+        }
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+
+        Gender gender = GENDERS.pick(random);
+        boolean female = gender == Gender.FEMALE || (gender == Gender.OTHER && random.nextBoolean());
+        Name firstName = (female ? FEMALE_NAMES : MALE_NAMES).pick(random);
+        Name lastName = LAST_NAMES.pick(random);
+        if (random.nextInt(100) < DOUBLE_BARRELLED_PERCENT) {
+            lastName = Name.of(lastName.value() + "-" + LAST_NAMES.pick(random).value());
+        }
+
+        int ageFrom = AGE_BANDS.pick(random);
+        LocalDate oldest = REFERENCE_DATE.minusYears(ageFrom + 10L);
+        LocalDate youngest = REFERENCE_DATE.minusYears(ageFrom).minusDays(1);
+        LocalDate dateOfBirth = youngest.minusDays(random.nextLong(ChronoUnit.DAYS.between(oldest, youngest)));
+
+        Patient patient = Patient.builder()
+                .firstName(firstName.value())
+                .lastName(lastName.value())
+                .dateOfBirth(dateOfBirth)
+                .gender(gender)
+                .insuranceNumber(insuranceNumber(index))
+                .bloodType(BLOOD_TYPES.pick(random))
+                .createdAt(REFERENCE_DATE.atStartOfDay().minusSeconds(random.nextLong(CREATED_WITHIN_SECONDS)))
+                .build();
+        new PatientPhoneticCodes(firstName.cologne(), lastName.cologne(),
+                firstName.metaphone(), firstName.metaphoneAlternate(),
+                lastName.metaphone(), lastName.metaphoneAlternate()).applyTo(patient);
+        return patient;
+    }
+
+    private String insuranceNumber(long index) {
+        long n = (index * INSURANCE_MULTIPLIER + Math.floorMod(seed, INSURANCE_SPACE)) % INSURANCE_SPACE;
+        char letter = (char) ('A' + n / 100_000_000L);
+        String digits = String.format("%08d", n % 100_000_000L);
+        // Weighted digit sum as check digit; letter position (1-26) counts as two digits
+        int position = letter - 'A' + 1;
+        int sum = (position / 10) + (position % 10) * 2;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 2);
+            sum += digit / 10 + digit % 10;
+        }
+        return letter + digits + (sum % 10);
+    }
+
+    /**
+     * Inserts patients {@code from} (inclusive) to {@code to} (exclusive) with
+     * JDBC batches of {@code batchSize}. Ids are reserved from
+     * {@code patients_seq} in blocks of {@value #ID_BLOCK}, the same way
+     * Hibernate does, so they stay dense; the column default would take one
+     * whole block per row. Transactions are left to the caller.
+     *
+     * @return number of rows inserted
+     */
+    public long insert(Connection connection, long from, long to, int batchSize) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT);
+             PreparedStatement nextIdBlock = connection.prepareStatement(NEXT_ID_BLOCK)) {
+            long nextId = 0;
+            long lastId = -1;
+            int pending = 0;
+            for (long index = from; index < to; index++) {
+                if (nextId > lastId) {
+                    lastId = nextIdBlock(nextIdBlock);
+                    nextId = lastId - ID_BLOCK + 1;
+                }
+                ps.setLong(1, nextId++);
+                bind(ps, patient(index));
+                ps.addBatch();
+                if (++pending == batchSize) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+        return to - from;
+    }
+
+    /**
+     * Writes patients {@code from} to {@code to} as CSV with a header, in the
+     * format of the CSV import. The output is byte-identical for the same seed.
+     */
+    public void writeCsv(Writer writer, long from, long to) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        for (long index = from; index < to; index++) {
+            Patient p = patient(index);
+            writer.write(String.join(",", p.getFirstName(), p.getLastName(), p.getDateOfBirth().toString(),
+                    p.getGender().name(), p.getInsuranceNumber(), p.getBloodType().name()));
+            writer.write('\n');
+        }
+    }
+
+    private static long nextIdBlock(PreparedStatement nextIdBlock) throws SQLException {
+        try (ResultSet rs = nextIdBlock.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Parameter 1 is the id
+    private static void bind(PreparedStatement ps, Patient p) throws SQLException {
+        ps.setString(2, p.getFirstName());
+        ps.setString(3, p.getLastName());
+        ps.setDate(4, Date.valueOf(p.getDateOfBirth()));
+        ps.setString(5, p.getGender().name());
+        ps.setString(6, p.getInsuranceNumber());
+        ps.setString(7, p.getBloodType().name());
+        ps.setTimestamp(8, Timestamp.valueOf(p.getCreatedAt()));
+        ps.setString(9, p.getFirstNameCologne());
+        ps.setString(10, p.getLastNameCologne());
+        ps.setString(11, p.getFirstNameMetaphone());
+        ps.setString(12, p.getFirstNameMetaphoneAlt());
+        ps.setString(13, p.getLastNameMetaphone());
+        ps.setString(14, p.getLastNameMetaphoneAlt());
+    }
+
+    // Phonetic codes are computed once per name instead of once per row
+    private record Name(String value, String cologne, String metaphone, String metaphoneAlternate) {
+
+        static Name of(String value) {
+            return new Name(value, PatientPhoneticCodes.cologne(value),
+                    PatientPhoneticCodes.metaphone(value), PatientPhoneticCodes.metaphoneAlternate(value));
+        }
+    }
+
+    // Values with cumulative weights; pick() maps one uniform draw onto them
+    private record Weighted<T>(List<T> values, double[] cumulative) {
+
+        static <T> Weighted<T> of(List<T> values, double[] weights) {
+            double[] cumulative = new double[weights.length];
+            double total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulative[i] = total;
+            }
+            return new Weighted<>(List.copyOf(values), cumulative);
+        }
+
+        // Frequency lists are ordered by rank; weight 1 / rank^0.6 is flatter than Zipf, as the lists are short
+        static Weighted<Name> names(List<String> values) {
+            double[] weights = new double[values.size()];
+            Arrays.setAll(weights, i -> 1.0 / Math.pow(i + 1, 0.6));
+            return of(values.stream().map(Name::of).toList(), weights);
+        }
+
+        T pick(SplittableRandom random) {
+            double u = random.nextDouble() * cumulative[cumulative.length - 1];
+            int i = Arrays.binarySearch(cumulative, u);
+            return values.get(i >= 0 ? Math.min(i + 1, values.size() - 1) : -i - 1);
+        }
+    }
+}
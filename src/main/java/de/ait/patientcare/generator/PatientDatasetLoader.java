@@ -0,0 +1,146 @@
+package de.ait.patientcare.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Command line front end of {@link PatientDatasetGenerator}, active when
+ * {@code app.generator.rows} is set:
+ * <pre>
+ * java -jar patient-care.jar --app.generator.rows=5000000 --spring.main.web-application-type=none
+ * </pre>
+ * Inserts patients {@code app.generator.offset} to {@code offset + rows}
+ * into the configured database: the range is split into chunks of
+ * {@code app.generator.batch-size} rows, which {@code app.generator.threads}
+ * workers insert with one JDBC batch and one transaction each. With
+ * {@code app.generator.output} set it writes a CSV file for the CSV import
+ * instead. Rows get the same content on every run; their ids follow the
+ * insert order, which is only reproducible with one thread.
+ * <p>
+ * Runs before the indexes, caches and filters are built at
+ * {@code ApplicationReadyEvent}, so they include the generated rows. Exits the
+ * application when done unless {@code app.generator.exit=false}.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.generator", name = "rows")
+@Slf4j
+public class PatientDatasetLoader implements ApplicationRunner {
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientDatasetGenerator generator;
+    private final long rows;
+    private final long offset;
+    private final int threads;
+    private final int batchSize;
+    private final String output;
+    private final boolean exit;
+
+    public PatientDatasetLoader(ConfigurableApplicationContext context,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.generator.rows}") long rows,
+                                @Value("${app.generator.seed:42}") long seed,
+                                @Value("${app.generator.offset:0}") long offset,
+                                @Value("${app.generator.threads:4}") int threads,
+                                @Value("${app.generator.batch-size:1000}") int batchSize,
+                                @Value("${app.generator.output:}") String output,
+                                @Value("${app.generator.exit:true}") boolean exit) {
+        this.context = context;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.generator = new PatientDatasetGenerator(seed);
+        this.rows = rows;
+        this.offset = offset;
+        this.threads = Math.max(threads, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.output = output;
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (output.isBlank()) {
+            load();
+        } else {
+            writeCsv(Path.of(output));
+        }
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Inserts the configured range; returns when all chunks are committed.
+     *
+     * @return number of rows inserted
+     * @throws IllegalStateException if a chunk failed; committed chunks stay
+     */
+    public long load() throws InterruptedException {
+        log.info("Generating patients {}..{} with {} threads", offset, offset + rows - 1, threads);
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().daemon().name("patient-generator-", 1).factory());
+        long total = 0;
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (long from = offset; from < offset + rows; from += batchSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + batchSize, offset + rows);
+                futures.add(executor.submit(() -> insert(chunkFrom, chunkTo)));
+            }
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Patient generation failed after " + total + " rows", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        log.info("Generated {} patients in {} ms ({} rows/s)", total, millis, total * 1000 / millis);
+        return total;
+    }
+
+    private long insert(long from, long to) {
+        Long inserted = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<Long>) connection -> generator.insert(connection, from, to, batchSize)));
+        return inserted == null ? 0 : inserted;
+    }
+
+    private void writeCsv(Path file) throws IOException {
+        long start = System.nanoTime();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            generator.writeCsv(writer, offset, offset + rows);
+        }
+        log.info("Wrote {} patients to {} in {} ms", rows, file, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,220 @@
+package de.ait.patientcare.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import de.ait.patientcare.dto.PatientView;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Hand-written JSON serializers for {@link Patient} and {@link PatientView},
+ * registered with Spring Boot's {@code ObjectMapper}. They write the same
+ * object as the bean serializer:
+ * <pre>
+ * {"id":1,"firstName":"Anna","lastName":"Schmidt","dateOfBirth":"1985-04-12","gender":"FEMALE",
+ *  "insuranceNumber":"A123456780","bloodType":"A_POS","createdAt":"2025-01-01T10:00:00.123456","version":0}
+ * </pre>
+ * but without reflective property access: field names and enum values are
+ * pre-encoded {@link SerializedString}s, and dates are formatted into a char
+ * buffer instead of going through {@link DateTimeFormatter}.
+ * <p>
+ * Disabled with {@code app.json.patient-serializer.enabled=false}; reading
+ * request bodies is not affected either way.
+ * ----------------------------------------------------------------------------
+ */
+@JsonComponent
+@ConditionalOnProperty(prefix = "app.json.patient-serializer", name = "enabled", matchIfMissing = true)
+public class PatientJsonSerializers {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString DATE_OF_BIRTH = new SerializedString("dateOfBirth");
+    private static final SerializedString GENDER = new SerializedString("gender");
+    private static final SerializedString INSURANCE_NUMBER = new SerializedString("insuranceNumber");
+    private static final SerializedString BLOOD_TYPE = new SerializedString("bloodType");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    // Indexed by ordinal
+    private static final SerializedString[] GENDERS = names(Gender.values());
+    private static final SerializedString[] BLOOD_TYPES = names(BloodType.values());
+
+    // "yyyy-MM-ddTHH:mm:ss.nnnnnnnnn"
+    private static final int MAX_DATE_TIME_LENGTH = 29;
+
+    public static class PatientSerializer extends StdSerializer<Patient> {
+
+        public PatientSerializer() {
+            super(Patient.class);
+        }
+
+        @Override
+        public void serialize(Patient patient, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(patient);
+            write(gen, provider, patient.getId(), patient.getFirstName(), patient.getLastName(),
+                    patient.getDateOfBirth(), patient.getGender(), patient.getInsuranceNumber(),
+                    patient.getBloodType(), patient.getCreatedAt(), patient.getVersion());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class PatientViewSerializer extends StdSerializer<PatientView> {
+
+        public PatientViewSerializer() {
+            super(PatientView.class);
+        }
+
+        @Override
+        public void serialize(PatientView view, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(view);
+            write(gen, provider, view.id(), view.firstName(), view.lastName(), view.dateOfBirth(),
+                    view.gender(), view.insuranceNumber(), view.bloodType(), view.createdAt(), view.version());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void write(JsonGenerator gen, SerializerProvider provider, Long id, String firstName,
+                              String lastName, LocalDate dateOfBirth, Gender gender, String insuranceNumber,
+                              BloodType bloodType, LocalDateTime createdAt, Long version) throws IOException {
+        boolean timestamps = provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // One buffer for both dates; writeString(char[]...) copies it into the output
+        char[] buffer = new char[MAX_DATE_TIME_LENGTH];
+
+        gen.writeFieldName(ID);
+        writeNumber(gen, id);
+        gen.writeFieldName(FIRST_NAME);
+        gen.writeString(firstName);
+        gen.writeFieldName(LAST_NAME);
+        gen.writeString(lastName);
+        if (timestamps) {
+            provider.defaultSerializeField(DATE_OF_BIRTH.getValue(), dateOfBirth, gen);
+        } else {
+            gen.writeFieldName(DATE_OF_BIRTH);
+            writeDate(gen, dateOfBirth, buffer);
+        }
+        gen.writeFieldName(GENDER);
+        writeEnum(gen, gender == null ? null : GENDERS[gender.ordinal()]);
+        gen.writeFieldName(INSURANCE_NUMBER);
+        gen.writeString(insuranceNumber);
+        gen.writeFieldName(BLOOD_TYPE);
+        writeEnum(gen, bloodType == null ? null : BLOOD_TYPES[bloodType.ordinal()]);
+        if (timestamps) {
+            provider.defaultSerializeField(CREATED_AT.getValue(), createdAt, gen);
+        } else {
+            gen.writeFieldName(CREATED_AT);
+            writeDateTime(gen, createdAt, buffer);
+        }
+        gen.writeFieldName(VERSION);
+        writeNumber(gen, version);
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeEnum(JsonGenerator gen, SerializableString name) throws IOException {
+        if (name == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(name);
+        }
+    }
+
+    private static void writeDate(JsonGenerator gen, LocalDate date, char[] buffer) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+        } else if (date.getYear() < 0 || date.getYear() > 9999) {
+            // ISO adds a sign and more digits; rare enough for the formatter
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format(date));
+        } else {
+            gen.writeString(buffer, 0, formatDate(date, buffer));
+        }
+    }
+
+    private static void writeDateTime(JsonGenerator gen, LocalDateTime dateTime, char[] buffer) throws IOException {
+        if (dateTime == null) {
+            gen.writeNull();
+        } else if (dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime));
+        } else {
+            gen.writeString(buffer, 0, formatDateTime(dateTime, buffer));
+        }
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd} for a year from 0 to 9999.
+     *
+     * @return number of chars written
+     */
+    static int formatDate(LocalDate date, char[] buffer) {
+        digits(date.getYear(), buffer, 0, 4);
+        buffer[4] = '-';
+        digits(date.getMonthValue(), buffer, 5, 2);
+        buffer[7] = '-';
+        digits(date.getDayOfMonth(), buffer, 8, 2);
+        return 10;
+    }
+
+    /**
+     * Writes the date and time like {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}:
+     * seconds always, the fraction without trailing zeros and only if not zero.
+     *
+     * @return number of chars written
+     */
+    static int formatDateTime(LocalDateTime dateTime, char[] buffer) {
+        int length = formatDate(dateTime.toLocalDate(), buffer);
+        buffer[length++] = 'T';
+        digits(dateTime.getHour(), buffer, length, 2);
+        buffer[length + 2] = ':';
+        digits(dateTime.getMinute(), buffer, length + 3, 2);
+        buffer[length + 5] = ':';
+        digits(dateTime.getSecond(), buffer, length + 6, 2);
+        length += 8;
+        int nano = dateTime.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer[length++] = '.';
+            digits(nano, buffer, length, digits);
+            length += digits;
+        }
+        return length;
+    }
+
+    // Zero-padded decimal of a non-negative value
+    private static void digits(int value, char[] buffer, int offset, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static SerializedString[] names(Enum<?>[] values) {
+        SerializedString[] names = new SerializedString[values.length];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = new SerializedString(value.name());
+        }
+        return names;
+    }
+}
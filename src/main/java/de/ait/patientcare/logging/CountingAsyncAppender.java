@@ -0,0 +1,76 @@
+package de.ait.patientcare.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Logback {@link AsyncAppender} that counts the events it loses.
+ * <p>
+ * Callers only put the event into a bounded queue; a single worker thread
+ * writes it to the wrapped appender. Once the queue is 80% full
+ * ({@code discardingThreshold}), TRACE, DEBUG and INFO events are discarded;
+ * with {@code neverBlock} a full queue drops every further event instead of
+ * blocking the caller. Both are counted here, across reconfigurations, and
+ * published by {@code PatientCareMetrics}. A drop racing with the last free
+ * slot may go uncounted.
+ * ----------------------------------------------------------------------------
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final Set<CountingAsyncAppender> RUNNING = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Events lost since startup, over all instances.
+     *
+     * @param dropped   events dropped because the queue was full
+     * @param discarded events below WARN discarded because the queue was nearly full
+     * @param queued    events currently waiting in the queues of running appenders
+     */
+    public record Stats(long dropped, long discarded, int queued) {
+    }
+
+    public static Stats stats() {
+        int queued = RUNNING.stream().mapToInt(CountingAsyncAppender::getNumberOfElementsInQueue).sum();
+        return new Stats(DROPPED.sum(), DISCARDED.sum(), queued);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            DROPPED.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    // Only asked while the queue is above the discarding threshold
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            DISCARDED.increment();
+        }
+        return discardable;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted()) {
+            RUNNING.add(this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        RUNNING.remove(this);
+        super.stop();
+    }
+}
@@ -0,0 +1,57 @@
+package de.ait.patientcare.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * ----------------------------------------------------------------------------
+ * One JSON object per line, for log shippers that index fields instead of
+ * parsing text:
+ * <pre>
+ * {"timestamp":"2025-01-01T10:00:00.123Z","level":"INFO","thread":"http-nio-8080-exec-1",
+ *  "logger":"de.ait.patientcare.service.PatientService","message":"...",
+ *  "requestId":"9f86d081884c7d65","sampled":"true"}
+ * </pre>
+ * MDC entries become top-level fields; a stack trace goes into {@code exception}.
+ * ----------------------------------------------------------------------------
+ */
+public class JsonLogLayout extends LayoutBase<ILoggingEvent> {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+            json.writeStringField("level", event.getLevel().toString());
+            json.writeStringField("thread", event.getThreadName());
+            json.writeStringField("logger", event.getLoggerName());
+            json.writeStringField("message", event.getFormattedMessage());
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                json.writeStringField(entry.getKey(), entry.getValue());
+            }
+            IThrowableProxy throwable = event.getThrowableProxy();
+            if (throwable != null) {
+                json.writeStringField("exception", ThrowableProxyUtil.asString(throwable));
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.append(CoreConstants.LINE_SEPARATOR).toString();
+    }
+}
@@ -0,0 +1,61 @@
+package de.ait.patientcare.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Decides once per request whether its DEBUG and INFO logs are written, so a
+ * sampled request is logged completely and an unsampled one not at all
+ * (warnings and errors always are, see {@link RequestSamplingTurboFilter}).
+ * <p>
+ * {@code app.logging.sample-rate} is the sampled share of requests, 1.0 logs
+ * every request. A request with {@code X-Log-Sampled: true} is always
+ * sampled. The decision and a request id are put into the MDC as
+ * {@value #SAMPLED_KEY} and {@value #REQUEST_ID_KEY}; the JSON log layout
+ * writes both with every event.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestSamplingFilter extends OncePerRequestFilter {
+
+    public static final String SAMPLED_KEY = "sampled";
+    public static final String REQUEST_ID_KEY = "requestId";
+    public static final String FORCE_HEADER = "X-Log-Sampled";
+
+    private final double sampleRate;
+
+    public RequestSamplingFilter(@Value("${app.logging.sample-rate:1.0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean sampled = sampleRate >= 1.0
+                || random.nextDouble() < sampleRate
+                || "true".equalsIgnoreCase(request.getHeader(FORCE_HEADER));
+        MDC.put(SAMPLED_KEY, Boolean.toString(sampled));
+        MDC.put(REQUEST_ID_KEY, HexFormat.of().toHexDigits(random.nextLong()));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(SAMPLED_KEY);
+            MDC.remove(REQUEST_ID_KEY);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.ait.patientcare.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Drops the log events of requests that {@link RequestSamplingFilter} did not
+ * sample, before Logback formats or queues them.
+ * <p>
+ * Events at or above {@code alwaysLevel} (WARN by default) always pass, as do
+ * events outside a request (no {@value RequestSamplingFilter#SAMPLED_KEY} in
+ * the MDC), e.g. from startup and background jobs. Events the logger level
+ * disables anyway are left to Logback and not counted.
+ * ----------------------------------------------------------------------------
+ */
+public class RequestSamplingTurboFilter extends TurboFilter {
+
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+
+    private Level alwaysLevel = Level.WARN;
+
+    /**
+     * @return events dropped because their request was not sampled, since startup
+     */
+    public static long sampledOut() {
+        return SAMPLED_OUT.sum();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        // getEffectiveLevel(), not isEnabledFor(): the latter would ask the turbo filters again
+        if (level == null || level.isGreaterOrEqual(alwaysLevel)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!"false".equals(MDC.get(RequestSamplingFilter.SAMPLED_KEY))) {
+            return FilterReply.NEUTRAL;
+        }
+        // isInfoEnabled() and friends are asked without a format; only real events are counted
+        if (format != null) {
+            SAMPLED_OUT.increment();
+        }
+        return FilterReply.DENY;
+    }
+
+    /**
+     * Set from logback-spring.xml ({@code <alwaysLevel>ERROR</alwaysLevel>}).
+     */
+    public void setAlwaysLevel(String alwaysLevel) {
+        this.alwaysLevel = Level.toLevel(alwaysLevel, Level.WARN);
+    }
+}
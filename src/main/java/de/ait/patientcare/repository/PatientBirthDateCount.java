@@ -0,0 +1,12 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * Number of active patients per gender, blood type and date of birth.
+ */
+public record PatientBirthDateCount(Gender gender, BloodType bloodType, LocalDate dateOfBirth, Long count) {
+}
@@ -0,0 +1,16 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * The columns duplicate detection compares, one per active patient. The
+ * Koelner Phonetik codes are never {@code null}: rows not backfilled yet are
+ * encoded while they are read.
+ */
+public record PatientDuplicateKey(long id, String firstName, String lastName, LocalDate dateOfBirth,
+                                  Gender gender, BloodType bloodType,
+                                  String firstNameCologne, String lastNameCologne) {
+}
@@ -0,0 +1,223 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientPhoneticCodes;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the {@code patients} table for paths where a JPA
+ * persistence context would only add overhead, e.g. full-table streaming.
+ * Rows are mapped to detached {@link Patient} instances that are never managed.
+ */
+@Repository
+public class PatientJdbcRepository {
+
+    private static final String SELECT_ACTIVE =
+            "SELECT id, first_name, last_name, date_of_birth, gender, insurance_number, " +
+            "blood_type, created_at, version FROM patients WHERE deleted = false ORDER BY id";
+
+    private static final String SELECT_ACTIVE_SEARCH_KEYS =
+            "SELECT id, gender, blood_type, date_of_birth FROM patients WHERE deleted = false";
+
+    private static final String SELECT_ACTIVE_NAMES =
+            "SELECT id, first_name, last_name FROM patients WHERE deleted = false";
+
+    private static final String SELECT_ACTIVE_DUPLICATE_KEYS =
+            "SELECT id, first_name, last_name, date_of_birth, gender, blood_type, " +
+            "first_name_cologne, last_name_cologne FROM patients WHERE deleted = false";
+
+    // Deleted rows too: the unique constraint on insurance_number covers them
+    private static final String SELECT_INSURANCE_NUMBERS = "SELECT insurance_number FROM patients";
+
+    // Including deleted rows, so every stored name has its codes
+    private static final String SELECT_ID_RANGE_WITHOUT_PHONETIC_CODES =
+            "SELECT MIN(id), MAX(id) FROM patients WHERE last_name_cologne IS NULL";
+
+    private static final String SELECT_NAMES_WITHOUT_PHONETIC_CODES =
+            "SELECT id, first_name, last_name FROM patients " +
+            "WHERE id BETWEEN ? AND ? AND last_name_cologne IS NULL";
+
+    // Skips rows renamed or already encoded by a concurrent JPA write, which computed its own codes
+    private static final String UPDATE_PHONETIC_CODES =
+            "UPDATE patients SET first_name_cologne = ?, last_name_cologne = ?, " +
+            "first_name_metaphone = ?, first_name_metaphone_alt = ?, " +
+            "last_name_metaphone = ?, last_name_metaphone_alt = ? " +
+            "WHERE id = ? AND first_name = ? AND last_name = ? AND last_name_cologne IS NULL";
+
+    // Deleted rows too: a soft delete is a change the caller must be able to see
+    private static final String SELECT_VERSIONS = "SELECT id, version, deleted FROM patients WHERE id IN (%s)";
+
+    // Ids per IN list of findVersions
+    private static final int IN_LIST_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+
+    public PatientJdbcRepository(DataSource dataSource,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Separate template so the fetch size does not leak into other JDBC users
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Streams all active patients through a forward-only, read-only cursor.
+     * The consumer is invoked once per row; any exception it throws aborts the
+     * query and closes the cursor.
+     */
+    public void streamActive(Consumer<Patient> consumer) {
+        streamingTemplate.query(SELECT_ACTIVE, rs -> {
+            consumer.accept(mapRow(rs));
+        });
+    }
+
+    /**
+     * Streams the searchable columns of all active patients, in no particular order.
+     */
+    public void streamActiveSearchKeys(Consumer<PatientSearchKey> consumer) {
+        streamingTemplate.query(SELECT_ACTIVE_SEARCH_KEYS, rs -> {
+            consumer.accept(new PatientSearchKey(
+                    rs.getLong("id"),
+                    Gender.valueOf(rs.getString("gender")),
+                    BloodType.valueOf(rs.getString("blood_type")),
+                    rs.getDate("date_of_birth").toLocalDate()));
+        });
+    }
+
+    /**
+     * Streams the names of all active patients, in no particular order.
+     */
+    public void streamActiveNames(Consumer<PatientNameKey> consumer) {
+        streamingTemplate.query(SELECT_ACTIVE_NAMES, rs -> {
+            consumer.accept(new PatientNameKey(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name")));
+        });
+    }
+
+    /**
+     * Streams the columns compared by duplicate detection for all active patients, in no particular order.
+     */
+    public void streamActiveDuplicateKeys(Consumer<PatientDuplicateKey> consumer) {
+        streamingTemplate.query(SELECT_ACTIVE_DUPLICATE_KEYS, rs -> {
+            String firstName = rs.getString("first_name");
+            String lastName = rs.getString("last_name");
+            String firstNameCologne = rs.getString("first_name_cologne");
+            String lastNameCologne = rs.getString("last_name_cologne");
+            consumer.accept(new PatientDuplicateKey(
+                    rs.getLong("id"),
+                    firstName,
+                    lastName,
+                    rs.getDate("date_of_birth").toLocalDate(),
+                    Gender.valueOf(rs.getString("gender")),
+                    BloodType.valueOf(rs.getString("blood_type")),
+                    firstNameCologne != null ? firstNameCologne : PatientPhoneticCodes.cologne(firstName),
+                    lastNameCologne != null ? lastNameCologne : PatientPhoneticCodes.cologne(lastName)));
+        });
+    }
+
+    /**
+     * Streams the insurance numbers of all patients, including soft-deleted ones.
+     */
+    public void streamInsuranceNumbers(Consumer<String> consumer) {
+        streamingTemplate.query(SELECT_INSURANCE_NUMBERS, rs -> {
+            consumer.accept(rs.getString(1));
+        });
+    }
+
+    /**
+     * @return lowest and highest id of the rows whose phonetic codes are not set yet
+     */
+    public Optional<long[]> findIdRangeWithoutPhoneticCodes() {
+        return jdbcTemplate.query(SELECT_ID_RANGE_WITHOUT_PHONETIC_CODES, rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? Optional.empty() : Optional.of(new long[]{min, rs.getLong(2)});
+        });
+    }
+
+    /**
+     * Names of the rows in the id range whose phonetic codes are not set yet, deleted rows included.
+     */
+    public List<PatientNameKey> findNamesWithoutPhoneticCodes(long fromId, long toId) {
+        return jdbcTemplate.query(SELECT_NAMES_WITHOUT_PHONETIC_CODES,
+                (rs, rowNum) -> new PatientNameKey(rs.getLong("id"), rs.getString("first_name"),
+                        rs.getString("last_name")),
+                fromId, toId);
+    }
+
+    /**
+     * Writes the phonetic codes of the given names in one JDBC batch, without
+     * touching {@code version}: the codes are derived data, not a change of the patient.
+     *
+     * @return number of rows updated
+     */
+    public int updatePhoneticCodes(List<PatientNameKey> names) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_PHONETIC_CODES, names, names.size(), (ps, name) -> {
+            PatientPhoneticCodes codes = PatientPhoneticCodes.of(name.firstName(), name.lastName());
+            ps.setString(1, codes.firstNameCologne());
+            ps.setString(2, codes.lastNameCologne());
+            ps.setString(3, codes.firstNameMetaphone());
+            ps.setString(4, codes.firstNameMetaphoneAlt());
+            ps.setString(5, codes.lastNameMetaphone());
+            ps.setString(6, codes.lastNameMetaphoneAlt());
+            ps.setLong(7, name.id());
+            ps.setString(8, name.firstName());
+            ps.setString(9, name.lastName());
+        });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) from drivers that do not report per-statement counts
+                updated += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Versions of the given rows as visible to the current transaction; ids without a row are left out.
+     */
+    public List<PatientRowVersion> findVersions(List<Long> ids) {
+        List<PatientRowVersion> versions = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_LIST_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_SIZE, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            versions.addAll(jdbcTemplate.query(SELECT_VERSIONS.formatted(placeholders),
+                    (rs, rowNum) -> new PatientRowVersion(rs.getLong("id"), rs.getLong("version"),
+                            rs.getBoolean("deleted")),
+                    chunk.toArray()));
+        }
+        return versions;
+    }
+
+    static Patient mapRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return Patient.builder()
+                .id(rs.getLong("id"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .dateOfBirth(rs.getDate("date_of_birth").toLocalDate())
+                .gender(Gender.valueOf(rs.getString("gender")))
+                .insuranceNumber(rs.getString("insurance_number"))
+                .bloodType(BloodType.valueOf(rs.getString("blood_type")))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .version(rs.getLong("version"))
+                .deleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,7 @@
+package de.ait.patientcare.repository;
+
+/**
+ * The name columns the in-memory name index is built from, one per active patient.
+ */
+public record PatientNameKey(long id, String firstName, String lastName) {
+}
@@ -1,16 +1,27 @@
 package de.ait.patientcare.repository;
 
+import de.ait.patientcare.dto.PatientView;
 import de.ait.patientcare.entity.Patient;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * ----------------------------------------------------------------------------
@@ -21,33 +32,88 @@ import java.util.List;
  */
 @Repository
 public interface PatientRepository
-        extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
+        extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient>, PatientRepositoryCustom {
 
     boolean existsByInsuranceNumber(String insuranceNumber);
 
+    // Set-based uniqueness check for bulk inserts; native so that soft-deleted rows count as well
+    @Query(value = "SELECT insurance_number FROM patients WHERE insurance_number IN (:numbers)",
+            nativeQuery = true)
+    List<String> findExistingInsuranceNumbers(@Param("numbers") Collection<String> numbers);
+
+    // Version-only projection for conditional requests (ETag), without loading the entity
+    @Query("SELECT p.version FROM Patient p WHERE p.id = :id AND p.deleted = false")
+    Optional<Long> findActiveVersionById(@Param("id") Long id);
+
+    // Search with total count; both the page and the COUNT query go through the query cache
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Page<Patient> findAll(Specification<Patient> spec, Pageable pageable);
+
     // To search for active patients
     List<Patient> findByDeletedFalse();
 
-    // For statistics
+    // Read-only list of all active patients; rows are not managed by the persistence context
+    @Query(PatientView.SELECT + "FROM Patient p WHERE p.deleted = false")
+    List<PatientView> findActiveViews();
+
+    // Page of the search index, loaded as views; the caller restores the index order
+    @Query(PatientView.SELECT + "FROM Patient p WHERE p.id IN :ids AND p.deleted = false")
+    List<PatientView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: first page ordered by the idx_patients_name columns plus id as tie-breaker
+    @Query(PatientView.SELECT + "FROM Patient p WHERE p.deleted = false " +
+            "ORDER BY p.lastName, p.firstName, p.id")
+    List<PatientView> findFirstPage(Limit limit);
+
+    // Keyset pagination: rows strictly after the given (lastName, firstName, id) position.
+    // The redundant "lastName >= :lastName" lets the planner start an index range scan.
+    @Query(PatientView.SELECT + "FROM Patient p WHERE p.deleted = false " +
+            "AND p.lastName >= :lastName " +
+            "AND (p.lastName > :lastName " +
+            "OR (p.lastName = :lastName AND p.firstName > :firstName) " +
+            "OR (p.lastName = :lastName AND p.firstName = :firstName AND p.id > :id)) " +
+            "ORDER BY p.lastName, p.firstName, p.id")
+    List<PatientView> findPageAfter(@Param("lastName") String lastName,
+                                    @Param("firstName") String firstName,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    // For statistics; count queries are answered from the query cache until the table changes
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     long countByDeletedFalse();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     long countByGender(Gender gender);
 
     // To search for patients over a certain age
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     long countByDateOfBirthBefore(LocalDate date);
 
-    // Custom search method with filters
-    @Query("SELECT p FROM Patient p WHERE p.deleted = false " +
-            "AND (:gender IS NULL OR p.gender = :gender) " +
-            "AND (:bloodType IS NULL OR p.bloodType = :bloodType) " +
-            "AND (:birthBefore IS NULL OR p.dateOfBirth <= :birthBefore) " +
-            "AND (:birthAfter IS NULL OR p.dateOfBirth >= :birthAfter)" +
-            "ORDER BY p.lastName, p.firstName")
-    List<Patient> search(@Param("gender") Gender gender,
-                         @Param("bloodType") BloodType bloodType,
-                         @Param("birthBefore") LocalDate birthBefore,
-                         @Param("birthAfter") LocalDate birthAfter);
+    // Source for the in-memory statistics counters (rebuild and reconciliation)
+    @Query("SELECT new de.ait.patientcare.repository.PatientBirthDateCount(" +
+            "p.gender, p.bloodType, p.dateOfBirth, COUNT(p)) " +
+            "FROM Patient p WHERE p.deleted = false " +
+            "GROUP BY p.gender, p.bloodType, p.dateOfBirth")
+    List<PatientBirthDateCount> countByGenderBloodTypeAndBirthDate();
 
     // Alternative method for countOlderThan
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.deleted = false AND p.dateOfBirth < :date")
     long countOlderThan(@Param("date") LocalDate date);
-}
\ No newline at end of file
+
+    // Set-based soft delete; the rows are locked by findForUpdate first, so events can describe the change
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Patient p SET p.deleted = true, p.version = p.version + 1 " +
+            "WHERE p.id IN :ids AND p.deleted = false")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based field correction; a null argument keeps the current value
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Patient p SET p.bloodType = COALESCE(:bloodType, p.bloodType), " +
+            "p.gender = COALESCE(:gender, p.gender), p.version = p.version + 1 " +
+            "WHERE p.id IN :ids AND p.deleted = false")
+    int reassignByIdIn(@Param("ids") Collection<Long> ids,
+                       @Param("bloodType") BloodType bloodType,
+                       @Param("gender") Gender gender);
+}
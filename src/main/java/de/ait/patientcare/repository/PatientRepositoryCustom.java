@@ -0,0 +1,54 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.dto.PatientView;
+import de.ait.patientcare.entity.Patient;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository fragment for queries Spring Data cannot derive, implemented in
+ * {@link PatientRepositoryCustomImpl}.
+ */
+public interface PatientRepositoryCustom {
+
+    /**
+     * Like {@code findAll(spec, pageable)} but without the extra COUNT query:
+     * one additional row is fetched to decide whether a next slice exists.
+     */
+    Slice<Patient> findSlice(Specification<Patient> spec, Pageable pageable);
+
+    /**
+     * Same as {@link #findSlice} but selects {@link PatientView}s with a
+     * constructor expression instead of loading entities.
+     */
+    Slice<PatientView> findViewSlice(Specification<Patient> spec, Pageable pageable);
+
+    /**
+     * Page of {@link PatientView}s with total count. The COUNT query is skipped
+     * when the total follows from the page itself (e.g. a short first page).
+     */
+    Page<PatientView> findViewPage(Specification<Patient> spec, Pageable pageable);
+
+    /**
+     * Computes all statistics in a single scan: active patients are grouped by
+     * gender and blood type, and every cut-off date becomes a conditional
+     * aggregate ({@code SUM(CASE WHEN ...)}) in the same SELECT.
+     *
+     * @param bornBefore     cut-off for the strict "born before" counter (e.g. older than 60)
+     * @param bornOnOrBefore cut-offs for age bucket boundaries
+     */
+    List<PatientStatisticsGroup> aggregateStatistics(LocalDate bornBefore, List<LocalDate> bornOnOrBefore);
+
+    /**
+     * Loads and locks ({@code SELECT ... FOR UPDATE}) the next rows matching
+     * {@code spec} in id order, for bulk updates that walk the table in chunks.
+     *
+     * @param afterId only rows with a greater id; {@code 0} for the first chunk
+     */
+    List<Patient> findForUpdate(Specification<Patient> spec, long afterId, int limit);
+}
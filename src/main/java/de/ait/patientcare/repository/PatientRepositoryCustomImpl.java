@@ -0,0 +1,159 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.dto.PatientView;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Patient> findSlice(Specification<Patient> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Patient> query = cb.createQuery(Patient.class);
+        Root<Patient> root = query.from(Patient.class);
+        filterAndSort(query, root, cb, spec, pageable.getSort());
+
+        // Search results are only serialized, so Hibernate keeps no snapshots for dirty checking
+        return slice(entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_READ_ONLY, true), pageable);
+    }
+
+    @Override
+    public Slice<PatientView> findViewSlice(Specification<Patient> spec, Pageable pageable) {
+        return slice(entityManager.createQuery(viewQuery(spec, pageable.getSort())), pageable);
+    }
+
+    @Override
+    public Page<PatientView> findViewPage(Specification<Patient> spec, Pageable pageable) {
+        List<PatientView> content = entityManager.createQuery(viewQuery(spec, pageable.getSort()))
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private CriteriaQuery<PatientView> viewQuery(Specification<Patient> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PatientView> query = cb.createQuery(PatientView.class);
+        Root<Patient> root = query.from(Patient.class);
+        query.select(cb.construct(PatientView.class,
+                root.get("id"), root.get("firstName"), root.get("lastName"), root.get("dateOfBirth"),
+                root.get("gender"), root.get("insuranceNumber"), root.get("bloodType"),
+                root.get("createdAt"), root.get("version")));
+        filterAndSort(query, root, cb, spec, sort);
+        return query;
+    }
+
+    private long count(Specification<Patient> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Patient> root = query.from(Patient.class);
+        query.select(cb.count(root));
+        filterAndSort(query, root, cb, spec, Sort.unsorted());
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    private static void filterAndSort(CriteriaQuery<?> query, Root<Patient> root, CriteriaBuilder cb,
+                                      Specification<Patient> spec, Sort sort) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(toOrders(sort, root, cb));
+        }
+    }
+
+    // One extra row tells whether another slice exists without a COUNT query
+    private static <T> Slice<T> slice(TypedQuery<T> query, Pageable pageable) {
+        List<T> rows = query
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    // Read-only here rather than in PatientService: the in-memory counters answer without a connection
+    @Override
+    @Transactional(readOnly = true)
+    public List<PatientStatisticsGroup> aggregateStatistics(LocalDate bornBefore, List<LocalDate> bornOnOrBefore) {
+        StringBuilder jpql = new StringBuilder("SELECT p.gender, p.bloodType, COUNT(p), ")
+                .append("SUM(CASE WHEN p.dateOfBirth < :bornBefore THEN 1 ELSE 0 END)");
+        for (int i = 0; i < bornOnOrBefore.size(); i++) {
+            jpql.append(", SUM(CASE WHEN p.dateOfBirth <= :cutoff").append(i).append(" THEN 1 ELSE 0 END)");
+        }
+        jpql.append(" FROM Patient p WHERE p.deleted = false GROUP BY p.gender, p.bloodType");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .setParameter("bornBefore", bornBefore);
+        for (int i = 0; i < bornOnOrBefore.size(); i++) {
+            query.setParameter("cutoff" + i, bornOnOrBefore.get(i));
+        }
+
+        List<PatientStatisticsGroup> groups = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            long[] cumulative = new long[bornOnOrBefore.size()];
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] = toLong(row[4 + i]);
+            }
+            groups.add(new PatientStatisticsGroup((Gender) row[0], (BloodType) row[1],
+                    toLong(row[2]), toLong(row[3]), cumulative));
+        }
+        return groups;
+    }
+
+    @Override
+    public List<Patient> findForUpdate(Specification<Patient> spec, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Patient> query = cb.createQuery(Patient.class);
+        Root<Patient> root = query.from(Patient.class);
+
+        query.where(spec.and(PatientSpecifications.idGreaterThan(afterId)).toPredicate(root, query, cb));
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // SUM over an empty group is NULL and its numeric type depends on the dialect
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,7 @@
+package de.ait.patientcare.repository;
+
+/**
+ * Version and soft-delete flag of one patient row, deleted rows included.
+ */
+public record PatientRowVersion(long id, long version, boolean deleted) {
+}
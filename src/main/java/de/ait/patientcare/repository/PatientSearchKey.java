@@ -0,0 +1,12 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * The columns the in-memory search index is built from, one per active patient.
+ */
+public record PatientSearchKey(long id, Gender gender, BloodType bloodType, LocalDate dateOfBirth) {
+}
@@ -0,0 +1,96 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Specifications for dynamic patient search.
+ * Only the filters that are actually set end up in the WHERE clause, so the
+ * planner sees plain equality/range predicates it can match against
+ * idx_patients_gender_dob, idx_patients_blood_type and idx_patients_date_of_birth.
+ * ----------------------------------------------------------------------------
+ */
+public final class PatientSpecifications {
+
+    private PatientSpecifications() {
+    }
+
+    public static Specification<Patient> isActive() {
+        return (root, query, cb) -> cb.isFalse(root.get("deleted"));
+    }
+
+    public static Specification<Patient> hasGender(Gender gender) {
+        return (root, query, cb) -> cb.equal(root.get("gender"), gender);
+    }
+
+    public static Specification<Patient> hasBloodType(BloodType bloodType) {
+        return (root, query, cb) -> cb.equal(root.get("bloodType"), bloodType);
+    }
+
+    public static Specification<Patient> bornOnOrBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dateOfBirth"), date);
+    }
+
+    public static Specification<Patient> bornOnOrAfter(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dateOfBirth"), date);
+    }
+
+    public static Specification<Patient> hasIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Patient> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    // Served by idx_patients_name_cologne (last_name_cologne, first_name_cologne)
+    public static Specification<Patient> lastNameCologneEquals(String code) {
+        return (root, query, cb) -> cb.equal(root.get("lastNameCologne"), code);
+    }
+
+    public static Specification<Patient> firstNameCologneEquals(String code) {
+        return (root, query, cb) -> cb.equal(root.get("firstNameCologne"), code);
+    }
+
+    // Primary or alternate code of the stored name is one of the query codes:
+    // an OR of two IN lists, one per metaphone index
+    public static Specification<Patient> lastNameMetaphoneIn(Collection<String> codes) {
+        return (root, query, cb) -> cb.or(
+                root.get("lastNameMetaphone").in(codes),
+                root.get("lastNameMetaphoneAlt").in(codes));
+    }
+
+    public static Specification<Patient> firstNameMetaphoneIn(Collection<String> codes) {
+        return (root, query, cb) -> cb.or(
+                root.get("firstNameMetaphone").in(codes),
+                root.get("firstNameMetaphoneAlt").in(codes));
+    }
+
+    /**
+     * Combines the given filters; {@code null} arguments are skipped entirely
+     * instead of being rendered as {@code :param IS NULL OR ...}.
+     */
+    public static Specification<Patient> matching(Gender gender, BloodType bloodType,
+                                                  LocalDate birthBefore, LocalDate birthAfter) {
+        Specification<Patient> spec = isActive();
+        if (gender != null) {
+            spec = spec.and(hasGender(gender));
+        }
+        if (bloodType != null) {
+            spec = spec.and(hasBloodType(bloodType));
+        }
+        if (birthBefore != null) {
+            spec = spec.and(bornOnOrBefore(birthBefore));
+        }
+        if (birthAfter != null) {
+            spec = spec.and(bornOnOrAfter(birthAfter));
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,16 @@
+package de.ait.patientcare.repository;
+
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+/**
+ * Aggregated counts of active patients sharing one gender and blood type,
+ * as produced by {@link PatientRepositoryCustom#aggregateStatistics}.
+ *
+ * @param count          number of patients in the group
+ * @param bornBefore     patients born strictly before the {@code bornBefore} date of the query
+ * @param bornOnOrBefore patients born on or before each of the requested cut-off dates, in order
+ */
+public record PatientStatisticsGroup(Gender gender, BloodType bloodType, long count,
+                                     long bornBefore, long[] bornOnOrBefore) {
+}
@@ -0,0 +1,48 @@
+package de.ait.patientcare.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Age buckets described by their inclusive lower bounds in years,
+ * e.g. {@code [0, 18, 40]} means "0-17", "18-39" and "40+".
+ */
+public record AgeBuckets(List<Integer> lowerBounds) {
+
+    private static final int MAX_BUCKETS = 20;
+
+    /**
+     * Sorts and de-duplicates the bounds and makes sure the first bucket starts at 0,
+     * so every patient falls into exactly one bucket.
+     */
+    public static AgeBuckets of(List<Integer> bounds) {
+        TreeSet<Integer> sorted = new TreeSet<>();
+        sorted.add(0);
+        for (Integer bound : bounds) {
+            if (bound == null || bound < 0 || bound > 150) {
+                throw new IllegalArgumentException("Age bucket bounds must be between 0 and 150");
+            }
+            sorted.add(bound);
+        }
+        if (sorted.size() > MAX_BUCKETS) {
+            throw new IllegalArgumentException("At most " + MAX_BUCKETS + " age buckets are supported");
+        }
+        return new AgeBuckets(List.copyOf(sorted));
+    }
+
+    public int size() {
+        return lowerBounds.size();
+    }
+
+    public List<String> labels() {
+        List<String> labels = new ArrayList<>(lowerBounds.size());
+        for (int i = 0; i < lowerBounds.size(); i++) {
+            int from = lowerBounds.get(i);
+            labels.add(i + 1 < lowerBounds.size()
+                    ? from + "-" + (lowerBounds.get(i + 1) - 1)
+                    : from + "+");
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,144 @@
+package de.ait.patientcare.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Minimal RFC 4180 reader: one record at a time, quoted fields may contain the
+ * delimiter, doubled quotes and line breaks. Lines may end with CRLF, LF or CR.
+ * <p>
+ * Only the current record is held in memory; a record longer than
+ * {@code maxRecordChars} (typically an unterminated quote) fails the read
+ * instead of consuming the rest of the file. Quotes inside unquoted fields and
+ * text after a closing quote are kept as is, as legacy exports produce both.
+ * ----------------------------------------------------------------------------
+ */
+public final class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final int maxRecordChars;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long recordNumber;
+
+    public CsvRecordReader(Reader reader, char delimiter, int maxRecordChars) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * @return the fields of the next record, or {@code null} at the end of the input
+     * @throws IOException if the input cannot be read or a record exceeds {@code maxRecordChars}
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordChars) {
+                throw new IOException("Record " + (recordNumber + 1) + " exceeds " + maxRecordChars
+                        + " characters (unterminated quote?)");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + (recordNumber + 1));
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                recordNumber++;
+                return fields;
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return number of records returned so far, including the header
+     */
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Formats fields as one record (without line break), quoting where needed.
+     */
+    public static String format(List<String> fields, char delimiter) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                line.append(delimiter);
+            }
+            String value = fields.get(i) == null ? "" : fields.get(i);
+            if (value.indexOf(delimiter) >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
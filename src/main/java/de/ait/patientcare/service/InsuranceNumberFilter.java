@@ -0,0 +1,253 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Bloom filter over all insurance numbers, used to skip the
+ * {@code existsByInsuranceNumber} query on writes.
+ * <p>
+ * A negative answer is definite: the number has never been stored, so the
+ * insert can go ahead with the unique constraint as the final guard. A
+ * positive answer may be false and falls back to the query.
+ * <p>
+ * Numbers are added as soon as a write is flushed, before commit; a rolled
+ * back write only leaves a harmless extra positive. Numbers that are changed
+ * or removed cannot be taken out, so the filter is rebuilt from the database
+ * at startup and periodically. Writes during a rebuild go into both the
+ * current and the new filter.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class InsuranceNumberFilter {
+
+    private final PatientJdbcRepository jdbcRepository;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile Bits bits;
+    private volatile Bits building;
+    private volatile long lastCount;
+
+    private final LongAdder definitelyAbsent = new LongAdder();
+    private final LongAdder confirmedPresent = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * Lookup counters since startup and the current filter size.
+     *
+     * @param estimatedFalsePositiveRate expected rate for the current fill level
+     */
+    public record Stats(long definitelyAbsent, long confirmedPresent, long falsePositives,
+                        double estimatedFalsePositiveRate, long bytes) {
+
+        /**
+         * @return share of absent numbers the filter did not rule out, as observed
+         */
+        public double observedFalsePositiveRate() {
+            long absent = definitelyAbsent + falsePositives;
+            return absent == 0 ? 0.0 : (double) falsePositives / absent;
+        }
+    }
+
+    public InsuranceNumberFilter(PatientJdbcRepository jdbcRepository,
+                                 @Value("${app.insurance-filter.enabled:true}") boolean enabled,
+                                 @Value("${app.insurance-filter.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${app.insurance-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcRepository = jdbcRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * @return {@code true} only if the number is certainly not stored;
+     * {@code false} if it may be stored or the filter is not built yet
+     */
+    public boolean isDefinitelyAbsent(String insuranceNumber) {
+        Bits current = bits;
+        if (!enabled || current == null || current.mightContain(insuranceNumber)) {
+            return false;
+        }
+        definitelyAbsent.increment();
+        return true;
+    }
+
+    /**
+     * Records the result of the query that followed a positive answer.
+     */
+    public void recordLookup(boolean exists) {
+        if (!enabled || bits == null) {
+            return;
+        }
+        if (exists) {
+            confirmedPresent.increment();
+        } else {
+            falsePositives.increment();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.insurance-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${app.insurance-filter.rebuild-interval:PT1H}")
+    public void reconcile() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces the filter with one built from all stored numbers, sized for at
+     * least twice the current count so it stays near the configured rate.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        Bits fresh = new Bits(Math.max(expectedInsertions, 2 * lastCount), falsePositiveRate);
+        building = fresh;
+        try {
+            AtomicLong count = new AtomicLong();
+            jdbcRepository.streamInsuranceNumbers(number -> {
+                fresh.put(number);
+                count.incrementAndGet();
+            });
+            bits = fresh;
+            lastCount = count.get();
+            log.info("Insurance number filter rebuilt in {} ms: {} numbers, {} KB",
+                    (System.nanoTime() - start) / 1_000_000, count.get(), fresh.bytes() / 1024);
+        } catch (RuntimeException e) {
+            log.warn("Insurance number filter rebuild failed: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    // Synchronous: the number must be in the filter before any later write can check it
+    @EventListener
+    public void onPatientChanged(PatientChangedEvent event) {
+        PatientSnapshot after = event.after();
+        if (!enabled || after == null || after.insuranceNumber() == null) {
+            return;
+        }
+        Bits current = bits;
+        if (current != null) {
+            current.put(after.insuranceNumber());
+        }
+        Bits next = building;
+        if (next != null) {
+            next.put(after.insuranceNumber());
+        }
+    }
+
+    public Stats stats() {
+        Bits current = bits;
+        return new Stats(definitelyAbsent.sum(), confirmedPresent.sum(), falsePositives.sum(),
+                current != null ? current.estimatedFalsePositiveRate() : 1.0,
+                current != null ? current.bytes() : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.insurance-filter.stats-log-interval:PT5M}",
+            initialDelayString = "${app.insurance-filter.stats-log-interval:PT5M}")
+    public void logStats() {
+        if (enabled) {
+            Stats stats = stats();
+            log.info("Insurance number filter: skipped={}, confirmed={}, falsePositives={}, " +
+                            "observedFpp={}, estimatedFpp={}, {} KB",
+                    stats.definitelyAbsent(), stats.confirmedPresent(), stats.falsePositives(),
+                    String.format("%.4f", stats.observedFalsePositiveRate()),
+                    String.format("%.4f", stats.estimatedFalsePositiveRate()), stats.bytes() / 1024);
+        }
+    }
+
+    /** Bit array with k probes per key derived by double hashing; safe for concurrent use. */
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final LongAdder setBits = new LongAdder();
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = Math.toIntExact(Math.max(1, (m + 63) / 64));
+            this.words = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void put(String key) {
+            long hash = hash(key);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = probe(hash, i);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word = words.get(index);
+                while ((word & mask) == 0) {
+                    if (words.compareAndSet(index, word, word | mask)) {
+                        setBits.increment();
+                        break;
+                    }
+                    word = words.get(index);
+                }
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = probe(hash, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Probability that all k probed bits are set at the current fill level
+        double estimatedFalsePositiveRate() {
+            return Math.pow((double) setBits.sum() / bitCount, hashCount);
+        }
+
+        long bytes() {
+            return bitCount / 8;
+        }
+
+        // i-th bit position from the two 32-bit halves of the hash (Kirsch-Mitzenmacher)
+        private long probe(long hash, int i) {
+            long combined = (int) hash + (long) i * (int) (hash >>> 32);
+            return (combined & Long.MAX_VALUE) % bitCount;
+        }
+
+        // FNV-1a over the UTF-16 chars, finished with the SplitMix64 mixer
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return h ^ (h >>> 31);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package de.ait.patientcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import de.ait.patientcare.dto.PatientBulkItemResult;
+import de.ait.patientcare.dto.PatientBulkItemResult.Status;
+import de.ait.patientcare.dto.PatientBulkResult;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Creates many patients in one request.
+ * <p>
+ * Entries are read one by one (JSON array or NDJSON) and processed in chunks
+ * of {@code app.bulk.chunk-size}: the chunk is validated in parallel, checked
+ * for duplicate insurance numbers with a single query and inserted in its own
+ * transaction, which Hibernate sends as JDBC batches. The persistence context
+ * is flushed and cleared after every chunk, so memory stays flat. If a chunk
+ * hits a constraint violation (e.g. a concurrent insert), its entries are
+ * retried one at a time to report the failing ones.
+ * ----------------------------------------------------------------------------
+ */
+@Service
+@Slf4j
+public class PatientBulkService {
+
+    private final PatientRepository patientRepository;
+    private final InsuranceNumberFilter insuranceNumberFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader patientReader;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PatientBulkService(PatientRepository patientRepository,
+                              InsuranceNumberFilter insuranceNumberFilter,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              @Value("${app.bulk.chunk-size:1000}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.insuranceNumberFilter = insuranceNumberFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.patientReader = objectMapper.readerFor(Patient.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads a JSON array or a stream of JSON objects and creates all valid entries.
+     *
+     * @throws IllegalArgumentException if an entry cannot be parsed; earlier chunks stay committed
+     */
+    public PatientBulkResult createAll(InputStream json) throws IOException {
+        MappingIterator<Patient> patients;
+        try {
+            patients = patientReader.readValues(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed bulk request: " + e.getOriginalMessage());
+        }
+        try (patients) {
+            return createAll(patients);
+        }
+    }
+
+    public PatientBulkResult createAll(Iterator<Patient> patients) {
+        long start = System.nanoTime();
+        List<PatientBulkItemResult> results = new ArrayList<>();
+        // Numbers seen earlier in this request; a repeat would fail the unique constraint
+        Set<String> seenNumbers = new HashSet<>();
+        List<Patient> chunk = new ArrayList<>(chunkSize);
+
+        Patient patient;
+        while ((patient = next(patients, results.size() + chunk.size())) != null) {
+            chunk.add(patient);
+            if (chunk.size() == chunkSize) {
+                results.addAll(processChunk(chunk, results.size(), seenNumbers));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(processChunk(chunk, results.size(), seenNumbers));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        int created = (int) results.stream().filter(r -> r.status() == Status.CREATED).count();
+        double rowsPerSecond = results.isEmpty() ? 0 : results.size() / (elapsedNanos / 1e9);
+        log.info("Bulk create: {} entries, {} created in {} ms ({} rows/s)",
+                results.size(), created, elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new PatientBulkResult(results.size(), created, results.size() - created,
+                elapsedNanos / 1_000_000, rowsPerSecond, results);
+    }
+
+    // Next entry or null at the end; unparsable entries abort the request with 400
+    private static Patient next(Iterator<Patient> patients, int index) {
+        try {
+            return patients.hasNext() ? patients.next() : null;
+        } catch (RuntimeJsonMappingException e) {
+            throw new IllegalArgumentException("Malformed patient at index " + index + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            // MappingIterator wraps syntax errors in a plain RuntimeException
+            if (e.getCause() instanceof JsonProcessingException cause) {
+                throw new IllegalArgumentException("Malformed patient at index " + index + ": " + cause.getOriginalMessage());
+            }
+            throw e;
+        }
+    }
+
+    private List<PatientBulkItemResult> processChunk(List<Patient> chunk, int offset, Set<String> seenNumbers) {
+        // Bean Validation is CPU bound and independent per entry
+        List<List<String>> violations = chunk.parallelStream()
+                .map(this::violations)
+                .toList();
+
+        PatientBulkItemResult[] results = new PatientBulkItemResult[chunk.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!violations.get(i).isEmpty()) {
+                results[i] = PatientBulkItemResult.rejected(offset + i, Status.INVALID, violations.get(i));
+            } else if (!seenNumbers.add(chunk.get(i).getInsuranceNumber())) {
+                results[i] = PatientBulkItemResult.rejected(offset + i, Status.DUPLICATE,
+                        List.of("Insurance number appears earlier in this request"));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> stored = findStoredInsuranceNumbers(candidates.stream()
+                .map(i -> chunk.get(i).getInsuranceNumber())
+                .toList());
+
+        List<Patient> toInsert = new ArrayList<>();
+        List<Integer> toInsertIndexes = new ArrayList<>();
+        for (int i : candidates) {
+            if (stored.contains(chunk.get(i).getInsuranceNumber())) {
+                results[i] = PatientBulkItemResult.rejected(offset + i, Status.DUPLICATE,
+                        List.of("Insurance number must be unique"));
+            } else {
+                toInsert.add(chunk.get(i));
+                toInsertIndexes.add(i);
+            }
+        }
+
+        List<PatientBulkItemResult> inserted = insertAll(toInsert, 0);
+        for (int k = 0; k < inserted.size(); k++) {
+            int i = toInsertIndexes.get(k);
+            PatientBulkItemResult result = inserted.get(k);
+            results[i] = new PatientBulkItemResult(offset + i, result.status(), result.id(), result.errors());
+        }
+        return List.of(results);
+    }
+
+    /**
+     * @return Bean Validation messages for the patient as {@code property: message}, sorted; empty if valid
+     */
+    public List<String> violations(Patient patient) {
+        return validator.validate(patient).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * @return the given insurance numbers that are already stored, including soft-deleted rows;
+     * numbers the {@link InsuranceNumberFilter} rules out are not queried
+     */
+    public Set<String> findStoredInsuranceNumbers(Collection<String> numbers) {
+        List<String> maybeStored = numbers.stream()
+                .filter(number -> !insuranceNumberFilter.isDefinitelyAbsent(number))
+                .toList();
+        return maybeStored.isEmpty()
+                ? Set.of()
+                : new HashSet<>(patientRepository.findExistingInsuranceNumbers(maybeStored));
+    }
+
+    /**
+     * Inserts the patients in one transaction as JDBC batches. If that fails,
+     * they are inserted one at a time so every failure is reported on its own.
+     *
+     * @return one result per patient, in input order, indexed from {@code offset}
+     */
+    public List<PatientBulkItemResult> insertAll(List<Patient> patients, int offset) {
+        if (patients.isEmpty()) {
+            return List.of();
+        }
+        try {
+            insertChunk(patients);
+            List<PatientBulkItemResult> results = new ArrayList<>(patients.size());
+            for (int i = 0; i < patients.size(); i++) {
+                results.add(PatientBulkItemResult.created(offset + i, patients.get(i).getId()));
+            }
+            return results;
+        } catch (PersistenceException e) {
+            log.warn("Bulk insert at offset {} failed ({}), retrying entries one by one", offset, e.getMessage());
+            List<PatientBulkItemResult> results = new ArrayList<>(patients.size());
+            for (int i = 0; i < patients.size(); i++) {
+                results.add(insertOne(patients.get(i), offset + i));
+            }
+            return results;
+        }
+    }
+
+    private void insertChunk(List<Patient> patients) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Patient patient : patients) {
+                entityManager.persist(asNew(patient));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    // Ignores a client supplied id and the id a failed batch may have assigned
+    private static Patient asNew(Patient patient) {
+        patient.setId(null);
+        patient.setVersion(0L);
+        return patient;
+    }
+
+    private PatientBulkItemResult insertOne(Patient patient, int index) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(asNew(patient));
+                entityManager.flush();
+            });
+            return PatientBulkItemResult.created(index, patient.getId());
+        } catch (ConstraintViolationException e) {
+            return PatientBulkItemResult.rejected(index, Status.DUPLICATE,
+                    List.of("Insurance number must be unique"));
+        } catch (PersistenceException e) {
+            return PatientBulkItemResult.rejected(index, Status.FAILED, List.of(String.valueOf(e.getMessage())));
+        }
+    }
+}
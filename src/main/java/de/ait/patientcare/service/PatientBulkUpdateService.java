@@ -0,0 +1,131 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.dto.PatientBulkUpdate;
+import de.ait.patientcare.dto.PatientBulkUpdateResult;
+import de.ait.patientcare.dto.PatientSelection;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Soft-deletes or corrects many patients with set-based JPQL updates.
+ * <p>
+ * The selection is walked in id order in chunks of {@code app.bulk.chunk-size}:
+ * each chunk is locked with one {@code SELECT ... FOR UPDATE} and changed with
+ * one {@code UPDATE ... WHERE id IN (...)} that also increments {@code version},
+ * instead of a load and a save per patient. Because the JPQL update bypasses
+ * the entity listener, a {@link PatientChangedEvent} is published per changed
+ * row from the locked state, which keeps the patient cache, statistics
+ * counters, search index and insurance number filter in step. Hibernate itself
+ * invalidates the second-level and query caches for the table.
+ * ----------------------------------------------------------------------------
+ */
+@Service
+@Slf4j
+public class PatientBulkUpdateService {
+
+    private final PatientRepository patientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public PatientBulkUpdateService(PatientRepository patientRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${app.bulk.chunk-size:1000}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public PatientBulkUpdateResult softDelete(PatientSelection selection) {
+        log.info("Bulk soft delete: {}", selection);
+        return apply(selection,
+                patient -> true,
+                patientRepository::softDeleteByIdIn,
+                before -> changed(before, before.gender(), before.bloodType(), true));
+    }
+
+    @Transactional
+    public PatientBulkUpdateResult update(PatientBulkUpdate update) {
+        log.info("Bulk update: {}", update);
+        return apply(update.selection(),
+                patient -> (update.bloodType() != null && update.bloodType() != patient.getBloodType())
+                        || (update.gender() != null && update.gender() != patient.getGender()),
+                ids -> patientRepository.reassignByIdIn(ids, update.bloodType(), update.gender()),
+                before -> changed(before,
+                        Objects.requireNonNullElse(update.gender(), before.gender()),
+                        Objects.requireNonNullElse(update.bloodType(), before.bloodType()),
+                        false));
+    }
+
+    private PatientBulkUpdateResult apply(PatientSelection selection,
+                                          Predicate<Patient> needsChange,
+                                          Function<List<Long>, Integer> update,
+                                          UnaryOperator<PatientSnapshot> change) {
+        if (!selection.isRestricted()) {
+            throw new IllegalArgumentException("Selection must contain ids or at least one filter");
+        }
+        long start = System.nanoTime();
+        Specification<Patient> spec = toSpecification(selection);
+
+        int matched = 0;
+        int affected = 0;
+        long afterId = 0;
+        List<Patient> chunk;
+        do {
+            chunk = patientRepository.findForUpdate(spec, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            matched += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+
+            List<PatientSnapshot> before = chunk.stream()
+                    .filter(needsChange)
+                    .map(PatientSnapshot::of)
+                    .toList();
+            if (!before.isEmpty()) {
+                // Clears the persistence context, so loaded chunks do not pile up
+                affected += update.apply(before.stream().map(PatientSnapshot::id).toList());
+                before.forEach(b -> eventPublisher.publishEvent(new PatientChangedEvent(b, change.apply(b))));
+            }
+        } while (chunk.size() == chunkSize);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Bulk change: {} matched, {} affected in {} ms", matched, affected, elapsedMillis);
+        return new PatientBulkUpdateResult(matched, affected, elapsedMillis);
+    }
+
+    private static Specification<Patient> toSpecification(PatientSelection selection) {
+        Specification<Patient> spec = PatientSpecifications.matching(selection.gender(), selection.bloodType(),
+                selection.bornOnOrBefore(), selection.bornOnOrAfter());
+        if (selection.ids() != null && !selection.ids().isEmpty()) {
+            spec = spec.and(PatientSpecifications.hasIdIn(selection.ids()));
+        }
+        return spec;
+    }
+
+    // State after the JPQL update, which increments the version exactly once
+    private static PatientSnapshot changed(PatientSnapshot before, Gender gender, BloodType bloodType,
+                                           boolean deleted) {
+        return new PatientSnapshot(before.id(), before.firstName(), before.lastName(), before.dateOfBirth(),
+                gender, before.insuranceNumber(), bloodType, before.version() + 1, deleted);
+    }
+}
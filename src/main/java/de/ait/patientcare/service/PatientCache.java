@@ -0,0 +1,148 @@
+package de.ait.patientcare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.event.PatientChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Bounded read-through cache of active patients by id for
+ * {@code GET /api/patients/{id}}.
+ * <p>
+ * Entries are evicted by size and by age. Every committed
+ * {@link PatientChangedEvent} replaces the entry of that patient with a marker
+ * carrying the committed {@code @Version}; a later {@link #put} is only
+ * accepted if the loaded row is at least that version. A read that started
+ * before a write therefore cannot put the old state back after the commit.
+ * <p>
+ * Cached instances are shared between callers and must be treated as read-only;
+ * write paths in {@link PatientService} always load a managed entity instead.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class PatientCache {
+
+    private final boolean enabled;
+    private final Cache<Long, Entry> cache;
+    // Lookups that found only a version marker; Caffeine counts them as hits
+    private final LongAdder markerHits = new LongAdder();
+
+    /**
+     * Cached patient, or only the last committed version when {@code patient} is {@code null}.
+     */
+    private record Entry(Patient patient, long version) {
+    }
+
+    /**
+     * Counters since startup; a lookup that finds only a version marker is a miss.
+     */
+    public record Stats(long hits, long misses, long evictions, long size) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+
+    public PatientCache(@Value("${app.cache.patients.enabled:true}") boolean enabled,
+                        @Value("${app.cache.patients.max-size:10000}") long maxSize,
+                        @Value("${app.cache.patients.ttl:PT10M}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                // Evict on the writing thread instead of handing every write to the common pool
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * @return the cached patient, or {@code null} on a miss
+     */
+    public Patient get(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.patient() == null) {
+            markerHits.increment();
+        }
+        return entry.patient();
+    }
+
+    /**
+     * @return the version of the cached patient, or {@code null} if only a
+     * marker or nothing is cached; does not count as a lookup
+     */
+    public Long version(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        // A cached patient is current: every committed write replaces it with a marker
+        Entry entry = cache.asMap().get(id);
+        return entry != null && entry.patient() != null ? entry.version() : null;
+    }
+
+    /**
+     * Caches a patient just loaded from the database, unless a newer version
+     * has been committed in the meantime.
+     */
+    public void put(Patient patient) {
+        if (!enabled || patient.getId() == null || patient.isDeleted()) {
+            return;
+        }
+        long version = versionOf(patient.getVersion());
+        cache.asMap().compute(patient.getId(), (id, current) ->
+                current == null || current.version() <= version ? new Entry(patient, version) : current);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // A removed row must never be cached again, whatever version a late reader loaded
+        PatientSnapshot after = event.after();
+        long version = after != null ? versionOf(after.version()) : Long.MAX_VALUE;
+        cache.asMap().merge(event.patientId(), new Entry(null, version), (current, marker) ->
+                current.version() > version ? current : marker);
+    }
+
+    public Stats stats() {
+        CacheStats stats = cache.stats();
+        long marker = markerHits.sum();
+        return new Stats(stats.hitCount() - marker, stats.missCount() + marker,
+                stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.patients.stats-log-interval:PT5M}",
+            initialDelayString = "${app.cache.patients.stats-log-interval:PT5M}")
+    public void logStats() {
+        if (enabled) {
+            Stats stats = stats();
+            log.info("Patient cache: size={}, hits={}, misses={}, hitRate={}, evictions={}",
+                    stats.size(), stats.hits(), stats.misses(),
+                    String.format("%.3f", stats.hitRate()), stats.evictions());
+        }
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : 0L;
+    }
+}
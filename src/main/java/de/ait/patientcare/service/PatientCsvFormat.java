@@ -0,0 +1,108 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Maps CSV records to {@link Patient}s by header name.
+ * <p>
+ * Column names are matched case-insensitively, ignoring {@code _}, {@code -}
+ * and spaces, so {@code first_name}, {@code firstName} and {@code First Name}
+ * are the same column; unknown columns are ignored. Dates are ISO
+ * ({@code 1985-06-15}) or German ({@code 15.06.1985}), gender and blood type
+ * are enum names in any case. Blank values are mapped to {@code null} and left
+ * to Bean Validation.
+ * ----------------------------------------------------------------------------
+ */
+public final class PatientCsvFormat {
+
+    private static final List<String> COLUMNS = List.of(
+            "firstname", "lastname", "dateofbirth", "gender", "insurancenumber", "bloodtype");
+    private static final DateTimeFormatter GERMAN_DATE = DateTimeFormatter.ofPattern("dd.MM.uuuu");
+
+    private final int firstName;
+    private final int lastName;
+    private final int dateOfBirth;
+    private final int gender;
+    private final int insuranceNumber;
+    private final int bloodType;
+
+    /**
+     * @throws IllegalArgumentException if a required column is missing
+     */
+    public PatientCsvFormat(List<String> header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.putIfAbsent(normalize(header.get(i)), i);
+        }
+        List<String> missing = COLUMNS.stream().filter(c -> !positions.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + missing);
+        }
+        this.firstName = positions.get("firstname");
+        this.lastName = positions.get("lastname");
+        this.dateOfBirth = positions.get("dateofbirth");
+        this.gender = positions.get("gender");
+        this.insuranceNumber = positions.get("insurancenumber");
+        this.bloodType = positions.get("bloodtype");
+    }
+
+    /**
+     * @throws IllegalArgumentException if a value cannot be converted
+     */
+    public Patient toPatient(List<String> fields) {
+        return Patient.builder()
+                .firstName(value(fields, firstName))
+                .lastName(value(fields, lastName))
+                .dateOfBirth(date(value(fields, dateOfBirth)))
+                .gender(constant(Gender.class, "gender", value(fields, gender)))
+                .insuranceNumber(value(fields, insuranceNumber))
+                .bloodType(constant(BloodType.class, "bloodType", value(fields, bloodType)))
+                .build();
+    }
+
+    private static String normalize(String column) {
+        // A UTF-8 BOM from spreadsheet exports sticks to the first header name
+        return column.replace("\uFEFF", "").replaceAll("[_\\-\\s]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String value(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate date(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.indexOf('.') > 0 ? LocalDate.parse(value, GERMAN_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("dateOfBirth: invalid date '" + value + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E constant(Class<E> type, String property, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(property + ": unknown value '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.dto.PatientView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in the {@code (last_name, first_name, id)} ordering.
+ * <p>
+ * Clients only ever see the encoded form, an URL-safe Base64 token, so the
+ * underlying key can change without breaking the API contract.
+ */
+public record PatientCursor(String lastName, String firstName, Long id) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    public static PatientCursor of(PatientView patient) {
+        return new PatientCursor(patient.lastName(), patient.firstName(), patient.id());
+    }
+
+    public String encode() {
+        String raw = lastName + SEPARATOR + firstName + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PatientCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PatientCursor(
+                    raw.substring(0, first),
+                    raw.substring(first + 1, second),
+                    Long.valueOf(raw.substring(second + 1)));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are both IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
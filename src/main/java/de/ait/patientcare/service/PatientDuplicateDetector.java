@@ -0,0 +1,475 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.dto.PatientDuplicateCandidate;
+import de.ait.patientcare.dto.PatientDuplicateRun;
+import de.ait.patientcare.dto.PatientDuplicateRun.State;
+import de.ait.patientcare.repository.PatientDuplicateKey;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Finds patients registered more than once, e.g. under two insurance numbers.
+ * <p>
+ * Comparing every pair is quadratic, so patients are first grouped by
+ * blocking keys and only compared within a group:
+ * <ol>
+ *   <li>birth date and Koelner Phonetik code of the last name,</li>
+ *   <li>birth date and code of the first name (misspelled last names),</li>
+ *   <li>birth year and codes of both names (mistyped day or month).</li>
+ * </ol>
+ * A pair is scored only in the first group it shares, so it is reported once.
+ * Groups are formed by sorting {@code (key hash, row)} longs; a hash collision
+ * only adds comparisons, which the exact key check then skips. Groups above
+ * {@code app.duplicates.max-block-size} (e.g. a placeholder birth date) are
+ * skipped and counted.
+ * <p>
+ * The groups are scored on a fork/join pool of {@code app.duplicates.parallelism}
+ * threads: name similarity (trigrams, or the phonetic code where it is higher),
+ * birth date, gender and blood type, weighted. Pairs at or above
+ * {@code app.duplicates.min-score} form the review list, which is kept in
+ * memory until the next run. Merging a pair soft-deletes the duplicate.
+ * ----------------------------------------------------------------------------
+ */
+@Service
+@Slf4j
+public class PatientDuplicateDetector {
+
+    private static final double LAST_NAME_WEIGHT = 0.30;
+    private static final double FIRST_NAME_WEIGHT = 0.25;
+    private static final double BIRTH_DATE_WEIGHT = 0.25;
+    private static final double GENDER_WEIGHT = 0.10;
+    private static final double BLOOD_TYPE_WEIGHT = 0.10;
+    // Name similarity credited for equal phonetic codes, e.g. Meier and Maier share few trigrams
+    private static final double PHONETIC_MATCH = 0.85;
+
+    // Blocks per fork/join leaf task
+    private static final int LEAF_BLOCKS = 64;
+
+    private static final Comparator<PatientDuplicateCandidate> REVIEW_ORDER =
+            Comparator.comparingDouble(PatientDuplicateCandidate::score).reversed()
+                    .thenComparingLong(PatientDuplicateCandidate::patientId)
+                    .thenComparingLong(PatientDuplicateCandidate::duplicateId);
+
+    private final PatientJdbcRepository jdbcRepository;
+    private final PatientService patientService;
+    private final double minScore;
+    private final int maxBlockSize;
+    private final int parallelism;
+    private final int maxResults;
+
+    // Not synchronized: merging writes to the database and must not pin a virtual request thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile PatientDuplicateRun lastRun;
+    private volatile List<PatientDuplicateCandidate> candidates = List.of();
+
+    /**
+     * Blocking keys, in the order a pair is assigned to its group.
+     */
+    enum Pass {
+        BIRTH_DATE_LAST_NAME {
+            @Override
+            boolean shared(PatientDuplicateKey a, PatientDuplicateKey b) {
+                return a.dateOfBirth().equals(b.dateOfBirth()) && a.lastNameCologne().equals(b.lastNameCologne());
+            }
+
+            @Override
+            int hash(PatientDuplicateKey key) {
+                return Objects.hash(key.dateOfBirth(), key.lastNameCologne());
+            }
+        },
+        BIRTH_DATE_FIRST_NAME {
+            @Override
+            boolean shared(PatientDuplicateKey a, PatientDuplicateKey b) {
+                return a.dateOfBirth().equals(b.dateOfBirth()) && a.firstNameCologne().equals(b.firstNameCologne());
+            }
+
+            @Override
+            int hash(PatientDuplicateKey key) {
+                return Objects.hash(key.dateOfBirth(), key.firstNameCologne());
+            }
+        },
+        BIRTH_YEAR_FULL_NAME {
+            @Override
+            boolean shared(PatientDuplicateKey a, PatientDuplicateKey b) {
+                return a.dateOfBirth().getYear() == b.dateOfBirth().getYear()
+                        && a.lastNameCologne().equals(b.lastNameCologne())
+                        && a.firstNameCologne().equals(b.firstNameCologne());
+            }
+
+            @Override
+            int hash(PatientDuplicateKey key) {
+                return Objects.hash(key.dateOfBirth().getYear(), key.lastNameCologne(), key.firstNameCologne());
+            }
+        };
+
+        abstract boolean shared(PatientDuplicateKey a, PatientDuplicateKey b);
+
+        abstract int hash(PatientDuplicateKey key);
+
+        // True if this is the first pass whose key both patients share
+        boolean assigns(PatientDuplicateKey a, PatientDuplicateKey b) {
+            if (!shared(a, b)) {
+                return false;
+            }
+            for (int i = 0; i < ordinal(); i++) {
+                if (values()[i].shared(a, b)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Rows (indexes into the loaded keys) sharing one blocking key. */
+    private record Block(Pass pass, int[] rows) {
+    }
+
+    /** Trigrams of both names, computed once per patient and block. */
+    private record Names(int[] first, int[] last) {
+
+        static Names of(PatientDuplicateKey key) {
+            return new Names(PatientNameIndex.trigrams(key.firstName()), PatientNameIndex.trigrams(key.lastName()));
+        }
+    }
+
+    public PatientDuplicateDetector(PatientJdbcRepository jdbcRepository,
+                                    PatientService patientService,
+                                    @Value("${app.duplicates.min-score:0.85}") double minScore,
+                                    @Value("${app.duplicates.max-block-size:1000}") int maxBlockSize,
+                                    @Value("${app.duplicates.parallelism:0}") int parallelism,
+                                    @Value("${app.duplicates.max-results:1000}") int maxResults) {
+        this.jdbcRepository = jdbcRepository;
+        this.patientService = patientService;
+        this.minScore = minScore;
+        this.maxBlockSize = Math.max(maxBlockSize, 2);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Starts a run in the background.
+     *
+     * @throws IllegalStateException if a run is in progress
+     */
+    public PatientDuplicateRun start() {
+        Instant startedAt = begin();
+        Thread.ofPlatform().daemon().name("patient-duplicate-detection").start(() -> run(startedAt));
+        return lastRun;
+    }
+
+    /**
+     * Runs the detection in the calling thread.
+     *
+     * @throws IllegalStateException if a run is in progress
+     */
+    public PatientDuplicateRun detect() {
+        return run(begin());
+    }
+
+    /**
+     * @throws NoSuchElementException if no run was started since startup
+     */
+    public PatientDuplicateRun getStatus() {
+        PatientDuplicateRun run = lastRun;
+        if (run == null) {
+            throw new NoSuchElementException("Duplicate detection has not run yet");
+        }
+        return run;
+    }
+
+    /**
+     * The review list of the last completed run, most likely duplicates first.
+     *
+     * @param minScore lowest score to return, all candidates if {@code null}
+     * @param limit    maximum number of pairs, 100 if {@code null}
+     */
+    public List<PatientDuplicateCandidate> getCandidates(Double minScore, Integer limit) {
+        int max = (limit == null) ? 100 : Math.min(Math.max(limit, 1), maxResults);
+        return candidates.stream()
+                .filter(c -> minScore == null || c.score() >= minScore)
+                .limit(max)
+                .toList();
+    }
+
+    /**
+     * Keeps {@code patientId} and soft-deletes {@code duplicateId}; every pair
+     * with the deleted patient leaves the review list.
+     *
+     * @throws NoSuchElementException if the two patients are not a pair on the review list
+     */
+    public PatientDuplicateCandidate merge(long patientId, long duplicateId) {
+        lock.lock();
+        try {
+            PatientDuplicateCandidate candidate = candidates.stream()
+                    .filter(c -> c.pairs(patientId, duplicateId))
+                    .findFirst()
+                    .orElseThrow(() -> new NoSuchElementException(
+                            "Not a duplicate candidate: " + patientId + " / " + duplicateId));
+            patientService.deletePatient(duplicateId);
+            candidates = candidates.stream().filter(c -> !c.involves(duplicateId)).toList();
+            log.info("Merged duplicate patient {} into {} (score {})", duplicateId, patientId,
+                    String.format("%.3f", candidate.score()));
+            return candidate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Weighted similarity of two patients, from 0 to 1.
+     */
+    public static double score(PatientDuplicateKey a, PatientDuplicateKey b) {
+        return score(a, Names.of(a), b, Names.of(b));
+    }
+
+    private Instant begin() {
+        lock.lock();
+        try {
+            if (lastRun != null && lastRun.state() == State.RUNNING) {
+                throw new IllegalStateException("Duplicate detection is already running");
+            }
+            Instant startedAt = Instant.now();
+            lastRun = new PatientDuplicateRun(State.RUNNING, 0, 0, 0, 0, 0, Map.of(), startedAt, null, null);
+            return startedAt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PatientDuplicateRun run(Instant startedAt) {
+        Map<String, Long> phaseMillis = new LinkedHashMap<>();
+        long patients = 0;
+        List<Block> blocks = new ArrayList<>();
+        long oversized = 0;
+        LongAdder comparisons = new LongAdder();
+        try {
+            long phaseStart = System.nanoTime();
+            List<PatientDuplicateKey> loaded = new ArrayList<>();
+            jdbcRepository.streamActiveDuplicateKeys(loaded::add);
+            PatientDuplicateKey[] keys = loaded.toArray(PatientDuplicateKey[]::new);
+            patients = keys.length;
+            phaseStart = lap(phaseMillis, "load", phaseStart);
+
+            for (Pass pass : Pass.values()) {
+                oversized += collectBlocks(pass, keys, blocks);
+            }
+            phaseStart = lap(phaseMillis, "blocking", phaseStart);
+
+            List<PatientDuplicateCandidate> found;
+            try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                found = pool.invoke(new ScoreTask(keys, blocks, 0, blocks.size(), minScore, comparisons));
+            }
+            phaseStart = lap(phaseMillis, "scoring", phaseStart);
+
+            List<PatientDuplicateCandidate> review = new ArrayList<>(found);
+            review.sort(REVIEW_ORDER);
+            lap(phaseMillis, "review-list", phaseStart);
+
+            PatientDuplicateRun run = new PatientDuplicateRun(State.COMPLETED, patients, blocks.size(), oversized,
+                    comparisons.sum(), review.size(), phaseMillis, startedAt, Instant.now(), null);
+            lock.lock();
+            try {
+                candidates = Collections.unmodifiableList(review);
+                lastRun = run;
+            } finally {
+                lock.unlock();
+            }
+            log.info("Duplicate detection: {} patients, {} blocks ({} oversized skipped), {} comparisons, "
+                            + "{} candidates; phases in ms: {}",
+                    patients, blocks.size(), oversized, run.comparisons(), review.size(), phaseMillis);
+            return run;
+        } catch (RuntimeException e) {
+            log.error("Duplicate detection failed", e);
+            PatientDuplicateRun run = new PatientDuplicateRun(State.FAILED, patients, blocks.size(), oversized,
+                    comparisons.sum(), 0, phaseMillis, startedAt, Instant.now(), e.getMessage());
+            lastRun = run;
+            return run;
+        }
+    }
+
+    // Groups rows by the 32-bit key hash: each long holds (hash << 32 | row), so one primitive sort suffices
+    private int collectBlocks(Pass pass, PatientDuplicateKey[] keys, List<Block> blocks) {
+        long[] sorted = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = ((long) pass.hash(keys[i]) << 32) | i;
+        }
+        Arrays.parallelSort(sorted);
+
+        int oversized = 0;
+        int start = 0;
+        for (int i = 1; i <= sorted.length; i++) {
+            if (i < sorted.length && (sorted[i] >>> 32) == (sorted[start] >>> 32)) {
+                continue;
+            }
+            int size = i - start;
+            if (size > maxBlockSize) {
+                oversized++;
+            } else if (size > 1) {
+                int[] rows = new int[size];
+                for (int j = 0; j < size; j++) {
+                    rows[j] = (int) sorted[start + j];
+                }
+                blocks.add(new Block(pass, rows));
+            }
+            start = i;
+        }
+        return oversized;
+    }
+
+    private static long lap(Map<String, Long> phaseMillis, String phase, long start) {
+        long now = System.nanoTime();
+        phaseMillis.put(phase, (now - start) / 1_000_000);
+        return now;
+    }
+
+    private static double score(PatientDuplicateKey a, Names aNames, PatientDuplicateKey b, Names bNames) {
+        return LAST_NAME_WEIGHT * nameSimilarity(aNames.last(), bNames.last(), a.lastNameCologne(), b.lastNameCologne())
+                + FIRST_NAME_WEIGHT * nameSimilarity(aNames.first(), bNames.first(),
+                a.firstNameCologne(), b.firstNameCologne())
+                + BIRTH_DATE_WEIGHT * birthDateSimilarity(a.dateOfBirth(), b.dateOfBirth())
+                + (a.gender() == b.gender() ? GENDER_WEIGHT : 0)
+                + (a.bloodType() == b.bloodType() ? BLOOD_TYPE_WEIGHT : 0);
+    }
+
+    private static double nameSimilarity(int[] a, int[] b, String aCode, String bCode) {
+        double jaccard = jaccard(a, b);
+        return !aCode.isEmpty() && aCode.equals(bCode) ? Math.max(jaccard, PHONETIC_MATCH) : jaccard;
+    }
+
+    // Both arrays are sorted and distinct
+    private static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0;
+        }
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    // Same date; or same year with day and month swapped, or one of them mistyped
+    private static double birthDateSimilarity(LocalDate a, LocalDate b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.getYear() != b.getYear()) {
+            return 0;
+        }
+        boolean swapped = a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue();
+        boolean oneDiffers = a.getMonthValue() == b.getMonthValue() || a.getDayOfMonth() == b.getDayOfMonth();
+        return swapped || oneDiffers ? 0.5 : 0;
+    }
+
+    /**
+     * Scores the pairs of a range of blocks, splitting the range until it is small enough.
+     */
+    private static final class ScoreTask extends RecursiveTask<List<PatientDuplicateCandidate>> {
+
+        private final PatientDuplicateKey[] keys;
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+        private final double minScore;
+        private final LongAdder comparisons;
+
+        ScoreTask(PatientDuplicateKey[] keys, List<Block> blocks, int from, int to,
+                  double minScore, LongAdder comparisons) {
+            this.keys = keys;
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.minScore = minScore;
+            this.comparisons = comparisons;
+        }
+
+        @Override
+        protected List<PatientDuplicateCandidate> compute() {
+            if (to - from <= LEAF_BLOCKS) {
+                return scoreBlocks();
+            }
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(keys, blocks, from, mid, minScore, comparisons);
+            left.fork();
+            List<PatientDuplicateCandidate> right =
+                    new ScoreTask(keys, blocks, mid, to, minScore, comparisons).compute();
+            List<PatientDuplicateCandidate> result = left.join();
+            if (result.isEmpty()) {
+                return right;
+            }
+            if (!right.isEmpty()) {
+                result = new ArrayList<>(result);
+                result.addAll(right);
+            }
+            return result;
+        }
+
+        private List<PatientDuplicateCandidate> scoreBlocks() {
+            List<PatientDuplicateCandidate> found = new ArrayList<>();
+            long compared = 0;
+            for (int b = from; b < to; b++) {
+                Block block = blocks.get(b);
+                int[] rows = block.rows();
+                Names[] names = new Names[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    PatientDuplicateKey a = keys[rows[i]];
+                    if (names[i] == null) {
+                        names[i] = Names.of(a);
+                    }
+                    for (int j = i + 1; j < rows.length; j++) {
+                        PatientDuplicateKey other = keys[rows[j]];
+                        if (!block.pass().assigns(a, other)) {
+                            continue;
+                        }
+                        if (names[j] == null) {
+                            names[j] = Names.of(other);
+                        }
+                        compared++;
+                        double score = score(a, names[i], other, names[j]);
+                        if (score >= minScore) {
+                            found.add(candidate(a, other, score, block.pass()));
+                        }
+                    }
+                }
+            }
+            comparisons.add(compared);
+            return found;
+        }
+
+        private static PatientDuplicateCandidate candidate(PatientDuplicateKey a, PatientDuplicateKey b,
+                                                           double score, Pass pass) {
+            PatientDuplicateKey first = a.id() < b.id() ? a : b;
+            PatientDuplicateKey second = first == a ? b : a;
+            return new PatientDuplicateCandidate(first.id(), first.firstName() + " " + first.lastName(),
+                    first.dateOfBirth(), second.id(), second.firstName() + " " + second.lastName(),
+                    second.dateOfBirth(), score, pass.name());
+        }
+    }
+}
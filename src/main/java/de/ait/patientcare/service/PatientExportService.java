@@ -0,0 +1,119 @@
+package de.ait.patientcare.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.ait.patientcare.config.BinaryFormatConfig;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Streams all active patients as newline-delimited JSON (NDJSON), or as a
+ * sequence of CBOR or Smile values, one per patient.
+ * Rows go straight from a forward-only JDBC cursor into a Jackson generator,
+ * so memory use does not depend on the size of the table. A Smile stream has
+ * one header, so field names and short values are shared across all rows.
+ * CBOR rows are written without stringrefs: each top-level value would need
+ * its own stringref namespace, so they would save nothing.
+ * ----------------------------------------------------------------------------
+ */
+@Service
+@Slf4j
+public class PatientExportService {
+
+    /**
+     * Export formats in order of preference; NDJSON is the default.
+     */
+    public static final List<MediaType> FORMATS = List.of(
+            MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_CBOR, BinaryFormatConfig.APPLICATION_SMILE);
+
+    // Push buffered bytes to the client regularly so a disconnect is noticed early
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final Map<MediaType, Format> formats;
+
+    // rowWriter writes a single row; text formats separate rows with a newline
+    private record Format(JsonFactory factory, ObjectWriter rowWriter, boolean text) {
+
+        static Format of(ObjectMapper mapper, boolean text) {
+            ObjectWriter rowWriter = mapper.writerFor(Patient.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            return new Format(mapper.getFactory(), text ? rowWriter.withRootValueSeparator("\n") : rowWriter, text);
+        }
+    }
+
+    public PatientExportService(PatientJdbcRepository patientJdbcRepository, ObjectMapper objectMapper,
+                                MappingJackson2CborHttpMessageConverter cborConverter,
+                                MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.patientJdbcRepository = patientJdbcRepository;
+        this.formats = Map.of(
+                MediaType.APPLICATION_NDJSON, Format.of(objectMapper, true),
+                MediaType.APPLICATION_CBOR, Format.of(cborConverter.getObjectMapper()
+                        .copyWith(BinaryFormatConfig.cborFactory(false)), false),
+                BinaryFormatConfig.APPLICATION_SMILE, Format.of(smileConverter.getObjectMapper(), false));
+    }
+
+    /**
+     * Writes one JSON object per line to {@code out}. The stream itself is not closed.
+     *
+     * @return number of exported patients
+     * @throws IOException if writing fails, e.g. because the client disconnected;
+     *                     the database cursor is released before this is thrown
+     */
+    public long exportActive(OutputStream out) throws IOException {
+        return exportActive(out, MediaType.APPLICATION_NDJSON);
+    }
+
+    /**
+     * Writes all active patients to {@code out} in {@code mediaType}, one of {@link #FORMATS}.
+     * The stream itself is not closed.
+     *
+     * @return number of exported patients
+     * @throws IOException if writing fails, e.g. because the client disconnected;
+     *                     the database cursor is released before this is thrown
+     */
+    public long exportActive(OutputStream out, MediaType mediaType) throws IOException {
+        Format format = formats.get(mediaType);
+        if (format == null) {
+            throw new IllegalArgumentException("Unsupported export format: " + mediaType);
+        }
+        AtomicLong rows = new AtomicLong();
+        try (JsonGenerator generator = format.factory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            patientJdbcRepository.streamActive(patient -> {
+                try {
+                    format.rowWriter().writeValue(generator, patient);
+                    if (rows.incrementAndGet() % FLUSH_EVERY_ROWS == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (format.text() && rows.get() > 0) {
+                generator.writeRaw('\n');
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("Patient export aborted after {} rows: {}", rows.get(), e.getCause().getMessage());
+            throw e.getCause();
+        }
+        return rows.get();
+    }
+}
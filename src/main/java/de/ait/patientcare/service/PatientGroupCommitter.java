@@ -0,0 +1,280 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.dto.PatientBulkItemResult;
+import de.ait.patientcare.dto.PatientBulkItemResult.Status;
+import de.ait.patientcare.entity.Patient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Group commit for {@link PatientService#createPatient}.
+ * <p>
+ * Concurrent callers put their patient into a queue and wait. A single
+ * committer thread takes up to {@code app.group-commit.max-batch-size}
+ * requests, waiting at most {@code app.group-commit.max-delay} after the first
+ * one, and stores them together: one query for stored insurance numbers and one
+ * transaction with a JDBC batch insert, so the commit cost is shared by the
+ * whole batch. Every caller still gets its own saved patient or its own error;
+ * a number that appears twice in a batch is taken by the earlier caller. If the
+ * batch insert fails, {@link PatientBulkService#insertAll} retries the entries
+ * one at a time, so one bad entry does not fail the others.
+ * <p>
+ * A caller waits at most {@code app.group-commit.wait-timeout}. A caller that
+ * is interrupted or times out before the committer took its request withdraws
+ * it, so it is never stored; once taken, the caller waits for the outcome.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class PatientGroupCommitter {
+
+    private final PatientBulkService patientBulkService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+    private final Duration waitTimeout;
+    private final BlockingQueue<Request> queue;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    private volatile boolean running;
+    private Thread committer;
+
+    private record Request(Patient patient, CompletableFuture<Patient> result, AtomicBoolean taken) {
+
+        Request(Patient patient) {
+            this(patient, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        // Either the committer takes the request or its caller withdraws it, never both
+        boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Batches and requests committed since startup.
+     */
+    public record Stats(long batches, long requests) {
+
+        public double averageBatchSize() {
+            return batches == 0 ? 0.0 : (double) requests / batches;
+        }
+    }
+
+    public PatientGroupCommitter(PatientBulkService patientBulkService,
+                                 @Value("${app.group-commit.enabled:false}") boolean enabled,
+                                 @Value("${app.group-commit.max-batch-size:100}") int maxBatchSize,
+                                 @Value("${app.group-commit.max-delay:PT0.005S}") Duration maxDelay,
+                                 @Value("${app.group-commit.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.group-commit.wait-timeout:PT30S}") Duration waitTimeout) {
+        this.patientBulkService = patientBulkService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.waitTimeout = waitTimeout;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        committer = Thread.ofPlatform().daemon().name("patient-group-commit").start(this::run);
+        log.info("Group commit enabled: up to {} patients per transaction, max delay {} ms",
+                maxBatchSize, maxDelay.toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        committer.join(Duration.ofSeconds(10));
+        // Requests that arrive after the committer stopped are failed here or by the caller itself
+        List<Request> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(r -> r.result().completeExceptionally(new IllegalStateException("Application is shutting down")));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Stats getStats() {
+        return new Stats(batches.sum(), requests.sum());
+    }
+
+    /**
+     * Stores the patient with the next batch and waits until it is committed.
+     *
+     * @return the saved patient with its id
+     * @throws DataIntegrityViolationException if the insurance number is already stored or taken earlier in the batch
+     * @throws IllegalArgumentException        if the patient is invalid
+     * @throws IllegalStateException           if interrupted or timed out; the patient was not stored
+     *                                         unless the message says otherwise
+     */
+    public Patient create(Patient patient) {
+        if (!running) {
+            throw new IllegalStateException("Group commit is not running");
+        }
+        Request request = new Request(patient);
+        try {
+            // Blocks when the queue is full, which pushes back on callers instead of growing without bound
+            queue.put(request);
+            if (!running && queue.remove(request)) {
+                throw new IllegalStateException("Application is shutting down");
+            }
+            return request.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return withdrawOrAwait(request, "Interrupted while waiting for group commit");
+        } catch (TimeoutException e) {
+            return withdrawOrAwait(request, "Timed out waiting for group commit");
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    // The committer may be storing the request already; then its outcome is only a transaction away
+    private Patient withdrawOrAwait(Request request, String message) {
+        if (request.take()) {
+            queue.remove(request);
+            throw new IllegalStateException(message);
+        }
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    return request.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    throw new IllegalStateException(message + "; the patient may have been stored", e);
+                } catch (ExecutionException e) {
+                    throw failure(e);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                // Errors too: the thread must survive, or every waiting caller would wait for nothing
+                log.error("Group commit of {} patients failed", batch.size(), e);
+                batch.forEach(r -> r.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Request> batch) {
+        Set<String> seenNumbers = new HashSet<>();
+        List<Request> candidates = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            if (!request.take()) {
+                // Withdrawn by its caller
+                continue;
+            }
+            List<String> violations = patientBulkService.violations(request.patient());
+            if (!violations.isEmpty()) {
+                request.result().completeExceptionally(new IllegalArgumentException(String.join(", ", violations)));
+            } else if (!seenNumbers.add(request.patient().getInsuranceNumber())) {
+                request.result().completeExceptionally(duplicate());
+            } else {
+                candidates.add(request);
+            }
+        }
+
+        Set<String> stored = patientBulkService.findStoredInsuranceNumbers(seenNumbers);
+        List<Request> toInsert = new ArrayList<>(candidates.size());
+        for (Request request : candidates) {
+            if (stored.contains(request.patient().getInsuranceNumber())) {
+                request.result().completeExceptionally(duplicate());
+            } else {
+                toInsert.add(request);
+            }
+        }
+
+        List<PatientBulkItemResult> results = patientBulkService.insertAll(
+                toInsert.stream().map(Request::patient).toList(), 0);
+        for (int i = 0; i < results.size(); i++) {
+            Request request = toInsert.get(i);
+            PatientBulkItemResult result = results.get(i);
+            if (result.status() == Status.CREATED) {
+                request.result().complete(request.patient());
+            } else if (result.status() == Status.DUPLICATE) {
+                request.result().completeExceptionally(duplicate());
+            } else {
+                request.result().completeExceptionally(
+                        new IllegalStateException("Patient could not be stored: " + String.join(", ", result.errors())));
+            }
+        }
+
+        batches.increment();
+        requests.add(batch.size());
+        log.debug("Group commit: {} requests, {} inserted", batch.size(), toInsert.size());
+    }
+
+    private static DataIntegrityViolationException duplicate() {
+        return new DataIntegrityViolationException("Insurance number must be unique");
+    }
+}
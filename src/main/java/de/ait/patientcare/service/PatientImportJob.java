@@ -0,0 +1,576 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.dto.PatientBulkItemResult;
+import de.ait.patientcare.dto.PatientBulkItemResult.Status;
+import de.ait.patientcare.dto.PatientImportStatus;
+import de.ait.patientcare.dto.PatientImportStatus.State;
+import de.ait.patientcare.entity.Patient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ----------------------------------------------------------------------------
+ * One run of a CSV import: read → parse → validate → dedupe → insert.
+ * <p>
+ * Records travel in batches through bounded queues, one per stage, and every
+ * stage has its own threads. A full queue blocks the stage in front of it, so
+ * at most {@code (queueCapacity + threads) × batchSize} records per stage are
+ * in memory, whatever the file size.
+ * <p>
+ * Batches finish out of order; they are committed to the import state in file
+ * order, so the checkpoint (records fully processed) and the rejected-rows
+ * file always describe a prefix of the file. A resumed run skips that prefix.
+ * Records after the checkpoint that were already inserted before a crash are
+ * reported as duplicates on resume.
+ * <p>
+ * Workers poll with a timeout instead of being interrupted, so a database call
+ * in progress is never cut off when the job is stopped.
+ * ----------------------------------------------------------------------------
+ */
+@Slf4j
+final class PatientImportJob {
+
+    private static final long POLL_MILLIS = 100;
+    private static final Batch END = new Batch(-1, List.of());
+
+    /** Pipeline sizing, from {@code app.import.*}. */
+    record Settings(int batchSize, int queueCapacity, int parseThreads, int validateThreads,
+                    int dedupeThreads, int insertThreads, int maxRecordChars, Duration checkpointInterval) {
+    }
+
+    /** Import state as stored in {@code <id>.checkpoint}. */
+    record Checkpoint(Path source, char delimiter, long records, long imported, long rejected,
+                      long rejectedBytes, State state, String error) {
+
+        static Checkpoint load(Path file) throws IOException {
+            Properties properties = new Properties();
+            try (Reader in = Files.newBufferedReader(file)) {
+                properties.load(in);
+            }
+            return new Checkpoint(Path.of(properties.getProperty("source")),
+                    properties.getProperty("delimiter").charAt(0),
+                    Long.parseLong(properties.getProperty("records")),
+                    Long.parseLong(properties.getProperty("imported")),
+                    Long.parseLong(properties.getProperty("rejected")),
+                    Long.parseLong(properties.getProperty("rejectedBytes")),
+                    State.valueOf(properties.getProperty("state")),
+                    properties.getProperty("error"));
+        }
+
+        // Written to a temporary file and moved, so a crash never leaves half a checkpoint
+        void store(Path file) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("source", source.toString());
+            properties.setProperty("delimiter", String.valueOf(delimiter));
+            properties.setProperty("records", String.valueOf(records));
+            properties.setProperty("imported", String.valueOf(imported));
+            properties.setProperty("rejected", String.valueOf(rejected));
+            properties.setProperty("rejectedBytes", String.valueOf(rejectedBytes));
+            properties.setProperty("state", state.name());
+            if (error != null) {
+                properties.setProperty("error", error);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(temp)) {
+                properties.store(out, "Patient import checkpoint");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        PatientImportStatus toStatus(String id, State reportedState) {
+            return new PatientImportStatus(id, reportedState, records, imported, rejected, records,
+                    0, sizeOf(source), 0.0, null, null, null, error);
+        }
+    }
+
+    private final String id;
+    private final Path checkpointFile;
+    private final Path rejectedFile;
+    private final Checkpoint initial;
+    private final Settings settings;
+    private final PatientBulkService patientBulkService;
+
+    private final Stage parse;
+    private final Stage validate;
+    private final Stage dedupe;
+    private final Stage insert;
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile State state = State.RUNNING;
+    private volatile String error;
+    private volatile boolean stopped;
+    private volatile PatientCsvFormat format;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    private final AtomicLong recordsRead = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long checkpointRecords;
+
+    // A lock instead of synchronized: start() and cancel() run on request threads, which may be
+    // virtual threads, and the lock is held during file IO
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock: batches that finished ahead of an earlier one
+    private final TreeMap<Long, Batch> pending = new TreeMap<>();
+    private long nextSequence;
+    private Writer rejectedWriter;
+    private long rejectedBytes;
+    private long lastCheckpointNanos;
+
+    PatientImportJob(String id, Path checkpointFile, Path rejectedFile, Checkpoint checkpoint,
+                     Settings settings, PatientBulkService patientBulkService) {
+        this.id = id;
+        this.checkpointFile = checkpointFile;
+        this.rejectedFile = rejectedFile;
+        this.initial = checkpoint;
+        this.settings = settings;
+        this.patientBulkService = patientBulkService;
+        this.checkpointRecords = checkpoint.records();
+        this.imported.set(checkpoint.imported());
+        this.rejected.set(checkpoint.rejected());
+        this.rejectedBytes = checkpoint.rejectedBytes();
+
+        this.insert = new Stage("insert", settings.insertThreads(), this::insert, null);
+        this.dedupe = new Stage("dedupe", settings.dedupeThreads(), this::dedupe, insert);
+        this.validate = new Stage("validate", settings.validateThreads(), this::validate, dedupe);
+        this.parse = new Stage("parse", settings.parseThreads(), this::parse, validate);
+    }
+
+    void start() throws IOException {
+        startedAt = Instant.now();
+        lock.lock();
+        try {
+            writeCheckpoint(state);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Import {} started at record {} of {}", id, initial.records(), initial.source());
+
+        ExecutorService reader = executor("read", 1);
+        reader.submit(this::read);
+        for (Stage stage : List.of(parse, validate, dedupe, insert)) {
+            ExecutorService workers = executor(stage.name, stage.threads);
+            for (int i = 0; i < stage.threads; i++) {
+                workers.submit(() -> work(stage));
+            }
+        }
+        // Workers return on END or stop; the pools terminate after them
+        executors.forEach(ExecutorService::shutdown);
+        Thread.ofPlatform().daemon().name(threadPrefix() + "monitor").start(this::awaitWorkers);
+    }
+
+    /** Stops the run for good; the checkpoint still allows a resume. */
+    void cancel() {
+        lock.lock();
+        try {
+            if (state == State.RUNNING) {
+                state = State.CANCELLED;
+            }
+            stopped = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Stops the run because the application shuts down. */
+    void interrupt() {
+        stopped = true;
+    }
+
+    /** @return whether workers are still active, also while a cancelled job winds down */
+    boolean isRunning() {
+        return finished.getCount() > 0;
+    }
+
+    boolean awaitTermination(Duration timeout) throws InterruptedException {
+        return finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    PatientImportStatus status() {
+        long processed = imported.get() + rejected.get() - initial.imported() - initial.rejected();
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double seconds = Duration.between(startedAt, end).toNanos() / 1e9;
+        Map<String, Integer> queueDepths = new LinkedHashMap<>();
+        for (Stage stage : List.of(parse, validate, dedupe, insert)) {
+            queueDepths.put(stage.name, stage.queue.size());
+        }
+        return new PatientImportStatus(id, state, recordsRead.get(), imported.get(), rejected.get(),
+                checkpointRecords, bytesRead.get(), sizeOf(initial.source()),
+                seconds > 0 ? processed / seconds : 0.0, queueDepths, startedAt, finishedAt, error);
+    }
+
+    // ---------------------------------------------------------------- stages
+
+    private void read() {
+        try (CsvRecordReader csv = new CsvRecordReader(new InputStreamReader(
+                new CountingInputStream(Files.newInputStream(initial.source()), bytesRead), StandardCharsets.UTF_8),
+                initial.delimiter(), settings.maxRecordChars())) {
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            format = new PatientCsvFormat(header);
+            openRejectedFile(header);
+
+            long record = 0;
+            long sequence = 0;
+            List<Row> rows = new ArrayList<>(settings.batchSize());
+            List<String> fields;
+            while (!stopped && (fields = csv.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                recordsRead.set(++record);
+                if (record <= initial.records()) {
+                    continue;
+                }
+                rows.add(new Row(record, fields));
+                if (rows.size() == settings.batchSize()) {
+                    parse.submit(new Batch(sequence++, rows));
+                    rows = new ArrayList<>(settings.batchSize());
+                }
+            }
+            if (!rows.isEmpty()) {
+                parse.submit(new Batch(sequence, rows));
+            }
+            parse.finish();
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void parse(Batch batch) {
+        for (Row row : batch.rows) {
+            try {
+                row.patient = format.toPatient(row.fields);
+            } catch (IllegalArgumentException e) {
+                row.reject(Status.INVALID, e.getMessage());
+            }
+        }
+    }
+
+    private void validate(Batch batch) {
+        for (Row row : batch.rows) {
+            if (row.accepted()) {
+                List<String> violations = patientBulkService.violations(row.patient);
+                if (!violations.isEmpty()) {
+                    row.reject(Status.INVALID, String.join("; ", violations));
+                }
+            }
+        }
+    }
+
+    // Duplicates across batches that are in flight together are caught by the unique constraint on insert
+    private void dedupe(Batch batch) {
+        Set<String> seen = new HashSet<>();
+        for (Row row : batch.rows) {
+            if (row.accepted() && !seen.add(row.patient.getInsuranceNumber())) {
+                row.reject(Status.DUPLICATE, "Insurance number appears earlier in this file");
+            }
+        }
+        Set<String> stored = patientBulkService.findStoredInsuranceNumbers(batch.rows.stream()
+                .filter(Row::accepted)
+                .map(row -> row.patient.getInsuranceNumber())
+                .toList());
+        for (Row row : batch.rows) {
+            if (row.accepted() && stored.contains(row.patient.getInsuranceNumber())) {
+                row.reject(Status.DUPLICATE, "Insurance number must be unique");
+            }
+        }
+    }
+
+    private void insert(Batch batch) throws IOException {
+        List<Row> accepted = batch.rows.stream().filter(Row::accepted).toList();
+        List<PatientBulkItemResult> results = patientBulkService.insertAll(
+                accepted.stream().map(row -> row.patient).toList(), 0);
+        for (int i = 0; i < accepted.size(); i++) {
+            PatientBulkItemResult result = results.get(i);
+            if (result.status() != Status.CREATED) {
+                accepted.get(i).reject(result.status(), String.join("; ", result.errors()));
+            }
+        }
+        complete(batch);
+    }
+
+    // ---------------------------------------------------------------- bookkeeping
+
+    private void complete(Batch batch) throws IOException {
+        lock.lock();
+        try {
+            pending.put(batch.sequence, batch);
+            for (Batch next = pending.remove(nextSequence); next != null; next = pending.remove(nextSequence)) {
+                for (Row row : next.rows) {
+                    if (row.accepted()) {
+                        imported.incrementAndGet();
+                    } else {
+                        List<String> line = new ArrayList<>(row.fields.size() + 2);
+                        line.add(String.valueOf(row.record));
+                        line.add(row.rejection);
+                        line.addAll(row.fields);
+                        rejectedWriter.write(CsvRecordReader.format(line, initial.delimiter()));
+                        rejectedWriter.write('\n');
+                        rejected.incrementAndGet();
+                    }
+                }
+                checkpointRecords = next.rows.get(next.rows.size() - 1).record;
+                nextSequence++;
+            }
+            if (System.nanoTime() - lastCheckpointNanos >= settings.checkpointInterval().toNanos()) {
+                writeCheckpoint(state);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openRejectedFile(List<String> header) throws IOException {
+        try (FileChannel channel = FileChannel.open(rejectedFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Rows past the checkpoint are processed again, drop what an earlier run wrote for them
+            channel.truncate(rejectedBytes);
+        }
+        Writer writer = Files.newBufferedWriter(rejectedFile, StandardOpenOption.APPEND);
+        if (rejectedBytes == 0) {
+            List<String> columns = new ArrayList<>(header.size() + 2);
+            columns.add("record");
+            columns.add("reason");
+            columns.addAll(header);
+            writer.write(CsvRecordReader.format(columns, initial.delimiter()));
+            writer.write('\n');
+        }
+        lock.lock();
+        try {
+            rejectedWriter = writer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private void writeCheckpoint(State state) throws IOException {
+        if (rejectedWriter != null) {
+            rejectedWriter.flush();
+            rejectedBytes = Files.size(rejectedFile);
+        }
+        new Checkpoint(initial.source(), initial.delimiter(), checkpointRecords, imported.get(), rejected.get(),
+                rejectedBytes, state, error).store(checkpointFile);
+        lastCheckpointNanos = System.nanoTime();
+    }
+
+    private void fail(Exception e) {
+        lock.lock();
+        try {
+            if (state == State.RUNNING) {
+                state = State.FAILED;
+                error = e.getMessage();
+            }
+        } finally {
+            lock.unlock();
+        }
+        stopped = true;
+        log.error("Import {} failed: {}", id, e.getMessage(), e);
+    }
+
+    private void awaitWorkers() {
+        try {
+            for (ExecutorService executor : executors) {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            State end = state != State.RUNNING ? state : stopped ? State.INTERRUPTED : State.COMPLETED;
+            try {
+                writeCheckpoint(end);
+                if (rejectedWriter != null) {
+                    rejectedWriter.close();
+                }
+            } catch (IOException e) {
+                log.warn("Import {}: could not write final checkpoint: {}", id, e.getMessage());
+            }
+            // Published only now, so a finished state is always on disk as well
+            finishedAt = Instant.now();
+            state = end;
+        } finally {
+            lock.unlock();
+        }
+        PatientImportStatus status = status();
+        log.info("Import {} {}: {} imported, {} rejected, checkpoint at record {} ({} rows/s)",
+                id, status.state(), status.imported(), status.rejected(), status.checkpoint(),
+                Math.round(status.rowsPerSecond()));
+        finished.countDown();
+    }
+
+    private void work(Stage stage) {
+        try {
+            while (!stopped) {
+                Batch batch = stage.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                if (batch == END) {
+                    // The last worker of a stage passes the end on
+                    if (stage.running.decrementAndGet() == 0 && stage.next != null) {
+                        stage.next.finish();
+                    }
+                    return;
+                }
+                stage.work.process(batch);
+                if (stage.next != null) {
+                    stage.next.submit(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private ExecutorService executor(String stage, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().daemon().name(threadPrefix() + stage + "-", 1).factory());
+        executors.add(executor);
+        return executor;
+    }
+
+    private String threadPrefix() {
+        return "import-" + id.substring(0, Math.min(8, id.length())) + "-";
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWork {
+        void process(Batch batch) throws Exception;
+    }
+
+    private final class Stage {
+
+        final String name;
+        final int threads;
+        final BlockingQueue<Batch> queue;
+        final BatchWork work;
+        final Stage next;
+        final AtomicInteger running;
+
+        Stage(String name, int threads, BatchWork work, Stage next) {
+            this.name = name;
+            this.threads = threads;
+            this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+            this.work = work;
+            this.next = next;
+            this.running = new AtomicInteger(threads);
+        }
+
+        // Blocks while the queue is full: this is the back-pressure on the stage in front
+        void submit(Batch batch) throws InterruptedException {
+            while (!stopped && !queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                // wait for the stage to catch up
+            }
+        }
+
+        void finish() throws InterruptedException {
+            for (int i = 0; i < threads; i++) {
+                submit(END);
+            }
+        }
+    }
+
+    private record Batch(long sequence, List<Row> rows) {
+    }
+
+    private static final class Row {
+
+        final long record;
+        final List<String> fields;
+        Patient patient;
+        String rejection;
+
+        Row(long record, List<String> fields) {
+            this.record = record;
+            this.fields = fields;
+        }
+
+        boolean accepted() {
+            return rejection == null;
+        }
+
+        void reject(Status status, String reason) {
+            rejection = status + ": " + reason;
+            patient = null;
+        }
+    }
+
+    /** Counts bytes handed to the CSV reader, for progress reporting. */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
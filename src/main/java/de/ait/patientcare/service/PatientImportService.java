@@ -0,0 +1,212 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.dto.PatientImportStatus;
+import de.ait.patientcare.dto.PatientImportStatus.State;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Imports patients from (large) CSV files in the background.
+ * <p>
+ * An uploaded file is streamed to {@code app.import.directory} and processed
+ * by a {@link PatientImportJob}. Next to it the import keeps a checkpoint
+ * ({@code <id>.checkpoint}) and the rejected rows with their reasons
+ * ({@code <id>.rejected.csv}); a cancelled, failed or interrupted import is
+ * resumed from its checkpoint.
+ * <p>
+ * Imports run on their own thread pools and use at most
+ * {@code dedupe-threads + insert-threads} database connections, so the regular
+ * CRUD endpoints keep the rest of the pool.
+ * ----------------------------------------------------------------------------
+ */
+@Service
+@Slf4j
+public class PatientImportService {
+
+    private final PatientBulkService patientBulkService;
+    private final Path directory;
+    private final char defaultDelimiter;
+    private final PatientImportJob.Settings settings;
+    private final Map<String, PatientImportJob> jobs = new ConcurrentHashMap<>();
+    // Not synchronized: launching writes files and must not pin a virtual request thread
+    private final ReentrantLock launchLock = new ReentrantLock();
+
+    public PatientImportService(PatientBulkService patientBulkService,
+                                @Value("${app.import.directory:data/imports}") Path directory,
+                                @Value("${app.import.delimiter:,}") char defaultDelimiter,
+                                @Value("${app.import.batch-size:1000}") int batchSize,
+                                @Value("${app.import.queue-capacity:4}") int queueCapacity,
+                                @Value("${app.import.parse-threads:2}") int parseThreads,
+                                @Value("${app.import.validate-threads:2}") int validateThreads,
+                                @Value("${app.import.dedupe-threads:1}") int dedupeThreads,
+                                @Value("${app.import.insert-threads:2}") int insertThreads,
+                                @Value("${app.import.max-record-chars:100000}") int maxRecordChars,
+                                @Value("${app.import.checkpoint-interval:PT1S}") Duration checkpointInterval) {
+        this.patientBulkService = patientBulkService;
+        this.directory = directory;
+        this.defaultDelimiter = defaultDelimiter;
+        this.settings = new PatientImportJob.Settings(batchSize, queueCapacity, parseThreads, validateThreads,
+                dedupeThreads, insertThreads, maxRecordChars, checkpointInterval);
+    }
+
+    /**
+     * Stores the CSV and starts importing it.
+     *
+     * @param delimiter field delimiter, {@code app.import.delimiter} if {@code null}
+     */
+    public PatientImportStatus start(InputStream csv, Character delimiter) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(directory);
+        Path source = directory.resolve(id + ".csv");
+        long bytes = Files.copy(csv, source);
+        log.info("Import {}: received {} MB", id, bytes / (1024 * 1024));
+        return launch(id, new PatientImportJob.Checkpoint(source, delimiter != null ? delimiter : defaultDelimiter,
+                0, 0, 0, 0, State.RUNNING, null));
+    }
+
+    /**
+     * Continues an import after its last checkpoint.
+     *
+     * @throws NoSuchElementException if the import does not exist
+     * @throws IllegalStateException  if it is running or already completed
+     */
+    public PatientImportStatus resume(String id) throws IOException {
+        id = checkId(id);
+        launchLock.lock();
+        try {
+            PatientImportJob running = jobs.get(id);
+            if (running != null && running.isRunning()) {
+                throw new IllegalStateException("Import " + id + " is already running");
+            }
+            PatientImportJob.Checkpoint checkpoint = loadCheckpoint(id);
+            if (checkpoint.state() == State.COMPLETED) {
+                throw new IllegalStateException("Import " + id + " is already completed");
+            }
+            return launch(id, checkpoint);
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    /**
+     * @throws NoSuchElementException if the import does not exist
+     * @throws IllegalStateException  if it is not running
+     */
+    public PatientImportStatus cancel(String id) {
+        id = checkId(id);
+        PatientImportJob job = jobs.get(id);
+        if (job == null || !job.isRunning()) {
+            throw new IllegalStateException("Import " + id + " is not running");
+        }
+        job.cancel();
+        return job.status();
+    }
+
+    /**
+     * @throws NoSuchElementException if the import does not exist
+     */
+    public PatientImportStatus getStatus(String id) throws IOException {
+        id = checkId(id);
+        PatientImportJob job = jobs.get(id);
+        if (job != null) {
+            return job.status();
+        }
+        PatientImportJob.Checkpoint checkpoint = loadCheckpoint(id);
+        // Still marked running on disk, but no job in this process: the application stopped
+        return checkpoint.toStatus(id, checkpoint.state() == State.RUNNING ? State.INTERRUPTED : checkpoint.state());
+    }
+
+    /**
+     * @return all imports in the import directory, newest first
+     */
+    public List<PatientImportStatus> getAll() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> checkpoints;
+        try (Stream<Path> files = Files.list(directory)) {
+            checkpoints = files.filter(file -> file.getFileName().toString().endsWith(".checkpoint"))
+                    .sorted(Comparator.comparing(PatientImportService::lastModified).reversed())
+                    .toList();
+        }
+        List<PatientImportStatus> statuses = new ArrayList<>();
+        for (Path checkpoint : checkpoints) {
+            String name = checkpoint.getFileName().toString();
+            statuses.add(getStatus(name.substring(0, name.length() - ".checkpoint".length())));
+        }
+        return statuses;
+    }
+
+    /**
+     * @return the rejected-rows file: record number, reason and the original fields
+     * @throws NoSuchElementException if the import has none (yet)
+     */
+    public Path getRejectedFile(String id) {
+        Path file = directory.resolve(checkId(id) + ".rejected.csv");
+        if (!Files.exists(file)) {
+            throw new NoSuchElementException("Import not found: " + id);
+        }
+        return file;
+    }
+
+    // Running imports stop at their next batch and stay resumable
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        jobs.values().forEach(PatientImportJob::interrupt);
+        for (PatientImportJob job : jobs.values()) {
+            job.awaitTermination(Duration.ofSeconds(30));
+        }
+    }
+
+    private PatientImportStatus launch(String id, PatientImportJob.Checkpoint checkpoint) throws IOException {
+        launchLock.lock();
+        try {
+            PatientImportJob job = new PatientImportJob(id, directory.resolve(id + ".checkpoint"),
+                    directory.resolve(id + ".rejected.csv"), checkpoint, settings, patientBulkService);
+            jobs.put(id, job);
+            job.start();
+            return job.status();
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    private PatientImportJob.Checkpoint loadCheckpoint(String id) throws IOException {
+        Path file = directory.resolve(id + ".checkpoint");
+        if (!Files.exists(file)) {
+            throw new NoSuchElementException("Import not found: " + id);
+        }
+        return PatientImportJob.Checkpoint.load(file);
+    }
+
+    // Ids are UUIDs; anything else could point outside the import directory
+    private static String checkId(String id) {
+        return UUID.fromString(id).toString();
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
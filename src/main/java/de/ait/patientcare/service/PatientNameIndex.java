@@ -0,0 +1,507 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientNameKey;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ----------------------------------------------------------------------------
+ * In-memory trigram index over first and last names for the fuzzy name search.
+ * <p>
+ * Names are normalized (lower case, umlauts as {@code ae/oe/ue}, {@code ß} as
+ * {@code ss}, other accents dropped) and split into trigrams per word, padded
+ * like PostgreSQL's {@code pg_trgm}. Each trigram maps to a compressed bitmap
+ * of patient ids, separately for first and last names. A query is scored as
+ * the Jaccard similarity of its trigrams with the first name, the last name or
+ * the full name, whichever is highest, so "Maier" finds "Hans Meier" as well
+ * as "Maier, Hans".
+ * <p>
+ * To reach {@code app.search.name-index.min-similarity}, a name must share a
+ * minimum number of the query's trigrams, hence at least one of its rarest
+ * ones. Only the postings of those rare trigrams are read to find candidates,
+ * which are then checked against the remaining postings; frequent trigrams
+ * such as a common first letter never have to be scanned.
+ * <p>
+ * Like {@link PatientSearchIndex}, the index is built at startup, updated from
+ * committed {@link PatientChangedEvent}s and rebuilt periodically.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class PatientNameIndex {
+
+    // ' ' plus a-z plus 0-9
+    private static final int ALPHABET = 37;
+    private static final int TRIGRAM_SPACE = ALPHABET * ALPHABET * ALPHABET;
+
+    private final PatientJdbcRepository jdbcRepository;
+    private final boolean enabled;
+    private final double minSimilarity;
+
+    // Searches hold the read lock, events and the final swap of a rebuild the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private List<PatientChangedEvent> pendingEvents;
+    private volatile boolean ready;
+
+    /**
+     * A matching patient id and its similarity to the query, from 0 to 1.
+     */
+    public record Hit(long id, double similarity) {
+    }
+
+    public PatientNameIndex(PatientJdbcRepository jdbcRepository,
+                            @Value("${app.search.name-index.enabled:true}") boolean enabled,
+                            @Value("${app.search.name-index.min-similarity:0.3}") double minSimilarity) {
+        this.jdbcRepository = jdbcRepository;
+        this.enabled = enabled;
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * @return {@code true} once the index has been built and may answer searches
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.name-index.rebuild-interval:PT1H}",
+            initialDelayString = "${app.search.name-index.rebuild-interval:PT1H}")
+    public void reconcile() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces the index with a fresh copy built from the database. Changes
+     * committed while the table is scanned are replayed onto the new copy;
+     * applying a change twice is harmless.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            State fresh = new State();
+            jdbcRepository.streamActiveNames(key -> fresh.add(key.id(), key.firstName(), key.lastName()));
+            fresh.seal();
+
+            lock.writeLock().lock();
+            try {
+                for (PatientChangedEvent event : pendingEvents) {
+                    fresh.apply(event);
+                }
+                state = fresh;
+                pendingEvents = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Name index rebuilt in {} ms: {} patients, {} KB of postings",
+                    (System.nanoTime() - start) / 1_000_000, fresh.counts.size(), fresh.postingBytes() / 1024);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingEvents = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Name index rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            state.apply(event);
+        } catch (IllegalStateException e) {
+            ready = false;
+            log.warn("Name index disabled until next rebuild: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds active patients whose name is similar to the query.
+     *
+     * @param limit maximum number of hits
+     * @return hits with a similarity of at least {@code app.search.name-index.min-similarity},
+     * best first, ties in id order
+     */
+    public List<Hit> search(String query, int limit) {
+        int[] trigrams = trigrams(query);
+        if (trigrams.length == 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return state.search(trigrams, limit, minSimilarity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the distinct trigram codes of the normalized text, sorted
+     */
+    static int[] trigrams(String text) {
+        String normalized = normalize(text);
+        int[] codes = new int[normalized.length() * 3 + 3];
+        int n = 0;
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            // Two leading blanks and one trailing blank, so word starts weigh more than word ends
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                codes[n++] = (code(padded.charAt(i)) * ALPHABET + code(padded.charAt(i + 1))) * ALPHABET
+                        + code(padded.charAt(i + 2));
+            }
+        }
+        return Arrays.stream(codes, 0, n).sorted().distinct().toArray();
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT)
+                .replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss");
+        return Normalizer.normalize(lower, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+
+    /** All index structures; not thread-safe, guarded by the enclosing lock. */
+    private static final class State {
+
+        private final RoaringBitmap[] firstNames = new RoaringBitmap[TRIGRAM_SPACE];
+        private final RoaringBitmap[] lastNames = new RoaringBitmap[TRIGRAM_SPACE];
+        // Distinct trigrams per id of the first, last and full name
+        private final NameCounts counts = new NameCounts();
+
+        void add(long patientId, String firstName, String lastName) {
+            int id = indexId(patientId);
+            int[] first = trigrams(firstName);
+            int[] last = trigrams(lastName);
+            for (int code : first) {
+                posting(firstNames, code).add(id);
+            }
+            for (int code : last) {
+                posting(lastNames, code).add(id);
+            }
+            counts.put(id, first.length, last.length, unionSize(first, last));
+        }
+
+        void remove(long patientId, String firstName, String lastName) {
+            int id = indexId(patientId);
+            for (int code : trigrams(firstName)) {
+                if (firstNames[code] != null) {
+                    firstNames[code].remove(id);
+                }
+            }
+            for (int code : trigrams(lastName)) {
+                if (lastNames[code] != null) {
+                    lastNames[code].remove(id);
+                }
+            }
+            counts.remove(id);
+        }
+
+        void apply(PatientChangedEvent event) {
+            PatientSnapshot before = event.before();
+            PatientSnapshot after = event.after();
+            if (before != null) {
+                remove(before.id(), before.firstName(), before.lastName());
+            }
+            if (after != null && after.isActive()) {
+                add(after.id(), after.firstName(), after.lastName());
+            }
+        }
+
+        void seal() {
+            for (RoaringBitmap posting : firstNames) {
+                if (posting != null) {
+                    posting.runOptimize();
+                }
+            }
+            for (RoaringBitmap posting : lastNames) {
+                if (posting != null) {
+                    posting.runOptimize();
+                }
+            }
+        }
+
+        List<Hit> search(int[] query, int limit, double minSimilarity) {
+            int minShared = Math.max(1, (int) Math.ceil(minSimilarity * query.length));
+            int[] rarestFirst = Arrays.stream(query).boxed()
+                    .sorted(Comparator.comparingLong(this::frequency))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            // A name sharing minShared trigrams shares at least one of the query.length - minShared + 1 rarest
+            RoaringBitmap candidates = new RoaringBitmap();
+            for (int i = 0; i <= query.length - minShared; i++) {
+                if (firstNames[rarestFirst[i]] != null) {
+                    candidates.or(firstNames[rarestFirst[i]]);
+                }
+                if (lastNames[rarestFirst[i]] != null) {
+                    candidates.or(lastNames[rarestFirst[i]]);
+                }
+            }
+
+            // Worst hit at the head, so it can be replaced by a better one
+            Comparator<Hit> ranking = Comparator.comparingDouble(Hit::similarity).reversed()
+                    .thenComparingLong(Hit::id);
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+            candidates.forEach((int id) -> {
+                int sharedFirst = 0;
+                int sharedLast = 0;
+                int sharedAny = 0;
+                for (int code : query) {
+                    boolean inFirst = firstNames[code] != null && firstNames[code].contains(id);
+                    boolean inLast = lastNames[code] != null && lastNames[code].contains(id);
+                    sharedFirst += inFirst ? 1 : 0;
+                    sharedLast += inLast ? 1 : 0;
+                    sharedAny += inFirst || inLast ? 1 : 0;
+                }
+                int slot = counts.find(id);
+                if (sharedAny < minShared || slot < 0) {
+                    return;
+                }
+                double similarity = Math.max(jaccard(query.length, counts.full[slot], sharedAny),
+                        Math.max(jaccard(query.length, counts.first[slot], sharedFirst),
+                                jaccard(query.length, counts.last[slot], sharedLast)));
+                if (similarity >= minSimilarity) {
+                    best.add(new Hit(id, similarity));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            });
+
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(ranking);
+            return hits;
+        }
+
+        long postingBytes() {
+            long bytes = 0;
+            for (RoaringBitmap posting : firstNames) {
+                bytes += posting != null ? posting.getLongSizeInBytes() : 0;
+            }
+            for (RoaringBitmap posting : lastNames) {
+                bytes += posting != null ? posting.getLongSizeInBytes() : 0;
+            }
+            return bytes;
+        }
+
+        private long frequency(int code) {
+            return (firstNames[code] != null ? firstNames[code].getLongCardinality() : 0)
+                    + (lastNames[code] != null ? lastNames[code].getLongCardinality() : 0);
+        }
+
+        private static double jaccard(int queryTrigrams, int nameTrigrams, int shared) {
+            return nameTrigrams == 0 ? 0.0 : (double) shared / (queryTrigrams + nameTrigrams - shared);
+        }
+
+        // Both arrays are sorted and distinct
+        private static int unionSize(int[] a, int[] b) {
+            int i = 0;
+            int j = 0;
+            int common = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] == b[j]) {
+                    common++;
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return a.length + b.length - common;
+        }
+
+        private static RoaringBitmap posting(RoaringBitmap[] postings, int code) {
+            if (postings[code] == null) {
+                postings[code] = new RoaringBitmap();
+            }
+            return postings[code];
+        }
+
+        private static int indexId(long id) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Patient id out of index range: " + id);
+            }
+            return (int) id;
+        }
+    }
+
+    /**
+     * Trigram counts by patient id in an open-addressing hash table with
+     * linear probing, so memory follows the number of indexed patients, not
+     * the highest id: ids only grow, and deleted rows and sequence blocks
+     * leave gaps. Counts fit in a char, as there are fewer trigrams than 65536.
+     */
+    private static final class NameCounts {
+
+        private static final int FREE = -1;
+
+        private int[] ids;
+        private char[] first;
+        private char[] last;
+        private char[] full;
+        private int size;
+
+        NameCounts() {
+            allocate(16);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the slot of the id, or -1 if it is not indexed
+         */
+        int find(int id) {
+            int mask = ids.length - 1;
+            for (int slot = hash(id) & mask; ids[slot] != FREE; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void put(int id, int firstCount, int lastCount, int fullCount) {
+            int slot = find(id);
+            if (slot < 0) {
+                // Load factor at most 3/4
+                if ((size + 1) * 4L > ids.length * 3L) {
+                    rehash(ids.length * 2);
+                }
+                slot = freeSlot(id);
+                ids[slot] = id;
+                size++;
+            }
+            first[slot] = (char) firstCount;
+            last[slot] = (char) lastCount;
+            full[slot] = (char) fullCount;
+        }
+
+        void remove(int id) {
+            int gap = find(id);
+            if (gap < 0) {
+                return;
+            }
+            // Move later entries of the probe chain back, so lookups never stop at the hole
+            int mask = ids.length - 1;
+            for (int next = (gap + 1) & mask; ids[next] != FREE; next = (next + 1) & mask) {
+                int home = hash(ids[next]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    ids[gap] = ids[next];
+                    first[gap] = first[next];
+                    last[gap] = last[next];
+                    full[gap] = full[next];
+                    gap = next;
+                }
+            }
+            ids[gap] = FREE;
+            size--;
+        }
+
+        private int freeSlot(int id) {
+            int mask = ids.length - 1;
+            int slot = hash(id) & mask;
+            while (ids[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldIds = ids;
+            char[] oldFirst = first;
+            char[] oldLast = last;
+            char[] oldFull = full;
+            allocate(capacity);
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != FREE) {
+                    int slot = freeSlot(oldIds[i]);
+                    ids[slot] = oldIds[i];
+                    first[slot] = oldFirst[i];
+                    last[slot] = oldLast[i];
+                    full[slot] = oldFull[i];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            ids = new int[capacity];
+            Arrays.fill(ids, FREE);
+            first = new char[capacity];
+            last = new char[capacity];
+            full = new char[capacity];
+        }
+
+        // Ids are mostly consecutive; spread them over the table
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientNameKey;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Fills in the phonetic codes of rows stored before changeset 008, or written
+ * behind the application's back (SQL fixtures, manual inserts). New and
+ * changed patients get their codes from {@link Patient} itself.
+ * <p>
+ * Runs once at startup, on its own thread, so the other ready listeners and
+ * the readiness state do not wait for it: the id range of rows without codes
+ * is split into ranges of {@code app.phonetic.backfill.batch-size} ids, which
+ * {@code app.phonetic.backfill.threads} workers encode and write with one
+ * JDBC batch and one transaction each. The version is not incremented and no
+ * change events are published, since the codes are derived data. Rows without
+ * codes are simply not found by the phonetic search until they are filled.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class PatientPhoneticBackfill {
+
+    private final PatientJdbcRepository jdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int threads;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private volatile boolean running;
+
+    /**
+     * Work done since startup.
+     */
+    public record Stats(long batches, long updated, boolean running) {
+    }
+
+    public PatientPhoneticBackfill(PatientJdbcRepository jdbcRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   EntityManagerFactory entityManagerFactory,
+                                   @Value("${app.phonetic.backfill.enabled:true}") boolean enabled,
+                                   @Value("${app.phonetic.backfill.batch-size:1000}") int batchSize,
+                                   @Value("${app.phonetic.backfill.threads:4}") int threads) {
+        this.jdbcRepository = jdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.batchSize = Math.max(batchSize, 1);
+        this.threads = Math.max(threads, 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread.ofPlatform().daemon().name("patient-phonetic-backfill").start(this::run);
+        }
+    }
+
+    /**
+     * Encodes every row without phonetic codes; returns when all batches are done.
+     *
+     * @return number of rows updated
+     */
+    public long run() {
+        Optional<long[]> range = jdbcRepository.findIdRangeWithoutPhoneticCodes();
+        if (range.isEmpty()) {
+            log.debug("Phonetic codes are complete, nothing to backfill");
+            return 0;
+        }
+        long minId = range.get()[0];
+        long maxId = range.get()[1];
+        log.info("Backfilling phonetic codes for ids {}..{} with {} threads", minId, maxId, threads);
+        long start = System.nanoTime();
+        running = true;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().daemon().name("patient-phonetic-backfill-", 1).factory());
+        long total = 0;
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += batchSize) {
+                long to = Math.min(from + batchSize - 1, maxId);
+                long fromId = from;
+                futures.add(executor.submit(() -> backfill(fromId, to)));
+            }
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Phonetic backfill interrupted after {} rows", total);
+        } catch (ExecutionException e) {
+            // Rows of the failed and cancelled batches stay without codes until the next start
+            log.error("Phonetic backfill failed after {} rows", total, e.getCause());
+        } finally {
+            executor.shutdownNow();
+            running = false;
+            // Cached entities were read before their codes were written
+            entityManagerFactory.getCache().evict(Patient.class);
+        }
+
+        log.info("Backfilled phonetic codes of {} patients in {} ms",
+                total, (System.nanoTime() - start) / 1_000_000);
+        return total;
+    }
+
+    private int backfill(long fromId, long toId) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<PatientNameKey> names = jdbcRepository.findNamesWithoutPhoneticCodes(fromId, toId);
+            return names.isEmpty() ? 0 : jdbcRepository.updatePhoneticCodes(names);
+        });
+        int rows = count == null ? 0 : count;
+        batches.increment();
+        updated.add(rows);
+        return rows;
+    }
+
+    public Stats getStats() {
+        return new Stats(batches.sum(), updated.sum(), running);
+    }
+}
@@ -0,0 +1,355 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientSearchKey;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+
+/**
+ * ----------------------------------------------------------------------------
+ * Optional in-memory index for {@code /api/patients/search}.
+ * <p>
+ * Keeps one compressed bitmap of patient ids per {@link Gender} and
+ * {@link BloodType} value plus an array of (epoch day of birth, id) pairs
+ * sorted by date. A search intersects the bitmaps, narrows the age range by
+ * binary search and returns only the ids of the requested page, so the
+ * database is hit with a single primary key lookup.
+ * <p>
+ * The index is built at startup, updated from committed
+ * {@link PatientChangedEvent}s and rebuilt periodically, which also folds the
+ * dates changed since the last build back into the sorted array.
+ * Only id ordered pages can be answered; other sorts stay on the JPQL path.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class PatientSearchIndex {
+
+    private final PatientJdbcRepository jdbcRepository;
+    private final boolean enabled;
+
+    // Searches hold the read lock, events and the final swap of a rebuild the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private List<PatientChangedEvent> pendingEvents;
+    private volatile boolean ready;
+
+    /**
+     * One page of matching ids in the requested order and the number of all matches.
+     */
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    public PatientSearchIndex(PatientJdbcRepository jdbcRepository,
+                              @Value("${app.search.bitmap-index.enabled:false}") boolean enabled) {
+        this.jdbcRepository = jdbcRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return {@code true} once the index has been built and may answer searches
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * @return {@code true} if pages in this order can be produced from the index
+     */
+    public static boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> order.getProperty().equals("id"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.bitmap-index.rebuild-interval:PT1H}",
+            initialDelayString = "${app.search.bitmap-index.rebuild-interval:PT1H}")
+    public void reconcile() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces the index with a fresh copy built from the database. Changes
+     * committed while the table is scanned are replayed onto the new copy;
+     * applying a change twice is harmless.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            State fresh = new State();
+            LongStream.Builder birthOrder = LongStream.builder();
+            jdbcRepository.streamActiveSearchKeys(key -> birthOrder.add(fresh.load(key)));
+            fresh.seal(birthOrder.build().sorted().toArray());
+
+            lock.writeLock().lock();
+            try {
+                for (PatientChangedEvent event : pendingEvents) {
+                    fresh.apply(event);
+                }
+                state = fresh;
+                pendingEvents = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Search index rebuilt in {} ms: {} patients, {} KB of bitmaps",
+                    (System.nanoTime() - start) / 1_000_000, fresh.active.getCardinality(),
+                    fresh.bitmapBytes() / 1024);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingEvents = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Search index rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            state.apply(event);
+        } catch (IllegalStateException e) {
+            ready = false;
+            log.warn("Search index disabled until next rebuild: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds active patients matching all given filters; {@code null} filters are ignored.
+     *
+     * @param bornOnOrAfter  earliest date of birth (inclusive)
+     * @param bornOnOrBefore latest date of birth (inclusive)
+     * @param offset         number of matches to skip in id order
+     * @param limit          maximum number of ids to return
+     * @param descending     {@code true} for descending id order
+     */
+    public Hits search(Gender gender, BloodType bloodType,
+                       LocalDate bornOnOrAfter, LocalDate bornOnOrBefore,
+                       long offset, int limit, boolean descending) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = state.matching(gender, bloodType, bornOnOrAfter, bornOnOrBefore);
+            long total = matches.getLongCardinality();
+            long end = Math.min(total, offset + limit);
+            List<Long> ids = new ArrayList<>((int) Math.max(0, end - offset));
+            for (long i = offset; i < end; i++) {
+                int rank = (int) (descending ? total - 1 - i : i);
+                ids.add((long) matches.select(rank));
+            }
+            return new Hits(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** All index structures; not thread-safe, guarded by the enclosing lock. */
+    private static final class State {
+
+        private static final int ABSENT = Integer.MIN_VALUE;
+
+        private final RoaringBitmap active = new RoaringBitmap();
+        private final RoaringBitmap[] byGender = bitmaps(Gender.values().length);
+        private final RoaringBitmap[] byBloodType = bitmaps(BloodType.values().length);
+
+        // (epochDay, id) pairs of the last build, sorted; entries of ids changed since then are stale
+        private long[] birthOrder = new long[0];
+        private final RoaringBitmap staleBirthOrder = new RoaringBitmap();
+        // Current (epochDay, id) pairs of ids changed since the last build
+        private final NavigableSet<Long> birthOverlay = new TreeSet<>();
+        private int[] epochDayById = new int[0];
+
+        long load(PatientSearchKey key) {
+            int id = indexId(key.id());
+            int epochDay = Math.toIntExact(key.dateOfBirth().toEpochDay());
+            active.add(id);
+            byGender[key.gender().ordinal()].add(id);
+            byBloodType[key.bloodType().ordinal()].add(id);
+            setEpochDay(id, epochDay);
+            return pack(epochDay, id);
+        }
+
+        void seal(long[] sortedBirthOrder) {
+            birthOrder = sortedBirthOrder;
+            active.runOptimize();
+            Arrays.stream(byGender).forEach(RoaringBitmap::runOptimize);
+            Arrays.stream(byBloodType).forEach(RoaringBitmap::runOptimize);
+        }
+
+        void apply(PatientChangedEvent event) {
+            int id = indexId(event.patientId());
+            active.remove(id);
+            for (RoaringBitmap bitmap : byGender) {
+                bitmap.remove(id);
+            }
+            for (RoaringBitmap bitmap : byBloodType) {
+                bitmap.remove(id);
+            }
+            int oldEpochDay = epochDay(id);
+            if (oldEpochDay != ABSENT) {
+                birthOverlay.remove(pack(oldEpochDay, id));
+                setEpochDay(id, ABSENT);
+            }
+            staleBirthOrder.add(id);
+
+            PatientSnapshot after = event.after();
+            if (after != null && after.isActive()) {
+                int epochDay = Math.toIntExact(after.dateOfBirth().toEpochDay());
+                active.add(id);
+                byGender[after.gender().ordinal()].add(id);
+                byBloodType[after.bloodType().ordinal()].add(id);
+                setEpochDay(id, epochDay);
+                birthOverlay.add(pack(epochDay, id));
+            }
+        }
+
+        RoaringBitmap matching(Gender gender, BloodType bloodType,
+                               LocalDate bornOnOrAfter, LocalDate bornOnOrBefore) {
+            RoaringBitmap candidates = active;
+            if (gender != null) {
+                candidates = RoaringBitmap.and(candidates, byGender[gender.ordinal()]);
+            }
+            if (bloodType != null) {
+                candidates = RoaringBitmap.and(candidates, byBloodType[bloodType.ordinal()]);
+            }
+            if (bornOnOrAfter == null && bornOnOrBefore == null) {
+                return candidates;
+            }
+
+            int from = bornOnOrAfter != null ? Math.toIntExact(bornOnOrAfter.toEpochDay()) : Integer.MIN_VALUE + 1;
+            int to = bornOnOrBefore != null ? Math.toIntExact(bornOnOrBefore.toEpochDay()) : Integer.MAX_VALUE;
+            long packedFrom = pack(from, 0);
+            long packedTo = pack(to, -1);
+            int lo = insertionPoint(packedFrom, false);
+            int hi = insertionPoint(packedTo, true);
+            NavigableSet<Long> overlay = birthOverlay.subSet(packedFrom, true, packedTo, true);
+
+            // Check each candidate's date when the enum filters are more selective than the age range
+            if (candidates.getLongCardinality() <= (long) (hi - lo) + overlay.size()) {
+                RoaringBitmapWriter<RoaringBitmap> result = RoaringBitmapWriter.writer().get();
+                candidates.forEach((int id) -> {
+                    int epochDay = epochDay(id);
+                    if (epochDay != ABSENT && epochDay >= from && epochDay <= to) {
+                        result.add(id);
+                    }
+                });
+                return result.get();
+            }
+
+            int[] inRange = new int[hi - lo + overlay.size()];
+            int n = 0;
+            for (int i = lo; i < hi; i++) {
+                int id = (int) birthOrder[i];
+                if (!staleBirthOrder.contains(id)) {
+                    inRange[n++] = id;
+                }
+            }
+            for (long packed : overlay) {
+                inRange[n++] = (int) packed;
+            }
+            Arrays.sort(inRange, 0, n);
+            RoaringBitmap range = new RoaringBitmap();
+            range.addN(inRange, 0, n);
+            return RoaringBitmap.and(range, candidates);
+        }
+
+        long bitmapBytes() {
+            long bytes = active.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : byGender) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : byBloodType) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            return bytes;
+        }
+
+        // First index whose entry is >= key, or > key when inclusive
+        private int insertionPoint(long key, boolean inclusive) {
+            int pos = Arrays.binarySearch(birthOrder, key);
+            if (pos >= 0) {
+                return inclusive ? pos + 1 : pos;
+            }
+            return -pos - 1;
+        }
+
+        private int epochDay(int id) {
+            return id < epochDayById.length ? epochDayById[id] : ABSENT;
+        }
+
+        private void setEpochDay(int id, int epochDay) {
+            if (id >= epochDayById.length) {
+                int oldLength = epochDayById.length;
+                int newLength = Math.max(id + 1, oldLength + (oldLength >> 1) + 16);
+                epochDayById = Arrays.copyOf(epochDayById, newLength);
+                Arrays.fill(epochDayById, oldLength, newLength, ABSENT);
+            }
+            epochDayById[id] = epochDay;
+        }
+
+        private static int indexId(Long id) {
+            if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Patient id out of index range: " + id);
+            }
+            return id.intValue();
+        }
+
+        // Sorts by date first, then by id; ids are non-negative so the low half compares correctly
+        private static long pack(int epochDay, int id) {
+            return ((long) epochDay << 32) | (id & 0xFFFFFFFFL);
+        }
+
+        private static RoaringBitmap[] bitmaps(int count) {
+            RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+            for (int i = 0; i < count; i++) {
+                bitmaps[i] = new RoaringBitmap();
+            }
+            return bitmaps;
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package de.ait.patientcare.service;
 
+import de.ait.patientcare.dto.PatientNameMatch;
+import de.ait.patientcare.dto.PatientPage;
+import de.ait.patientcare.dto.PatientSearchPage;
+import de.ait.patientcare.dto.PatientView;
 import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientPhoneticCodes;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.entity.enums.PhoneticAlgorithm;
 import de.ait.patientcare.repository.PatientRepository;
-import jakarta.transaction.Transactional;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
+import de.ait.patientcare.repository.PatientSpecifications;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * ----------------------------------------------------------------------------
@@ -24,17 +48,93 @@ import java.util.Map;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+// Every public method is timed; percentiles per method are set by app.metrics.latency.*
+@Timed(value = "patientcare.service", description = "PatientService method latency")
 public class PatientService {
 
+    // Properties a search result may be sorted by; anything else is rejected with 400
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "id", "firstName", "lastName", "dateOfBirth", "gender", "bloodType", "createdAt");
+
     private final PatientRepository patientRepository;
+    private final PatientStatisticsCounters statisticsCounters;
+    private final PatientSearchIndex searchIndex;
+    private final PatientNameIndex nameIndex;
+    private final PatientCache patientCache;
+    private final InsuranceNumberFilter insuranceNumberFilter;
+    private final PatientGroupCommitter groupCommitter;
+
+    @Value("${app.patients.page.default-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${app.patients.page.max-size:500}")
+    private int maxPageSize = 500;
+
+    @Value("${app.search.name-index.max-results:100}")
+    private int maxNameResults = 100;
+
+    @Value("${app.search.phonetic.max-results:100}")
+    private int maxPhoneticResults = 100;
 
-    public List<Patient> getAllPatients() {
+    @Value("${app.statistics.age-buckets:0,18,40,60,80}")
+    private List<Integer> defaultAgeBuckets = List.of(0, 18, 40, 60, 80);
+
+    // Read paths return PatientView projections in read-only transactions: no managed entities,
+    // no dirty-checking snapshots, and Hibernate skips the flush at commit
+    @Transactional(readOnly = true)
+    public List<PatientView> getAllPatients() {
         log.info("Fetching all patients");
-        return patientRepository.findByDeletedFalse();
+        return patientRepository.findActiveViews();
+    }
+
+    @Transactional(readOnly = true)
+    public PatientPage getPatientsPage(String cursor, Integer size) {
+        int pageSize = (size == null) ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+        log.info("Fetching patients page: cursor={}, size={}", cursor, pageSize);
+
+        // One extra row tells us whether another page exists without a COUNT query
+        Limit limit = Limit.of(pageSize + 1);
+        List<PatientView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = patientRepository.findFirstPage(limit);
+        } else {
+            PatientCursor after = PatientCursor.decode(cursor);
+            rows = patientRepository.findPageAfter(after.lastName(), after.firstName(), after.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new PatientPage(rows, null, pageSize);
+        }
+        List<PatientView> items = rows.subList(0, pageSize);
+        String nextCursor = PatientCursor.of(items.get(pageSize - 1)).encode();
+        return new PatientPage(items, nextCursor, pageSize);
     }
 
     public Patient getPatientById(Long id) {
         log.info("Fetching patient by ID: {}", id);
+        Patient cached = patientCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Patient patient = findActivePatient(id);
+        patientCache.put(patient);
+        return patient;
+    }
+
+    /**
+     * Current version of an active patient for conditional requests: taken from
+     * the cache when the patient is cached, else read with a version-only query.
+     */
+    public Optional<Long> getPatientVersion(Long id) {
+        Long cached = patientCache.version(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return patientRepository.findActiveVersionById(id);
+    }
+
+    // Always reads the database; write paths must modify a managed entity, never a cached one
+    private Patient findActivePatient(Long id) {
         return patientRepository.findById(id)
                 .filter(p -> !p.isDeleted())
                 .orElseThrow(() -> {
@@ -43,13 +143,20 @@ public class PatientService {
                 });
     }
 
-    @Transactional
+    // Not @Transactional: a caller waiting for the group commit must not hold a connection,
+    // and on the direct path save() runs in its own transaction behind the same unique constraint
     public Patient createPatient(Patient patient) {
         log.info("Creating new patient: {} {}",
                 patient.getFirstName(), patient.getLastName());
 
+        if (groupCommitter.isEnabled()) {
+            Patient saved = groupCommitter.create(patient);
+            log.info("Patient created successfully with ID: {}", saved.getId());
+            return saved;
+        }
+
         // Check the uniqueness of the insurance number
-        if (patientRepository.existsByInsuranceNumber(patient.getInsuranceNumber())) {
+        if (insuranceNumberExists(patient.getInsuranceNumber())) {
             log.warn("Duplicate insurance number: {}", patient.getInsuranceNumber());
             throw new DataIntegrityViolationException("Insurance number must be unique");
         }
@@ -61,15 +168,38 @@ public class PatientService {
 
     @Transactional
     public Patient updatePatient(Long id, Patient patientDetails) {
+        return updatePatient(id, patientDetails, null);
+    }
+
+    /**
+     * @param expectedVersions versions the client's copy may have ({@code If-Match});
+     *                         {@code null} skips the check
+     * @throws OptimisticLockException if the stored version is none of them
+     */
+    @Transactional
+    public Patient updatePatient(Long id, Patient patientDetails, Collection<Long> expectedVersions) {
         log.info("Updating patient with ID: {}", id);
 
-        Patient patient = getPatientById(id);
+        if (expectedVersions != null) {
+            // Version-only query, so a stale request fails before the entity is loaded and merged
+            long current = patientRepository.findActiveVersionById(id).orElseThrow(() -> {
+                log.warn("Patient not found with ID: {}", id);
+                return new RuntimeException("Patient not found");
+            });
+            requireVersion(id, current, expectedVersions);
+        }
+
+        Patient patient = findActivePatient(id);
+        if (expectedVersions != null) {
+            // Changed between the version check and the load
+            requireVersion(id, patient.getVersion(), expectedVersions);
+        }
 
         String newInsuranceNumber = patientDetails.getInsuranceNumber();
         String currentInsuranceNumber = patient.getInsuranceNumber();
 
         if (!newInsuranceNumber.equals(currentInsuranceNumber)) {
-            if (patientRepository.existsByInsuranceNumber(newInsuranceNumber)) {
+            if (insuranceNumberExists(newInsuranceNumber)) {
                 log.warn("Duplicate insurance number during update: {}", newInsuranceNumber);
                 throw new DataIntegrityViolationException("Insurance number must be unique");
             }
@@ -86,52 +216,242 @@ public class PatientService {
         return patientRepository.save(patient);
     }
 
+    private static void requireVersion(Long id, long current, Collection<Long> expectedVersions) {
+        if (!expectedVersions.contains(current)) {
+            log.warn("Stale update of patient {}: version is {}, expected {}", id, current, expectedVersions);
+            throw new OptimisticLockException("Patient " + id + " has been changed, current version is " + current);
+        }
+    }
+
+    // The filter rules out most new numbers without a query; the unique constraint stays the final guard
+    private boolean insuranceNumberExists(String insuranceNumber) {
+        if (insuranceNumberFilter.isDefinitelyAbsent(insuranceNumber)) {
+            return false;
+        }
+        boolean exists = patientRepository.existsByInsuranceNumber(insuranceNumber);
+        insuranceNumberFilter.recordLookup(exists);
+        return exists;
+    }
+
     @Transactional
     public void deletePatient(Long id) {
         log.info("Soft-deleting patient with ID: {}", id);
-        Patient patient = getPatientById(id);
+        Patient patient = findActivePatient(id);
         patient.setDeleted(true);
         patientRepository.save(patient);
         log.info("Patient soft-deleted: ID {}", id);
     }
 
-    public List<Patient> searchPatients(Gender gender, BloodType bloodType,
-                                        Integer ageFrom, Integer ageTo) {
-        log.info("Searching patients with filters: gender={}, bloodType={}, ageFrom={}, ageTo={}",
-                gender, bloodType, ageFrom, ageTo);
+    @Transactional(readOnly = true)
+    public PatientSearchPage searchPatients(Gender gender, BloodType bloodType,
+                                            Integer ageFrom, Integer ageTo,
+                                            Pageable pageable, boolean withTotal) {
+        log.info("Searching patients with filters: gender={}, bloodType={}, ageFrom={}, ageTo={}, page={}",
+                gender, bloodType, ageFrom, ageTo, pageable);
 
         LocalDate today = LocalDate.now();
         LocalDate birthBefore = (ageFrom != null) ? today.minusYears(ageFrom) : null;
         LocalDate birthAfter = (ageTo != null) ? today.minusYears(ageTo) : null;
 
-        List<Patient> result = patientRepository.search(gender, bloodType, birthBefore, birthAfter);
+        Pageable stablePageable = withStableSort(pageable);
 
-        if (result.isEmpty()) {
+        PatientSearchPage result;
+        if (searchIndex.isReady() && PatientSearchIndex.supports(stablePageable.getSort())) {
+            result = searchByIndex(gender, bloodType, birthBefore, birthAfter, stablePageable, withTotal);
+        } else if (withTotal) {
+            Specification<Patient> spec = PatientSpecifications.matching(gender, bloodType, birthBefore, birthAfter);
+            Page<PatientView> page = patientRepository.findViewPage(spec, stablePageable);
+            result = new PatientSearchPage(page.getContent(), page.getNumber(), page.getSize(),
+                    page.hasNext(), page.getTotalElements());
+        } else {
+            Specification<Patient> spec = PatientSpecifications.matching(gender, bloodType, birthBefore, birthAfter);
+            Slice<PatientView> slice = patientRepository.findViewSlice(spec, stablePageable);
+            result = new PatientSearchPage(slice.getContent(), slice.getNumber(), slice.getSize(),
+                    slice.hasNext(), null);
+        }
+
+        if (result.items().isEmpty()) {
             log.debug("No patients found for search criteria: gender={}, bloodType={}, ageFrom={}, ageTo={}",
                     gender, bloodType, ageFrom, ageTo);
         } else {
-            log.info("Found {} patients for search criteria", result.size());
+            log.info("Found {} patients for search criteria", result.items().size());
         }
 
         return result;
     }
 
+    // Ids of the page come from the in-memory index; only those rows are loaded, in index order
+    private PatientSearchPage searchByIndex(Gender gender, BloodType bloodType,
+                                            LocalDate birthBefore, LocalDate birthAfter,
+                                            Pageable pageable, boolean withTotal) {
+        Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+        boolean descending = idOrder != null && idOrder.isDescending();
+        PatientSearchIndex.Hits hits = searchIndex.search(gender, bloodType, birthAfter, birthBefore,
+                pageable.getOffset(), pageable.getPageSize(), descending);
+
+        Map<Long, PatientView> byId = new HashMap<>();
+        for (PatientView patient : patientRepository.findViewsByIdIn(hits.ids())) {
+            byId.put(patient.id(), patient);
+        }
+        List<PatientView> items = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        boolean hasNext = hits.total() > pageable.getOffset() + pageable.getPageSize();
+        return new PatientSearchPage(items, pageable.getPageNumber(), pageable.getPageSize(),
+                hasNext, withTotal ? hits.total() : null);
+    }
+
+    /**
+     * Fuzzy search by first and/or last name, best matches first.
+     *
+     * @param limit maximum number of results, 20 if {@code null}
+     * @throws IllegalArgumentException if the query is blank or too long
+     * @throws IllegalStateException    if the name index is disabled or not built yet
+     */
+    public List<PatientNameMatch> searchByName(String query, Integer limit) {
+        if (query == null || query.isBlank() || query.length() > 200) {
+            throw new IllegalArgumentException("Query must contain 1 to 200 characters");
+        }
+        if (!nameIndex.isReady()) {
+            throw new IllegalStateException("Name search is not available");
+        }
+        int maxResults = (limit == null) ? 20 : Math.min(Math.max(limit, 1), maxNameResults);
+        log.info("Searching patients by name: q={}, limit={}", query, maxResults);
+
+        List<PatientNameIndex.Hit> hits = nameIndex.search(query, maxResults);
+        Map<Long, Patient> byId = new HashMap<>();
+        for (Patient patient : patientRepository.findAllById(hits.stream().map(PatientNameIndex.Hit::id).toList())) {
+            byId.put(patient.getId(), patient);
+        }
+        // A row deleted after the lookup is missing from byId and simply dropped
+        return hits.stream()
+                .filter(hit -> byId.containsKey(hit.id()))
+                .map(hit -> new PatientNameMatch(byId.get(hit.id()), hit.similarity()))
+                .toList();
+    }
+
+    /**
+     * Patients whose last name (and first name, if given) sounds like the query,
+     * ordered by name. The query is encoded once and matched against the stored
+     * codes through their indexes; rows not yet backfilled are not found.
+     *
+     * @param algorithm Koelner Phonetik if {@code null}
+     * @param limit     maximum number of results, 20 if {@code null}
+     * @throws IllegalArgumentException if a name is blank, too long or has no phonetic code
+     */
+    public List<Patient> searchByPhonetic(String lastName, String firstName,
+                                          PhoneticAlgorithm algorithm, Integer limit) {
+        if (lastName == null || lastName.isBlank() || lastName.length() > 200
+                || (firstName != null && firstName.length() > 200)) {
+            throw new IllegalArgumentException("Names must contain 1 to 200 characters");
+        }
+        PhoneticAlgorithm phonetic = (algorithm == null) ? PhoneticAlgorithm.COLOGNE : algorithm;
+        int maxResults = (limit == null) ? 20 : Math.min(Math.max(limit, 1), maxPhoneticResults);
+        log.info("Searching patients by phonetic code: lastName={}, firstName={}, algorithm={}, limit={}",
+                lastName, firstName, phonetic, maxResults);
+
+        Specification<Patient> spec = PatientSpecifications.isActive()
+                .and(soundsLike(phonetic, lastName, true));
+        if (firstName != null && !firstName.isBlank()) {
+            spec = spec.and(soundsLike(phonetic, firstName, false));
+        }
+        Pageable first = PageRequest.of(0, maxResults, Sort.by("lastName", "firstName", "id"));
+        return patientRepository.findSlice(spec, first).getContent();
+    }
+
+    private static Specification<Patient> soundsLike(PhoneticAlgorithm algorithm, String name, boolean lastName) {
+        if (algorithm == PhoneticAlgorithm.COLOGNE) {
+            String code = requireCode(PatientPhoneticCodes.cologne(name), name);
+            return lastName
+                    ? PatientSpecifications.lastNameCologneEquals(code)
+                    : PatientSpecifications.firstNameCologneEquals(code);
+        }
+        Set<String> codes = Set.copyOf(List.of(
+                requireCode(PatientPhoneticCodes.metaphone(name), name),
+                PatientPhoneticCodes.metaphoneAlternate(name)));
+        return lastName
+                ? PatientSpecifications.lastNameMetaphoneIn(codes)
+                : PatientSpecifications.firstNameMetaphoneIn(codes);
+    }
+
+    private static String requireCode(String code, String name) {
+        if (code.isEmpty()) {
+            throw new IllegalArgumentException("Name has no phonetic code: " + name);
+        }
+        return code;
+    }
+
+    // Validates the requested sort and appends id so that page boundaries are deterministic
+    private Pageable withStableSort(Pageable pageable) {
+        Sort sort = pageable.getSort().isSorted()
+                ? pageable.getSort()
+                : Sort.by("lastName", "firstName");
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+        }
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
     public Map<String, Object> getStatistics() {
+        return getStatistics(null);
+    }
+
+    public Map<String, Object> getStatistics(List<Integer> ageBucketBounds) {
         log.info("Getting patient statistics");
 
-        long total = patientRepository.countByDeletedFalse();
-        long male = patientRepository.countByGender(Gender.MALE);
-        long female = patientRepository.countByGender(Gender.FEMALE);
-        long other = patientRepository.countByGender(Gender.OTHER);
-        long olderThan60 = patientRepository.countByDateOfBirthBefore(
-                LocalDate.now().minusYears(60));
-
-        return Map.of(
-                "totalPatients", total,
-                "maleCount", male,
-                "femaleCount", female,
-                "otherCount", other,
-                "olderThan60", olderThan60
-        );
+        AgeBuckets buckets = AgeBuckets.of(ageBucketBounds != null ? ageBucketBounds : defaultAgeBuckets);
+        LocalDate today = LocalDate.now();
+        List<LocalDate> bucketCutoffs = buckets.lowerBounds().stream()
+                .map(today::minusYears)
+                .toList();
+
+        // In-memory counters when built; otherwise one scan with conditional aggregates
+        LocalDate olderThan60Cutoff = today.minusYears(60);
+        List<PatientStatisticsGroup> groups = statisticsCounters.isReady()
+                ? statisticsCounters.aggregate(olderThan60Cutoff, bucketCutoffs)
+                : patientRepository.aggregateStatistics(olderThan60Cutoff, bucketCutoffs);
+
+        long total = 0;
+        long olderThan60 = 0;
+        Map<Gender, Long> byGender = new LinkedHashMap<>();
+        Map<String, Long> byBloodType = new LinkedHashMap<>();
+        for (BloodType bloodType : BloodType.values()) {
+            byBloodType.put(bloodType.name(), 0L);
+        }
+        long[] atLeastAge = new long[buckets.size()];
+
+        for (PatientStatisticsGroup group : groups) {
+            total += group.count();
+            olderThan60 += group.bornBefore();
+            byGender.merge(group.gender(), group.count(), Long::sum);
+            byBloodType.merge(group.bloodType().name(), group.count(), Long::sum);
+            for (int i = 0; i < atLeastAge.length; i++) {
+                atLeastAge[i] += group.bornOnOrBefore()[i];
+            }
+        }
+
+        Map<String, Long> ageDistribution = new LinkedHashMap<>();
+        List<String> labels = buckets.labels();
+        for (int i = 0; i < atLeastAge.length; i++) {
+            long next = (i + 1 < atLeastAge.length) ? atLeastAge[i + 1] : 0;
+            ageDistribution.put(labels.get(i), atLeastAge[i] - next);
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("totalPatients", total);
+        statistics.put("maleCount", byGender.getOrDefault(Gender.MALE, 0L));
+        statistics.put("femaleCount", byGender.getOrDefault(Gender.FEMALE, 0L));
+        statistics.put("otherCount", byGender.getOrDefault(Gender.OTHER, 0L));
+        statistics.put("olderThan60", olderThan60);
+        statistics.put("bloodTypeDistribution", byBloodType);
+        statistics.put("ageBuckets", ageDistribution);
+        return statistics;
     }
 }
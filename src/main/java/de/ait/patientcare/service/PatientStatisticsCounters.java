@@ -0,0 +1,304 @@
+package de.ait.patientcare.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientBirthDateCount;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientRowVersion;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ----------------------------------------------------------------------------
+ * In-memory histogram of active patients per gender x blood type x birth date.
+ * <p>
+ * Each gender and blood type has one counter per birth year and one per birth
+ * day (about 12 MB in total). Year counters are {@link LongAdder}s, so
+ * concurrent writers touching the same cell do not contend on a single
+ * counter. Cells are updated from committed {@link PatientChangedEvent}s,
+ * rebuilt from the database at startup and reconciled periodically to repair
+ * drift from writes that bypass JPA.
+ * <p>
+ * Date based counters (older than 60, age buckets) are exact: whole years
+ * before the cutoff come from the year counters, the cutoff year itself from
+ * the day counters of its elapsed days.
+ * ----------------------------------------------------------------------------
+ */
+@Component
+@Slf4j
+public class PatientStatisticsCounters {
+
+    static final int MIN_BIRTH_YEAR = 1850;
+    static final int MAX_BIRTH_YEAR = 2199;
+    private static final int YEARS = MAX_BIRTH_YEAR - MIN_BIRTH_YEAR + 1;
+    private static final LocalDate MIN_BIRTH_DATE = LocalDate.of(MIN_BIRTH_YEAR, 1, 1);
+    private static final LocalDate MAX_BIRTH_DATE = LocalDate.of(MAX_BIRTH_YEAR, 12, 31);
+    private static final int DAYS = (int) ChronoUnit.DAYS.between(MIN_BIRTH_DATE, MAX_BIRTH_DATE) + 1;
+    private static final Gender[] GENDERS = Gender.values();
+    private static final BloodType[] BLOOD_TYPES = BloodType.values();
+
+    private final PatientRepository patientRepository;
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final boolean enabled;
+
+    // Events hold the read lock (shared), rebuild holds the write lock only for the final swap
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Cells cells = new Cells();
+    private volatile Queue<PatientChangedEvent> pendingEvents;
+    private volatile boolean ready;
+
+    public PatientStatisticsCounters(PatientRepository patientRepository,
+                                     PatientJdbcRepository patientJdbcRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.statistics.in-memory.enabled:true}") boolean enabled) {
+        this.patientRepository = patientRepository;
+        this.patientJdbcRepository = patientJdbcRepository;
+        // The counts and the row versions checked afterwards must come from the same snapshot
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return {@code true} once the counters have been built and may answer statistics queries
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.statistics.reconcile-interval:PT5M}",
+            initialDelayString = "${app.statistics.reconcile-interval:PT5M}")
+    public void reconcile() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces all cells with fresh counts from the database. Changes committed
+     * while the query runs are recorded and replayed onto the result, except
+     * those the query already counted: a change committed just before the
+     * query's snapshot may still be delivered after recording started. Which
+     * ones those are is decided by the row versions in the same snapshot.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        pendingEvents = new ConcurrentLinkedQueue<>();
+        try {
+            Integer replayed = snapshotTransaction.execute(status -> {
+                Cells fresh = new Cells();
+                for (PatientBirthDateCount row : patientRepository.countByGenderBloodTypeAndBirthDate()) {
+                    fresh.add(row.gender(), row.bloodType(), row.dateOfBirth(), row.count());
+                }
+                // Events wait for the swap, so none is lost between the version check and the new cells
+                swapLock.writeLock().lock();
+                try {
+                    List<PatientChangedEvent> pending = List.copyOf(pendingEvents);
+                    pendingEvents = null;
+                    Map<Long, PatientRowVersion> versions = patientJdbcRepository
+                            .findVersions(pending.stream().map(PatientChangedEvent::patientId).distinct().toList())
+                            .stream()
+                            .collect(Collectors.toMap(PatientRowVersion::id, Function.identity()));
+                    int count = 0;
+                    for (PatientChangedEvent event : pending) {
+                        if (!countedBy(event, versions.get(event.patientId()))) {
+                            apply(fresh, event);
+                            count++;
+                        }
+                    }
+                    cells = fresh;
+                    return count;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            });
+            ready = true;
+            log.info("Statistics counters rebuilt in {} ms, {} concurrent changes replayed",
+                    (System.nanoTime() - start) / 1_000_000, replayed);
+        } catch (RuntimeException e) {
+            pendingEvents = null;
+            log.warn("Statistics counters rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            apply(cells, event);
+            Queue<PatientChangedEvent> pending = pendingEvents;
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void apply(Cells target, PatientChangedEvent event) {
+        PatientSnapshot before = event.before();
+        PatientSnapshot after = event.after();
+        if (before != null && before.isActive()) {
+            target.add(before, -1);
+        }
+        if (after != null && after.isActive()) {
+            target.add(after, 1);
+        }
+    }
+
+    /**
+     * Whether the rebuild query already saw the change: every update raises the
+     * version, while Hibernate's soft delete ({@code after == null}) only sets
+     * the flag. {@code row} is {@code null} if the row was not visible yet.
+     */
+    private static boolean countedBy(PatientChangedEvent event, PatientRowVersion row) {
+        if (row == null) {
+            return false;
+        }
+        PatientSnapshot after = event.after();
+        if (after == null) {
+            return row.deleted();
+        }
+        return after.version() != null && row.version() >= after.version();
+    }
+
+    /**
+     * Same contract as {@code PatientRepository.aggregateStatistics}, answered
+     * from the histogram in time proportional to the number of cells.
+     */
+    public List<PatientStatisticsGroup> aggregate(LocalDate bornBefore, List<LocalDate> bornOnOrBefore) {
+        Cells snapshot = cells;
+        List<PatientStatisticsGroup> groups = new ArrayList<>();
+        for (Gender gender : GENDERS) {
+            for (BloodType bloodType : BLOOD_TYPES) {
+                int group = Cells.group(gender, bloodType);
+                long[] byYear = snapshot.years(group);
+                long count = 0;
+                for (long value : byYear) {
+                    count += value;
+                }
+                if (count == 0) {
+                    continue;
+                }
+                long[] cumulative = new long[bornOnOrBefore.size()];
+                for (int i = 0; i < cumulative.length; i++) {
+                    // dateOfBirth <= cutoff is the same as dateOfBirth < cutoff + 1 day
+                    cumulative[i] = bornBefore(snapshot, group, byYear, bornOnOrBefore.get(i).plusDays(1));
+                }
+                groups.add(new PatientStatisticsGroup(gender, bloodType, count,
+                        bornBefore(snapshot, group, byYear, bornBefore), cumulative));
+            }
+        }
+        return groups;
+    }
+
+    // Patients born strictly before the cutoff: whole years, then the elapsed days of the cutoff year
+    private static long bornBefore(Cells cells, int group, long[] byYear, LocalDate cutoff) {
+        if (cutoff.isBefore(MIN_BIRTH_DATE)) {
+            return 0;
+        }
+        int cutoffYear = Math.min(cutoff.getYear(), MAX_BIRTH_YEAR + 1);
+        long result = 0;
+        for (int i = 0; i < cutoffYear - MIN_BIRTH_YEAR; i++) {
+            result += byYear[i];
+        }
+        if (cutoffYear <= MAX_BIRTH_YEAR) {
+            result += cells.days(group, dayIndex(cutoff.withDayOfYear(1)), dayIndex(cutoff));
+        }
+        return result;
+    }
+
+    // Birth dates outside the supported range are counted on its first or last day
+    private static int dayIndex(LocalDate date) {
+        if (date.isBefore(MIN_BIRTH_DATE)) {
+            return 0;
+        }
+        return date.isAfter(MAX_BIRTH_DATE) ? DAYS - 1 : (int) ChronoUnit.DAYS.between(MIN_BIRTH_DATE, date);
+    }
+
+    private static int yearIndex(LocalDate date) {
+        return Math.min(Math.max(date.getYear(), MIN_BIRTH_YEAR), MAX_BIRTH_YEAR) - MIN_BIRTH_YEAR;
+    }
+
+    /** Flat counter arrays indexed by gender x blood type, then birth year or birth day. */
+    private static final class Cells {
+
+        private static final int GROUPS = GENDERS.length * BLOOD_TYPES.length;
+
+        private final LongAdder[] years = new LongAdder[GROUPS * YEARS];
+        // Only read for the cutoff year; an int per day is enough and keeps the array small
+        private final AtomicIntegerArray days = new AtomicIntegerArray(GROUPS * DAYS);
+
+        Cells() {
+            for (int i = 0; i < years.length; i++) {
+                years[i] = new LongAdder();
+            }
+        }
+
+        static int group(Gender gender, BloodType bloodType) {
+            return gender.ordinal() * BLOOD_TYPES.length + bloodType.ordinal();
+        }
+
+        void add(PatientSnapshot patient, long delta) {
+            add(patient.gender(), patient.bloodType(), patient.dateOfBirth(), delta);
+        }
+
+        void add(Gender gender, BloodType bloodType, LocalDate dateOfBirth, long delta) {
+            int group = group(gender, bloodType);
+            years[group * YEARS + yearIndex(dateOfBirth)].add(delta);
+            days.addAndGet(group * DAYS + dayIndex(dateOfBirth), (int) delta);
+        }
+
+        long[] years(int group) {
+            long[] values = new long[YEARS];
+            for (int i = 0; i < YEARS; i++) {
+                values[i] = years[group * YEARS + i].sum();
+            }
+            return values;
+        }
+
+        // Sum of the day counters in [fromDay, toDay)
+        long days(int group, int fromDay, int toDay) {
+            long sum = 0;
+            for (int i = fromDay; i < toDay; i++) {
+                sum += days.get(group * DAYS + i);
+            }
+            return sum;
+        }
+    }
+}
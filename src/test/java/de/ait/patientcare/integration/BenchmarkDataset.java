@@ -0,0 +1,66 @@
+package de.ait.patientcare.integration;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.generator.PatientDatasetGenerator;
+import de.ait.patientcare.generator.PatientDatasetLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Test data of the benchmark ITs and the JMH benchmarks: patients of
+ * {@link PatientDatasetGenerator} with one fixed seed, so every benchmark
+ * sees the same realistic names, ages and blood types and results of
+ * different builds are comparable.
+ */
+public final class BenchmarkDataset {
+
+    public static final long SEED = 42;
+
+    /**
+     * Spring property for a private in-memory database. It is dropped when
+     * the context closes its pool, so a benchmark that also uses
+     * {@code @DirtiesContext} needs no cleanup, however many rows it wrote.
+     */
+    public static final String PRIVATE_DATABASE =
+            "spring.datasource.url=jdbc:h2:mem:benchmark-${random.uuid};MODE=PostgreSQL";
+
+    private static final PatientDatasetGenerator GENERATOR = new PatientDatasetGenerator(SEED);
+    private static final int THREADS = 4;
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDataset() {
+    }
+
+    /**
+     * Patient number {@code index}, without id; distinct indexes have distinct insurance numbers.
+     */
+    public static Patient patient(long index) {
+        return GENERATOR.patient(index);
+    }
+
+    /**
+     * Inserts patients {@code 0} to {@code rows - 1} with {@link PatientDatasetLoader}
+     * and soft-deletes about every 50th, chosen by insurance number, so the
+     * same patients are deleted in every run. Bypasses the entity listeners;
+     * components built at startup must be rebuilt afterwards.
+     */
+    public static void seed(ConfigurableApplicationContext context, int rows) {
+        PatientDatasetLoader loader = new PatientDatasetLoader(context, context.getBean(DataSource.class),
+                context.getBean(PlatformTransactionManager.class), rows, SEED, 0, THREADS, BATCH_SIZE, "", false);
+        try {
+            loader.load();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while seeding", e);
+        }
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // KVNR: a letter, eight digits that are a permutation of the index, and a check digit
+        jdbcTemplate.update("UPDATE patients SET deleted = TRUE " +
+                "WHERE REGEXP_LIKE(insurance_number, '^[A-Z][0-9]{9}$') " +
+                "AND MOD(CAST(SUBSTRING(insurance_number, 2, 8) AS INT), 50) = 0");
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,64 @@
+package de.ait.patientcare.integration.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.metrics.latency.endpoints.[/api/patients/statistics].percentiles=0.999")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsEndpointMockMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheus_shouldExposeLatencyPercentilesAndSloBuckets() throws Exception {
+        mockMvc.perform(get("/api/patients").param("size", "5")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/patients/statistics")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape.lines())
+                .anyMatch(line -> line.startsWith("http_server_requests_seconds{")
+                        && line.contains("uri=\"/api/patients\"") && line.contains("quantile=\"0.99\""))
+                .anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket{")
+                        && line.contains("uri=\"/api/patients\"") && line.contains("le=\"0.05\""))
+                .anyMatch(line -> line.startsWith("http_server_requests_seconds{")
+                        && line.contains("uri=\"/api/patients/statistics\"") && line.contains("quantile=\"0.999\""))
+                .anyMatch(line -> line.startsWith("patientcare_service_seconds{")
+                        && line.contains("method=\"getPatientsPage\"") && line.contains("quantile=\"0.5\""))
+                .anyMatch(line -> line.startsWith("spring_data_repository_invocations_seconds")
+                        && line.contains("method=\"findFirstPage\""));
+    }
+
+    @Test
+    void prometheus_shouldExposePoolAndHibernateStatistics() throws Exception {
+        mockMvc.perform(get("/api/patients").param("size", "5")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("patientcare_datasource_saturation")
+                .contains("hikaricp_connections_pending")
+                .contains("hibernate_statements_total")
+                .contains("hibernate_entities_loads_total")
+                .contains("patientcare_cache_requests_total")
+                .contains("patientcare_insurance_filter_lookups_total")
+                .contains("patientcare_logging_events_lost_total{reason=\"queue_full\"")
+                .contains("patientcare_logging_events_sampled_out_total");
+    }
+}
@@ -1,6 +1,11 @@
 package de.ait.patientcare.integration.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.ait.patientcare.config.BinaryFormatConfig;
 import de.ait.patientcare.entity.Patient;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
@@ -12,10 +17,23 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -64,5 +82,310 @@ class PatientControllerMockMvcTest {
                         .content(objectMapper.writeValueAsString(invalid)))
                 .andExpect(status().isBadRequest());
     }
-}
 
+    @Test
+    void getById_ifNoneMatchWithCurrentETag_shouldReturn304() throws Exception {
+        Patient patient = patientRepository.save(Patient.builder()
+                .firstName("Etag")
+                .lastName("Reader")
+                .dateOfBirth(LocalDate.of(1975, 4, 4))
+                .gender(Gender.FEMALE)
+                .bloodType(BloodType.AB_POS)
+                .insuranceNumber("ETAG-GET-1")
+                .build());
+
+        String etag = mockMvc.perform(get("/api/patients/{id}", patient.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + patient.getVersion() + "\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/patients/{id}", patient.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/patients/{id}", patient.getId()).header("If-None-Match", "\"-1\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Reader"));
+    }
+
+    @Test
+    void update_ifMatch_shouldRejectStaleVersionWith412() throws Exception {
+        Patient patient = patientRepository.save(Patient.builder()
+                .firstName("Etag")
+                .lastName("Writer")
+                .dateOfBirth(LocalDate.of(1975, 4, 4))
+                .gender(Gender.MALE)
+                .bloodType(BloodType.AB_NEG)
+                .insuranceNumber("ETAG-PUT-1")
+                .build());
+        String etag = "\"" + patient.getVersion() + "\"";
+        patient.setLastName("Writer Updated");
+        String body = objectMapper.writeValueAsString(patient);
+
+        String newEtag = mockMvc.perform(put("/api/patients/{id}", patient.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + (patient.getVersion() + 1) + "\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/api/patients/{id}", patient.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").isNotEmpty());
+
+        mockMvc.perform(get("/api/patients/{id}", patient.getId()))
+                .andExpect(header().string("ETag", newEtag))
+                .andExpect(jsonPath("$.lastName").value("Writer Updated"));
+    }
+
+    @Test
+    void getAll_shouldReturnBoundedPageWithCursor() throws Exception {
+        mockMvc.perform(get("/api/patients").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    void getAll_invalidCursor_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/patients").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export_shouldStreamOneLinePerActivePatient() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/patients/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body.lines().count()).isEqualTo(patientRepository.countByDeletedFalse());
+    }
+
+    @Test
+    void export_withGzip_shouldCompressBody() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/patients/export")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(body.lines().count()).isEqualTo(patientRepository.countByDeletedFalse());
+        }
+    }
+
+    @Test
+    void export_withCborAccept_shouldStreamOneCborValuePerActivePatient() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/patients/export")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        try (MappingIterator<JsonNode> values = cbor.readerFor(JsonNode.class)
+                .readValues(result.getResponse().getContentAsByteArray())) {
+            List<JsonNode> patients = values.readAll();
+            assertThat(patients).hasSize((int) patientRepository.countByDeletedFalse());
+            assertThat(patients).allSatisfy(patient -> assertThat(patient.has("insuranceNumber")).isTrue());
+        }
+    }
+
+    @Test
+    void search_withSmileAccept_shouldReturnSameObjectAsJson() throws Exception {
+        byte[] smile = mockMvc.perform(get("/api/patients/search")
+                        .param("size", "5")
+                        .accept(BinaryFormatConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = mockMvc.perform(get("/api/patients/search").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        JsonNode decoded = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertThat(decoded).isEqualTo(objectMapper.readTree(json));
+        assertThat(decoded.get("items").get(0).get("dateOfBirth").isTextual()).isTrue();
+    }
+
+    @Test
+    void search_shouldReturnPagedResultWithOptionalTotal() throws Exception {
+        mockMvc.perform(get("/api/patients/search")
+                        .param("gender", "FEMALE")
+                        .param("size", "1")
+                        .param("sort", "dateOfBirth,desc")
+                        .param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].gender").value("FEMALE"))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.totalElements").isNumber());
+    }
+
+    @Test
+    void search_unsupportedSort_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/patients/search").param("sort", "insuranceNumber"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchByName_shouldRankMisspelledNames() throws Exception {
+        patientRepository.save(Patient.builder()
+                .firstName("Quentin")
+                .lastName("Vandersloot")
+                .dateOfBirth(LocalDate.of(1970, 7, 7))
+                .gender(Gender.MALE)
+                .bloodType(BloodType.B_POS)
+                .insuranceNumber("NAME-SEARCH-1")
+                .build());
+
+        mockMvc.perform(get("/api/patients/search/name").param("q", "Kwentin Vandersluis"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].patient.lastName").value("Vandersloot"))
+                .andExpect(jsonPath("$[0].similarity").isNumber());
+    }
+
+    @Test
+    void searchByName_blankQuery_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/patients/search/name").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchByPhonetic_shouldMatchSpellingVariants() throws Exception {
+        for (String[] name : new String[][]{{"Hans", "Meier"}, {"Peter", "Maier"}, {"Hans", "Schmidt"}}) {
+            patientRepository.save(Patient.builder()
+                    .firstName(name[0])
+                    .lastName(name[1])
+                    .dateOfBirth(LocalDate.of(1965, 3, 3))
+                    .gender(Gender.MALE)
+                    .bloodType(BloodType.A_NEG)
+                    .insuranceNumber("PHONETIC-" + name[0] + "-" + name[1])
+                    .build());
+        }
+
+        mockMvc.perform(get("/api/patients/search/phonetic").param("lastName", "Mayer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].insuranceNumber",
+                        hasItems("PHONETIC-Hans-Meier", "PHONETIC-Peter-Maier")))
+                .andExpect(jsonPath("$[*].lastName", not(hasItem("Schmidt"))));
+
+        mockMvc.perform(get("/api/patients/search/phonetic")
+                        .param("lastName", "Smith")
+                        .param("firstName", "Hanns")
+                        .param("algorithm", "DOUBLE_METAPHONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].insuranceNumber", hasItem("PHONETIC-Hans-Schmidt")))
+                .andExpect(jsonPath("$[*].lastName", not(hasItem("Meier"))));
+    }
+
+    @Test
+    void searchByPhonetic_blankLastName_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/patients/search/phonetic").param("lastName", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void statistics_shouldIncludeDistributionsAndCustomBuckets() throws Exception {
+        mockMvc.perform(get("/api/patients/statistics").param("ageBuckets", "0,50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPatients").isNumber())
+                .andExpect(jsonPath("$.bloodTypeDistribution.O_POS").isNumber())
+                .andExpect(jsonPath("$.ageBuckets['0-49']").isNumber())
+                .andExpect(jsonPath("$.ageBuckets['50+']").isNumber());
+    }
+
+    @Test
+    void createBulk_shouldReportEveryEntry() throws Exception {
+        String body = """
+                [
+                  {"firstName":"Bulk","lastName":"One","dateOfBirth":"1980-01-01","gender":"MALE","insuranceNumber":"BULK-MVC-1","bloodType":"A_POS"},
+                  {"firstName":"","lastName":"Two","dateOfBirth":"1980-01-01","gender":"MALE","insuranceNumber":"BULK-MVC-2","bloodType":"A_POS"},
+                  {"firstName":"Bulk","lastName":"Three","dateOfBirth":"1980-01-01","gender":"FEMALE","insuranceNumber":"BULK-MVC-1","bloodType":"B_POS"},
+                  {"firstName":"Bulk","lastName":"Four","dateOfBirth":"1980-01-01","gender":"FEMALE","insuranceNumber":"BULK-MVC-4","bloodType":"B_POS"}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/patients/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].id").isNumber())
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.items[3].status").value("CREATED"));
+
+        assertThat(patientRepository.existsByInsuranceNumber("BULK-MVC-1")).isTrue();
+        assertThat(patientRepository.existsByInsuranceNumber("BULK-MVC-2")).isFalse();
+    }
+
+    @Test
+    void createBulk_ndjsonWithStoredNumber_shouldReportDuplicate() throws Exception {
+        String body = """
+                {"firstName":"Bulk","lastName":"Five","dateOfBirth":"1980-01-01","gender":"OTHER","insuranceNumber":"BULK-MVC-5","bloodType":"O_NEG"}
+                {"firstName":"Bulk","lastName":"Six","dateOfBirth":"1980-01-01","gender":"OTHER","insuranceNumber":"BULK-MVC-5","bloodType":"O_NEG"}
+                """;
+        mockMvc.perform(post("/api/patients/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.lines().findFirst().orElseThrow()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+
+        mockMvc.perform(post("/api/patients/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.items[0].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.items[1].status").value("DUPLICATE"));
+    }
+
+    @Test
+    void createBulk_malformedEntry_shouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/patients/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"firstName\":\"Bulk\",\"gender\":\"UNKNOWN\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateBulk_shouldReturnCounts() throws Exception {
+        mockMvc.perform(patch("/api/patients/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selection\":{\"ids\":[-1]},\"bloodType\":\"O_NEG\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(0))
+                .andExpect(jsonPath("$.affected").value(0));
+    }
+
+    @Test
+    void deleteBulk_emptySelection_shouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/patients/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+}
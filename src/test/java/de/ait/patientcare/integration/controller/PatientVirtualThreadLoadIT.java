@@ -0,0 +1,123 @@
+package de.ait.patientcare.integration.controller;
+
+import de.ait.patientcare.config.ConnectionPoolGuard;
+import de.ait.patientcare.config.VirtualThreadPinningMonitor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for the request thread model.
+ * <p>
+ * {@code -Dbenchmark.clients} concurrent clients (default 500) each send
+ * {@code -Dbenchmark.requests} database backed search requests (default 20)
+ * over HTTP; throughput and latency percentiles are logged. Compare virtual
+ * threads with the platform thread pool ({@code -Dbenchmark.tomcat-threads},
+ * default 50):
+ * <pre>
+ * mvn test -Dtest=PatientVirtualThreadLoadIT
+ * mvn test -Dtest=PatientVirtualThreadLoadIT -Dbenchmark.virtual-threads=false
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.de.ait=INFO",
+        "spring.threads.virtual.enabled=${benchmark.virtual-threads:true}",
+        "server.tomcat.threads.max=${benchmark.tomcat-threads:50}"
+})
+@ActiveProfiles("test")
+@DisplayName("Request thread model load test")
+@Slf4j
+class PatientVirtualThreadLoadIT {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 500);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Test
+    @DisplayName("Concurrent search requests")
+    void search_underLoad() throws Exception {
+        String[] paths = {
+                "/api/patients/search?gender=MALE&size=20",
+                "/api/patients/search?bloodType=A_POS&size=20",
+                "/api/patients/search?ageFrom=30&ageTo=60&size=20&withTotal=true",
+        };
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(CLIENTS * REQUESTS));
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientId = c;
+                clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS; r++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                "http://localhost:" + port + paths[(clientId + r) % paths.length])).build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = latencies.stream().sorted().toList();
+        log.info(String.format("%s threads, %d clients x %d requests: %,.0f requests/s, p50 %.1f ms, p99 %.1f ms, "
+                        + "max %.1f ms, %d failed",
+                virtualThreads ? "Virtual" : "Platform", CLIENTS, REQUESTS, sorted.size() / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0), failures.get()));
+        if (dataSource instanceof ConnectionPoolGuard guard) {
+            log.info("Connection pool guard: {}", guard.getStats());
+        }
+        log.info("Pinning: {}", pinningMonitor.getStats());
+
+        assertThat(failures.get()).isZero();
+        assertThat(sorted).hasSize(CLIENTS * REQUESTS);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
@@ -0,0 +1,116 @@
+package de.ait.patientcare.integration.generator;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.generator.PatientDatasetChange;
+import de.ait.patientcare.generator.PatientDatasetGenerator;
+import de.ait.patientcare.generator.PatientDatasetLoader;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "app.generator.rows=2000",
+        "app.generator.seed=7",
+        "app.generator.threads=4",
+        "app.generator.batch-size=300",
+        "app.generator.exit=false"
+})
+@ActiveProfiles("test")
+class PatientDatasetLoaderIntegrationTest {
+
+    // Generated insurance numbers; the test data uses INS..., other tests their own prefixes
+    private static final String GENERATED = "REGEXP_LIKE(insurance_number, '^[A-Z][0-9]{9}$')";
+
+    @Autowired
+    private PatientDatasetLoader loader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // The runner already loaded the rows at startup; every test starts without them
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM patients WHERE " + GENERATED);
+    }
+
+    private Integer generatedCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients WHERE " + GENERATED, Integer.class);
+    }
+
+    @Test
+    @DisplayName("Load - inserts the configured rows in parallel chunks, as generated")
+    void load_insertsGeneratedRows() throws InterruptedException {
+        assertThat(loader.load()).isEqualTo(2000);
+        assertThat(generatedCount()).isEqualTo(2000);
+
+        Patient expected = new PatientDatasetGenerator(7).patient(1234);
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT first_name, last_name, gender, blood_type, last_name_cologne " +
+                "FROM patients WHERE insurance_number = ?", expected.getInsuranceNumber());
+        assertThat(row.get("FIRST_NAME")).isEqualTo(expected.getFirstName());
+        assertThat(row.get("LAST_NAME")).isEqualTo(expected.getLastName());
+        assertThat(row.get("GENDER")).isEqualTo(expected.getGender().name());
+        assertThat(row.get("BLOOD_TYPE")).isEqualTo(expected.getBloodType().name());
+        assertThat(row.get("LAST_NAME_COLOGNE")).isEqualTo(expected.getLastNameCologne());
+    }
+
+    @Test
+    @DisplayName("Load - ids come from blocks of 50 like Hibernate's, without a block per row")
+    void load_reservesDenseIdBlocks() throws InterruptedException {
+        loader.load();
+
+        Long span = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) - MIN(id) + 1 FROM patients WHERE " + GENERATED, Long.class);
+        // At most one partly used block per chunk of 300
+        assertThat(span).isLessThan(2000L + 7 * 50);
+    }
+
+    @Test
+    @DisplayName("Second load of the same range - same rows, rejected by the unique constraint")
+    void load_sameRangeTwice_conflicts() throws InterruptedException {
+        loader.load();
+
+        assertThatThrownBy(loader::load).isInstanceOf(IllegalStateException.class);
+        assertThat(generatedCount()).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("Liquibase change - inserts on the given connection")
+    void liquibaseChange_insertsRows() throws Exception {
+        PatientDatasetChange change = new PatientDatasetChange();
+        change.setRows("500");
+        change.setSeed("7");
+        change.setBatchSize("100");
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            assertThat(change.validate(database).hasErrors()).isFalse();
+            change.execute(database);
+            // Liquibase turns autocommit off; the pool would roll back on close
+            database.commit();
+        }
+
+        assertThat(generatedCount()).isEqualTo(500);
+        assertThat(change.getConfirmationMessage()).isEqualTo("Generated 500 patients");
+    }
+}
@@ -1,14 +1,22 @@
 package de.ait.patientcare.integration.repository;
 
+import de.ait.patientcare.dto.PatientView;
 import de.ait.patientcare.entity.Patient;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
 import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
@@ -47,6 +55,14 @@ class PatientRepositoryCustomDataIT {
     private static final LocalDate SARAH_WILLIAMS_BIRTH = LocalDate.of(1995, 8, 25);
     private static final LocalDate MICHAEL_BROWN_BIRTH = LocalDate.of(2000, 2, 15);
 
+    // Search through the same Specifications PatientService uses, sorted by name
+    private List<Patient> search(Gender gender, BloodType bloodType,
+                                 LocalDate birthBefore, LocalDate birthAfter) {
+        return patientRepository.findAll(
+                PatientSpecifications.matching(gender, bloodType, birthBefore, birthAfter),
+                Sort.by("lastName", "firstName"));
+    }
+
     @Nested
     @DisplayName("Basic CRUD Operations")
     class BasicCrudOperations {
@@ -181,7 +197,7 @@ class PatientRepositoryCustomDataIT {
         @DisplayName("search with no filters should return all active patients")
         void search_withNoFilters_shouldReturnAllActivePatients() {
             // When
-            List<Patient> patients = patientRepository.search(null, null, null, null);
+            List<Patient> patients = search(null, null, null, null);
 
             // Then
             assertThat(patients).hasSize(4);
@@ -192,8 +208,8 @@ class PatientRepositoryCustomDataIT {
         @DisplayName("search with gender filter should return filtered results")
         void search_withGenderFilter_shouldReturnFilteredResults() {
             // When
-            List<Patient> malePatients = patientRepository.search(Gender.MALE, null, null, null);
-            List<Patient> femalePatients = patientRepository.search(Gender.FEMALE, null, null, null);
+            List<Patient> malePatients = search(Gender.MALE, null, null, null);
+            List<Patient> femalePatients = search(Gender.FEMALE, null, null, null);
 
             // Then
             assertThat(malePatients).hasSize(2);
@@ -204,20 +220,20 @@ class PatientRepositoryCustomDataIT {
         @DisplayName("search with blood type filter should return filtered results")
         void search_withBloodTypeFilter_shouldReturnFilteredResults() {
             // When & Then
-            assertThat(patientRepository.search(null, BloodType.O_POS, null, null)).hasSize(1);
-            assertThat(patientRepository.search(null, BloodType.A_POS, null, null)).hasSize(1);
-            assertThat(patientRepository.search(null, BloodType.B_NEG, null, null)).hasSize(0);
-            assertThat(patientRepository.search(null, BloodType.AB_POS, null, null)).hasSize(1);
-            assertThat(patientRepository.search(null, BloodType.O_NEG, null, null)).hasSize(1);
+            assertThat(search(null, BloodType.O_POS, null, null)).hasSize(1);
+            assertThat(search(null, BloodType.A_POS, null, null)).hasSize(1);
+            assertThat(search(null, BloodType.B_NEG, null, null)).hasSize(0);
+            assertThat(search(null, BloodType.AB_POS, null, null)).hasSize(1);
+            assertThat(search(null, BloodType.O_NEG, null, null)).hasSize(1);
         }
 
         @Test
         @DisplayName("search with date filters should return filtered results")
         void search_withDateFilters_shouldReturnFilteredResults() {
             // When & Then
-            assertThat(patientRepository.search(null, null, LocalDate.of(1990, 1, 1), null)).hasSize(1);
-            assertThat(patientRepository.search(null, null, null, LocalDate.of(1994, 1, 1))).hasSize(2);
-            assertThat(patientRepository.search(null, null, LocalDate.of(1995, 1, 1),
+            assertThat(search(null, null, LocalDate.of(1990, 1, 1), null)).hasSize(1);
+            assertThat(search(null, null, null, LocalDate.of(1994, 1, 1))).hasSize(2);
+            assertThat(search(null, null, LocalDate.of(1995, 1, 1),
                     LocalDate.of(1980, 1, 1))).hasSize(2);
         }
     }
@@ -378,12 +394,137 @@ class PatientRepositoryCustomDataIT {
         private boolean findPatientInAllQueries(String insuranceNumber) {
             boolean inFindAll = patientRepository.findAll().stream()
                     .anyMatch(p -> insuranceNumber.equals(p.getInsuranceNumber()));
-            boolean inSearch = patientRepository.search(null, null, null, null).stream()
+            boolean inSearch = search(null, null, null, null).stream()
                     .anyMatch(p -> insuranceNumber.equals(p.getInsuranceNumber()));
             return inFindAll || inSearch;
         }
     }
 
+    @Nested
+    @DisplayName("Paged Search Queries")
+    class PagedSearchQueries {
+
+        @Test
+        @DisplayName("findSlice should page through matches without a count query")
+        void findSlice_shouldPageThroughMatches() {
+            // Given
+            PageRequest firstPage = PageRequest.of(0, 2, Sort.by("lastName", "firstName", "id"));
+
+            // When
+            Slice<Patient> first = patientRepository.findSlice(
+                    PatientSpecifications.matching(null, null, null, null), firstPage);
+            Slice<Patient> second = patientRepository.findSlice(
+                    PatientSpecifications.matching(null, null, null, null), firstPage.next());
+
+            // Then
+            assertThat(first.getContent()).extracting(Patient::getLastName).containsExactly("Brown", "Doe");
+            assertThat(first.hasNext()).isTrue();
+            assertThat(second.getContent()).extracting(Patient::getLastName).containsExactly("Smith", "Williams");
+            assertThat(second.hasNext()).isFalse();
+        }
+
+        @Test
+        @DisplayName("findSlice should apply only the filters that are set")
+        void findSlice_shouldApplyFilters() {
+            // When
+            Slice<Patient> males = patientRepository.findSlice(
+                    PatientSpecifications.matching(Gender.MALE, null, null, null),
+                    PageRequest.of(0, 10, Sort.by("id")));
+
+            // Then
+            assertThat(males.getContent())
+                    .extracting(Patient::getInsuranceNumber)
+                    .containsExactly(JOHN_DOE_INSURANCE, MICHAEL_BROWN_INSURANCE);
+        }
+
+        @Test
+        @DisplayName("findViewSlice should select the same rows as views")
+        void findViewSlice_shouldMatchEntitySlice() {
+            // Given
+            PageRequest firstPage = PageRequest.of(0, 3, Sort.by("lastName", "firstName", "id"));
+
+            // When
+            Slice<Patient> entities = patientRepository.findSlice(
+                    PatientSpecifications.matching(null, null, null, null), firstPage);
+            Slice<PatientView> views = patientRepository.findViewSlice(
+                    PatientSpecifications.matching(null, null, null, null), firstPage);
+
+            // Then
+            assertThat(views.getContent())
+                    .containsExactlyElementsOf(entities.getContent().stream().map(PatientView::of).toList());
+            assertThat(views.hasNext()).isTrue();
+        }
+
+        @Test
+        @DisplayName("findViewPage should report the total of all matches")
+        void findViewPage_shouldReportTotal() {
+            // When
+            Page<PatientView> page = patientRepository.findViewPage(
+                    PatientSpecifications.matching(Gender.FEMALE, null, null, null),
+                    PageRequest.of(0, 1, Sort.by("id")));
+
+            // Then - Jane Smith and Sarah Williams
+            assertThat(page.getContent())
+                    .extracting(PatientView::insuranceNumber)
+                    .containsExactly(JANE_SMITH_INSURANCE);
+            assertThat(page.getTotalElements()).isEqualTo(2);
+            assertThat(page.hasNext()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Aggregate Statistics Query")
+    class AggregateStatisticsQuery {
+
+        @Test
+        @DisplayName("aggregateStatistics should group active patients and count date conditions in one query")
+        void aggregateStatistics_shouldGroupByGenderAndBloodType() {
+            // When
+            List<PatientStatisticsGroup> groups = patientRepository.aggregateStatistics(
+                    LocalDate.of(1990, 1, 1),
+                    List.of(LocalDate.of(1995, 8, 25), LocalDate.of(1985, 6, 15)));
+
+            // Then - 4 active patients, each with a distinct gender/blood type combination
+            assertThat(groups).hasSize(4);
+            assertThat(groups).extracting(PatientStatisticsGroup::count).containsOnly(1L);
+            assertThat(groups.stream().mapToLong(PatientStatisticsGroup::bornBefore).sum())
+                    .isEqualTo(1L); // John Doe
+            assertThat(groups.stream().mapToLong(g -> g.bornOnOrBefore()[0]).sum())
+                    .isEqualTo(3L); // John, Jane, Sarah (inclusive)
+            assertThat(groups.stream().mapToLong(g -> g.bornOnOrBefore()[1]).sum())
+                    .isEqualTo(1L); // John (inclusive)
+        }
+    }
+
+    @Nested
+    @DisplayName("Keyset Pagination Queries")
+    class KeysetPaginationQueries {
+
+        @Test
+        @DisplayName("findFirstPage should order active patients by last name, first name and id")
+        void findFirstPage_shouldReturnOrderedActivePatients() {
+            // When
+            List<PatientView> page = patientRepository.findFirstPage(Limit.of(10));
+
+            // Then - Mark Johnson is deleted and must be skipped
+            assertThat(page)
+                    .extracting(PatientView::lastName)
+                    .containsExactly("Brown", "Doe", "Smith", "Williams");
+        }
+
+        @Test
+        @DisplayName("findPageAfter should continue strictly after the cursor position")
+        void findPageAfter_shouldContinueAfterCursor() {
+            // When
+            List<PatientView> page = patientRepository.findPageAfter("Doe", "John", 1L, Limit.of(2));
+
+            // Then
+            assertThat(page)
+                    .extracting(PatientView::insuranceNumber)
+                    .containsExactly(JANE_SMITH_INSURANCE, SARAH_WILLIAMS_INSURANCE);
+        }
+    }
+
     @Nested
     @DisplayName("Edge Cases")
     class EdgeCases {
@@ -406,7 +547,7 @@ class PatientRepositoryCustomDataIT {
         @DisplayName("search with impossible date range should return empty list")
         void searchWithImpossibleDateRange_shouldReturnEmptyList() {
             // When & Then
-            assertThat(patientRepository.search(null, null,
+            assertThat(search(null, null,
                     LocalDate.of(1990, 1, 1),
                     LocalDate.of(2000, 1, 1))).isEmpty();
         }
@@ -4,11 +4,13 @@ import de.ait.patientcare.entity.Patient;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
 import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
@@ -52,6 +54,14 @@ class PatientRepositoryWithTestDataIT {
     private static final LocalDate CUTOFF_DATE_2000 = LocalDate.of(2000, 1, 1);
     private static final LocalDate CUTOFF_DATE_1980 = LocalDate.of(1980, 1, 1);
 
+    // Search through the same Specifications PatientService uses, sorted by name
+    private List<Patient> search(Gender gender, BloodType bloodType,
+                                 LocalDate birthBefore, LocalDate birthAfter) {
+        return patientRepository.findAll(
+                PatientSpecifications.matching(gender, bloodType, birthBefore, birthAfter),
+                Sort.by("lastName", "firstName"));
+    }
+
     @Nested
     @DisplayName("Read Operations Tests")
     class ReadOperationsTests {
@@ -173,8 +183,8 @@ class PatientRepositoryWithTestDataIT {
         @DisplayName("search with gender filter should work correctly")
         void search_withGenderFilter_shouldReturnFilteredResults() {
             // When
-            List<Patient> malePatients = patientRepository.search(Gender.MALE, null, null, null);
-            List<Patient> femalePatients = patientRepository.search(Gender.FEMALE, null, null, null);
+            List<Patient> malePatients = search(Gender.MALE, null, null, null);
+            List<Patient> femalePatients = search(Gender.FEMALE, null, null, null);
 
             // Then
             assertThat(malePatients)
@@ -190,8 +200,8 @@ class PatientRepositoryWithTestDataIT {
         @DisplayName("search with blood type filter should work correctly")
         void search_withBloodTypeFilter_shouldReturnFilteredResults() {
             // When
-            List<Patient> oPosPatients = patientRepository.search(null, BloodType.O_POS, null, null);
-            List<Patient> aPosPatients = patientRepository.search(null, BloodType.A_POS, null, null);
+            List<Patient> oPosPatients = search(null, BloodType.O_POS, null, null);
+            List<Patient> aPosPatients = search(null, BloodType.A_POS, null, null);
 
             // Then
             assertThat(oPosPatients)
@@ -207,7 +217,7 @@ class PatientRepositoryWithTestDataIT {
         @DisplayName("search with date filters should work correctly")
         void search_withDateFilters_shouldReturnFilteredResults() {
             // When
-            List<Patient> patients = patientRepository.search(null, null, CUTOFF_DATE_2000, CUTOFF_DATE_1980);
+            List<Patient> patients = search(null, null, CUTOFF_DATE_2000, CUTOFF_DATE_1980);
 
             // Then
             assertThat(patients)
@@ -219,7 +229,7 @@ class PatientRepositoryWithTestDataIT {
         @DisplayName("search with birthBefore filter should return older patients")
         void search_withBirthBeforeFilter_shouldReturnOlderPatients() {
             // When
-            List<Patient> patients = patientRepository.search(null, null, CUTOFF_DATE_1986, null);
+            List<Patient> patients = search(null, null, CUTOFF_DATE_1986, null);
 
             // Then
             assertThat(patients)
@@ -231,7 +241,7 @@ class PatientRepositoryWithTestDataIT {
         @DisplayName("search with birthAfter filter should return younger patients")
         void search_withBirthAfterFilter_shouldReturnYoungerPatients() {
             // When
-            List<Patient> patients = patientRepository.search(null, null, null, CUTOFF_DATE_1988);
+            List<Patient> patients = search(null, null, null, CUTOFF_DATE_1988);
 
             // Then
             assertThat(patients)
@@ -0,0 +1,171 @@
+package de.ait.patientcare.integration.repository;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark for the Specification based search on a large table.
+ * <p>
+ * Seeds {@code -Dbenchmark.rows} patients (default 1,000,000) into a private
+ * in-memory H2, then for several filter mixes logs the H2 plan of the SQL
+ * Hibernate actually generates next to the plan of the former
+ * {@code (:param IS NULL OR ...)} query. Both queries are also timed the same
+ * way, through JDBC without mapping the rows, so the latency compares the
+ * plans rather than Hibernate against plain JDBC. Run it explicitly:
+ * <pre>
+ * mvn test -Dtest=PatientSearchIndexUsageIT -Dbenchmark.rows=1000000
+ * </pre>
+ */
+@SpringBootTest(properties = {
+        BenchmarkDataset.PRIVATE_DATABASE,
+        // Render criteria values as literals so the captured SQL can be EXPLAINed as is
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "de.ait.patientcare.integration.repository.PatientSearchIndexUsageIT$LastStatement",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Search index usage benchmark")
+@Slf4j
+class PatientSearchIndexUsageIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int ITERATIONS = 20;
+
+    private static final String LEGACY_QUERY = "SELECT * FROM patients p WHERE p.deleted = false " +
+            "AND (CAST(? AS VARCHAR) IS NULL OR p.gender = ?) " +
+            "AND (CAST(? AS VARCHAR) IS NULL OR p.blood_type = ?) " +
+            "AND (CAST(? AS DATE) IS NULL OR p.date_of_birth <= ?) " +
+            "AND (CAST(? AS DATE) IS NULL OR p.date_of_birth >= ?) " +
+            "ORDER BY p.last_name, p.first_name";
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    /** Keeps the last SQL statement Hibernate prepared on the current thread. */
+    public static class LastStatement implements StatementInspector {
+        static final ThreadLocal<String> SQL = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.set(sql);
+            return sql;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        BenchmarkDataset.seed(context, ROWS);
+        log.info("Seeded {} patients in {} ms", ROWS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static Stream<Arguments> filterMixes() {
+        LocalDate today = LocalDate.now();
+        return Stream.of(
+                Arguments.of("gender + age 30..40", Gender.FEMALE, null,
+                        today.minusYears(30), today.minusYears(40), "IDX_PATIENTS_GENDER_DOB"),
+                Arguments.of("blood type", null, BloodType.AB_NEG,
+                        null, null, "IDX_PATIENTS_BLOOD_TYPE"),
+                Arguments.of("gender + blood type + age", Gender.MALE, BloodType.O_NEG,
+                        today.minusYears(60), today.minusYears(65), "IDX_PATIENTS_GENDER_DOB"),
+                // H2 prefers idx_patients_deleted over a pure date range, so this mix is only reported
+                Arguments.of("age 18..19", null, null,
+                        today.minusYears(18), today.minusYears(19), null)
+        );
+    }
+
+    @ParameterizedTest(name = "{0} -> {5}")
+    @MethodSource("filterMixes")
+    void specificationQuery_shouldUseIndex(String label, Gender gender, BloodType bloodType,
+                                           LocalDate birthBefore, LocalDate birthAfter,
+                                           String expectedIndex) {
+        Specification<Patient> spec = PatientSpecifications.matching(gender, bloodType, birthBefore, birthAfter);
+        PageRequest page = PageRequest.of(0, 50, Sort.by("lastName", "firstName", "id"));
+
+        // Only captures the SQL; it is timed below like the legacy query
+        patientRepository.findSlice(spec, page);
+        String generatedSql = LastStatement.SQL.get();
+        Object[] specArgs = pageArgs(generatedSql);
+
+        Object[] legacyArgs = {enumName(gender), enumName(gender), enumName(bloodType), enumName(bloodType),
+                birthBefore, birthBefore, birthAfter, birthAfter};
+        double specMillis = millisPerPage(generatedSql, specArgs);
+        double legacyMillis = millisPerPage(LEGACY_QUERY + " LIMIT 51", legacyArgs);
+
+        String specPlan = explain(generatedSql, specArgs);
+        String legacyPlan = explain(LEGACY_QUERY, legacyArgs);
+
+        log.info("{} ({} rows)\nSpecification: {} ms/page\n{}\nLegacy IS NULL OR: {} ms/page\n{}",
+                label, ROWS, String.format("%.2f", specMillis), specPlan,
+                String.format("%.2f", legacyMillis), legacyPlan);
+
+        if (expectedIndex != null) {
+            assertThat(specPlan).contains(expectedIndex);
+        }
+    }
+
+    private static String enumName(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    /**
+     * OFFSET/FETCH stay JDBC parameters even in inline mode; the first page of
+     * a slice fetches one row more than the page size.
+     */
+    private static Object[] pageArgs(String sql) {
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        Object[] bound = Stream.generate(() -> (Object) 51).limit(placeholders).toArray();
+        if (placeholders == 2) {
+            bound[0] = 0;
+        }
+        return bound;
+    }
+
+    private double millisPerPage(String sql, Object[] args) {
+        jdbcTemplate.query(sql, rs -> { }, args);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            jdbcTemplate.query(sql, rs -> { }, args);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+}
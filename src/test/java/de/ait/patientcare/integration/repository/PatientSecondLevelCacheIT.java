@@ -0,0 +1,120 @@
+package de.ait.patientcare.integration.repository;
+
+import de.ait.patientcare.config.HibernateCacheStatistics;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
+import de.ait.patientcare.service.PatientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that repeated repository reads are answered from the Hibernate
+ * second-level and query caches without SQL, and that writes through
+ * {@link PatientService} and the {@code @SQLDelete} path invalidate them.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class PatientSecondLevelCacheIT {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private HibernateCacheStatistics cacheStatistics;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Patient create(String insuranceNumber) {
+        return patientService.createPatient(Patient.builder()
+                .firstName("Cache")
+                .lastName("Check")
+                .dateOfBirth(LocalDate.of(1977, 7, 7))
+                .gender(Gender.OTHER)
+                .insuranceNumber(insuranceNumber)
+                .bloodType(BloodType.AB_NEG)
+                .build());
+    }
+
+    @Test
+    @DisplayName("findById - repeated reads hit the entity region without SQL")
+    void findById_repeated_issuesNoSql() {
+        Long id = create("L2-IT-1").getId();
+        patientRepository.findById(id);
+
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            assertThat(patientRepository.findById(id)).isPresent();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Patient.CACHE_REGION).getHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Count and search queries - repeated reads hit the query cache without SQL")
+    void queries_repeated_issueNoSql() {
+        create("L2-IT-2");
+        PageRequest page = PageRequest.of(0, 10, Sort.by("id"));
+        patientRepository.countByGender(Gender.OTHER);
+        patientRepository.findAll(PatientSpecifications.matching(Gender.OTHER, null, null, null), page);
+
+        statistics.clear();
+        long count = patientRepository.countByGender(Gender.OTHER);
+        Page<Patient> result = patientRepository.findAll(
+                PatientSpecifications.matching(Gender.OTHER, null, null, null), page);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThanOrEqualTo(2);
+        assertThat(result.getTotalElements()).isEqualTo(count);
+        assertThat(cacheStatistics.regions()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Soft delete through the service and @SQLDelete - cached counts are invalidated")
+    void writes_invalidateQueryCache() {
+        Patient first = create("L2-IT-3");
+        Patient second = create("L2-IT-4");
+        long before = patientRepository.countByDeletedFalse();
+
+        patientService.deletePatient(first.getId());
+        assertThat(patientRepository.countByDeletedFalse()).isEqualTo(before - 1);
+
+        patientRepository.deleteById(second.getId());
+        assertThat(patientRepository.countByDeletedFalse()).isEqualTo(before - 2);
+        assertThatThrownBy(() -> patientService.getPatientById(first.getId()))
+                .hasMessage("Patient not found");
+    }
+}
@@ -0,0 +1,81 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.dto.PatientBulkResult;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.PatientBulkService;
+import de.ait.patientcare.service.PatientService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark for {@code POST /api/patients/bulk}.
+ * <p>
+ * Creates {@code -Dbenchmark.rows} patients (default 100,000) of
+ * {@link BenchmarkDataset} through {@link PatientBulkService} and a small
+ * sample one by one through {@link PatientService#createPatient}, on a private
+ * in-memory database, then logs rows/s for both paths.
+ * Run it explicitly:
+ * <pre>
+ * mvn test -Dtest=PatientBulkCreateIT -Dbenchmark.rows=100000
+ * </pre>
+ */
+@SpringBootTest(properties = {BenchmarkDataset.PRIVATE_DATABASE, "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+@DirtiesContext
+@DisplayName("Bulk create benchmark")
+@Slf4j
+class PatientBulkCreateIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int SINGLE_ROWS = Math.min(ROWS, 2_000);
+
+    @Autowired
+    private PatientBulkService patientBulkService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Bulk path vs. one-by-one createPatient")
+    void bulkCreate_throughput() {
+        long before = countPatients();
+        // Entries are generated lazily, like a request body read entry by entry
+        PatientBulkResult bulk = patientBulkService.createAll(IntStream.range(0, ROWS)
+                .mapToObj(BenchmarkDataset::patient)
+                .iterator());
+        long afterBulk = countPatients();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_ROWS; i++) {
+            patientService.createPatient(BenchmarkDataset.patient(ROWS + i));
+        }
+        double singleRowsPerSecond = SINGLE_ROWS / ((System.nanoTime() - start) / 1e9);
+
+        log.info("Bulk create: {} rows in {} ms -> {} rows/s",
+                bulk.total(), bulk.elapsedMillis(), String.format("%,.0f", bulk.rowsPerSecond()));
+        log.info("createPatient: {} rows -> {} rows/s (bulk is {}x faster)",
+                SINGLE_ROWS, String.format("%,.0f", singleRowsPerSecond),
+                String.format("%.1f", bulk.rowsPerSecond() / singleRowsPerSecond));
+
+        assertThat(bulk.created()).isEqualTo(ROWS);
+        assertThat(afterBulk - before).isEqualTo(ROWS);
+        assertThat(countPatients() - afterBulk).isEqualTo(SINGLE_ROWS);
+    }
+
+    private long countPatients() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients", Long.class);
+    }
+}
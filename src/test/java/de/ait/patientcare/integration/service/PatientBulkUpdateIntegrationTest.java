@@ -0,0 +1,113 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.dto.PatientBulkUpdate;
+import de.ait.patientcare.dto.PatientBulkUpdateResult;
+import de.ait.patientcare.dto.PatientSelection;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
+import de.ait.patientcare.service.PatientBulkUpdateService;
+import de.ait.patientcare.service.PatientService;
+import de.ait.patientcare.service.PatientStatisticsCounters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that set-based bulk updates bump versions, report counts and keep
+ * the patient cache and the statistics counters coherent.
+ */
+@SpringBootTest(properties = "app.bulk.chunk-size=2")
+@ActiveProfiles("test")
+class PatientBulkUpdateIntegrationTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1931, 4, 4);
+
+    @Autowired
+    private PatientBulkUpdateService bulkUpdateService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientStatisticsCounters statisticsCounters;
+
+    private Patient create(String insuranceNumber) {
+        Patient patient = patientService.createPatient(Patient.builder()
+                .firstName("Bulk")
+                .lastName("Update")
+                .dateOfBirth(BIRTH_DATE)
+                .gender(Gender.OTHER)
+                .insuranceNumber(insuranceNumber)
+                .bloodType(BloodType.AB_NEG)
+                .build());
+        // Warm the read-through cache, which must not serve the old state afterwards
+        patientService.getPatientById(patient.getId());
+        return patient;
+    }
+
+    private long count(Gender gender, BloodType bloodType) {
+        List<PatientStatisticsGroup> groups = statisticsCounters.aggregate(LocalDate.now(), List.of());
+        return groups.stream()
+                .filter(g -> g.gender() == gender && g.bloodType() == bloodType)
+                .mapToLong(PatientStatisticsGroup::count)
+                .sum();
+    }
+
+    @Test
+    @DisplayName("Bulk blood type correction and bulk soft delete over several chunks")
+    void updateAndSoftDelete_keepCachesCoherent() {
+        long otherAbNeg = count(Gender.OTHER, BloodType.AB_NEG);
+        long otherBPos = count(Gender.OTHER, BloodType.B_POS);
+        Patient first = create("BULK-UPD-1");
+        Patient second = create("BULK-UPD-2");
+        Patient third = create("BULK-UPD-3");
+        long active = patientRepository.countByDeletedFalse();
+
+        PatientBulkUpdateResult corrected = bulkUpdateService.update(new PatientBulkUpdate(
+                new PatientSelection(List.of(first.getId(), second.getId(), third.getId()), null, null, null, null),
+                BloodType.B_POS, null));
+
+        assertThat(corrected.matched()).isEqualTo(3);
+        assertThat(corrected.affected()).isEqualTo(3);
+        Patient reloaded = patientService.getPatientById(first.getId());
+        assertThat(reloaded.getBloodType()).isEqualTo(BloodType.B_POS);
+        assertThat(reloaded.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(count(Gender.OTHER, BloodType.AB_NEG)).isEqualTo(otherAbNeg);
+        assertThat(count(Gender.OTHER, BloodType.B_POS)).isEqualTo(otherBPos + 3);
+
+        PatientBulkUpdateResult unchanged = bulkUpdateService.update(new PatientBulkUpdate(
+                new PatientSelection(List.of(first.getId()), null, null, null, null), BloodType.B_POS, null));
+        assertThat(unchanged.matched()).isEqualTo(1);
+        assertThat(unchanged.affected()).isZero();
+
+        PatientBulkUpdateResult deleted = bulkUpdateService.softDelete(
+                new PatientSelection(null, Gender.OTHER, BloodType.B_POS, BIRTH_DATE, BIRTH_DATE));
+
+        assertThat(deleted.affected()).isEqualTo(3);
+        assertThat(patientRepository.countByDeletedFalse()).isEqualTo(active - 3);
+        assertThat(count(Gender.OTHER, BloodType.B_POS)).isEqualTo(otherBPos);
+        assertThatThrownBy(() -> patientService.getPatientById(second.getId()))
+                .hasMessage("Patient not found");
+    }
+
+    @Test
+    @DisplayName("An empty selection is rejected instead of touching every patient")
+    void softDelete_emptySelection_rejected() {
+        assertThatThrownBy(() -> bulkUpdateService.softDelete(new PatientSelection(List.of(), null, null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.dto.PatientBulkItemResult;
+import de.ait.patientcare.dto.PatientBulkResult;
+import de.ait.patientcare.dto.PatientDuplicateCandidate;
+import de.ait.patientcare.dto.PatientDuplicateRun;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.PatientBulkService;
+import de.ait.patientcare.service.PatientDuplicateDetector;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark for duplicate detection.
+ * <p>
+ * Creates {@code -Dbenchmark.rows} patients (default 100,000) of
+ * {@link BenchmarkDataset} on a private in-memory database, one percent of
+ * them registered a second time with a differently spelled last name or
+ * swapped birth day and month, runs {@link PatientDuplicateDetector#detect}
+ * and logs the time per phase. Run it explicitly:
+ * <pre>
+ * mvn test -Dtest=PatientDuplicateDetectionIT -Dbenchmark.rows=1000000
+ * </pre>
+ */
+@SpringBootTest(properties = {
+        BenchmarkDataset.PRIVATE_DATABASE,
+        "spring.jpa.show-sql=false",
+        "app.duplicates.max-results=" + Integer.MAX_VALUE
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@DisplayName("Duplicate detection benchmark")
+@Slf4j
+class PatientDuplicateDetectionIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int DUPLICATES = ROWS / 100;
+
+    @Autowired
+    private PatientBulkService patientBulkService;
+
+    @Autowired
+    private PatientDuplicateDetector duplicateDetector;
+
+    // The same person again: every other one with a spelling variant, the rest with day and month swapped
+    private static Patient duplicate(int i) {
+        Patient original = BenchmarkDataset.patient(i * 100L);
+        Patient.PatientBuilder copy = original.toBuilder()
+                .id(null)
+                // Numbers of the patients past the originals, so they are unused
+                .insuranceNumber(BenchmarkDataset.patient(ROWS + (long) i).getInsuranceNumber());
+        LocalDate dateOfBirth = original.getDateOfBirth();
+        if (i % 2 == 0) {
+            copy.lastName(original.getLastName().replace("ei", "ai").replace("mm", "m").replace("dt", "t"));
+        } else if (dateOfBirth.getDayOfMonth() <= 12 && dateOfBirth.getDayOfMonth() != dateOfBirth.getMonthValue()) {
+            copy.dateOfBirth(LocalDate.of(dateOfBirth.getYear(), dateOfBirth.getDayOfMonth(),
+                    dateOfBirth.getMonthValue()));
+        }
+        return copy.build();
+    }
+
+    @Test
+    @DisplayName("Blocking and parallel scoring over a large table")
+    void detect_findsInjectedDuplicates() {
+        PatientBulkResult created = patientBulkService.createAll(Stream.concat(
+                IntStream.range(0, ROWS).mapToObj(BenchmarkDataset::patient),
+                IntStream.range(0, DUPLICATES).mapToObj(PatientDuplicateDetectionIT::duplicate)).iterator());
+
+        PatientDuplicateRun run = duplicateDetector.detect();
+
+        log.info("Duplicate detection: {} patients, {} blocks ({} oversized), {} comparisons, {} candidates",
+                run.patients(), run.blocks(), run.oversizedBlocks(), run.comparisons(), run.candidates());
+        log.info("Phases (ms): {}", run.phaseMillis());
+
+        // Other candidates are different people who happen to look alike
+        Set<Long> duplicateIds = created.items().subList(ROWS, ROWS + DUPLICATES).stream()
+                .map(PatientBulkItemResult::id)
+                .collect(Collectors.toSet());
+        long found = duplicateDetector.getCandidates(null, Integer.MAX_VALUE).stream()
+                .map(PatientDuplicateCandidate::duplicateId)
+                .filter(duplicateIds::contains)
+                .distinct()
+                .count();
+        log.info("Injected duplicates found: {} of {}", found, DUPLICATES);
+
+        assertThat(run.state()).isEqualTo(PatientDuplicateRun.State.COMPLETED);
+        assertThat(run.comparisons()).isLessThan(run.patients() * 100);
+        assertThat(created.created()).isEqualTo(ROWS + DUPLICATES);
+        assertThat(found).isEqualTo(DUPLICATES);
+    }
+}
@@ -0,0 +1,123 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.integration.BenchmarkDataset;
+import de.ait.patientcare.service.PatientGroupCommitter;
+import de.ait.patientcare.service.PatientService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark for concurrent {@link PatientService#createPatient} with group commit.
+ * <p>
+ * {@code -Dbenchmark.threads} callers (default 64) create
+ * {@code -Dbenchmark.rows} patients (default 20,000) of {@link BenchmarkDataset}
+ * on a private in-memory database, and rows/s is logged.
+ * Run it once more with {@code -Dbenchmark.group-commit=false} for the
+ * one-transaction-per-request baseline:
+ * <pre>
+ * mvn test -Dtest=PatientGroupCommitIT -Dbenchmark.rows=20000
+ * mvn test -Dtest=PatientGroupCommitIT -Dbenchmark.rows=20000 -Dbenchmark.group-commit=false
+ * </pre>
+ */
+@SpringBootTest(properties = {
+        BenchmarkDataset.PRIVATE_DATABASE,
+        "spring.jpa.show-sql=false",
+        "app.group-commit.enabled=${benchmark.group-commit:true}"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@DisplayName("Group commit benchmark")
+@Slf4j
+class PatientGroupCommitIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientGroupCommitter groupCommitter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Concurrent createPatient throughput")
+    void createPatient_concurrentThroughput() throws Exception {
+        long before = countPatients();
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService callers = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                callers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < ROWS) {
+                        patientService.createPatient(BenchmarkDataset.patient(i));
+                    }
+                });
+            }
+        }
+        double rowsPerSecond = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        PatientGroupCommitter.Stats stats = groupCommitter.getStats();
+        log.info("createPatient ({}, {} callers): {} rows -> {} rows/s",
+                groupCommitter.isEnabled() ? "group commit" : "one transaction each",
+                THREADS, ROWS, String.format("%,.0f", rowsPerSecond));
+        log.info("Group commit: {} batches, {} requests per batch",
+                stats.batches(), String.format("%.1f", stats.averageBatchSize()));
+
+        assertThat(countPatients() - before).isEqualTo(ROWS);
+    }
+
+    @Test
+    @DisplayName("Concurrent callers with the same insurance number - exactly one wins")
+    void createPatient_sameNumber_oneWins() throws Exception {
+        String insuranceNumber = BenchmarkDataset.patient(ROWS).getInsuranceNumber();
+        List<Future<Patient>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                int n = i;
+                results.add(callers.submit(() -> patientService.createPatient(
+                        BenchmarkDataset.patient(ROWS + 1 + n).toBuilder().insuranceNumber(insuranceNumber).build())));
+            }
+        }
+
+        int created = 0;
+        int duplicates = 0;
+        for (Future<Patient> result : results) {
+            try {
+                assertThat(result.get().getId()).isNotNull();
+                created++;
+            } catch (ExecutionException e) {
+                // Without group commit a racing insert may only be stopped by the unique constraint
+                assertThat(e.getCause()).isInstanceOf(DataIntegrityViolationException.class);
+                duplicates++;
+            }
+        }
+        assertThat(created).isEqualTo(1);
+        assertThat(duplicates).isEqualTo(15);
+    }
+
+    private long countPatients() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients", Long.class);
+    }
+}
@@ -0,0 +1,155 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.dto.PatientImportStatus;
+import de.ait.patientcare.dto.PatientImportStatus.State;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.service.PatientImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs CSV imports through the whole pipeline with small batches, so several
+ * batches are in flight at once.
+ */
+@SpringBootTest(properties = {
+        "app.import.batch-size=50",
+        "app.import.queue-capacity=2",
+        "app.import.checkpoint-interval=PT0S"
+})
+@ActiveProfiles("test")
+class PatientImportServiceIntegrationTest {
+
+    private static final String HEADER = "first_name;last_name;date_of_birth;gender;insurance_number;blood_type\n";
+    private static final String PREFIX = "IMP-";
+
+    @TempDir
+    static Path importDirectory;
+
+    @DynamicPropertySource
+    static void importProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.import.directory", importDirectory::toString);
+    }
+
+    @Autowired
+    private PatientImportService importService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The in-memory database is shared with other test classes, so imported rows must not outlive a test
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM patients WHERE insurance_number LIKE ?", PREFIX + "%");
+    }
+
+    private static String rows(String prefix, int from, int to) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            csv.append("First").append(i).append(';').append("Last").append(i).append(";1980-01-01;FEMALE;")
+                    .append(prefix).append(i).append(";A_POS\n");
+        }
+        return csv.toString();
+    }
+
+    private PatientImportStatus awaitFinished(String id) throws Exception {
+        for (int i = 0; i < 300; i++) {
+            PatientImportStatus status = importService.getStatus(id);
+            if (status.state() != State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Import " + id + " did not finish");
+    }
+
+    private PatientImportStatus start(String csv) throws IOException {
+        return importService.start(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ';');
+    }
+
+    @Test
+    @DisplayName("Valid rows are inserted, bad and duplicate rows end up in the rejected file")
+    void start_importsAndRejects() throws Exception {
+        String csv = HEADER
+                + rows("IMP-A-", 0, 500)
+                + "Broken;Row;not-a-date;FEMALE;IMP-A-BAD1;A_POS\n"
+                + ";Nameless;1980-01-01;MALE;IMP-A-BAD2;O_POS\n"
+                + "Again;Zero;1980-01-01;MALE;IMP-A-0;O_POS\n"
+                + "\n"
+                + rows("IMP-A-", 500, 600);
+
+        PatientImportStatus status = awaitFinished(start(csv).id());
+
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.imported()).isEqualTo(600);
+        assertThat(status.rejected()).isEqualTo(3);
+        assertThat(status.checkpoint()).isEqualTo(603);
+        assertThat(patientRepository.existsByInsuranceNumber("IMP-A-599")).isTrue();
+        assertThat(patientRepository.existsByInsuranceNumber("IMP-A-BAD2")).isFalse();
+
+        List<String> rejected = Files.readAllLines(importService.getRejectedFile(status.id()));
+        assertThat(rejected).hasSize(4);
+        assertThat(rejected.get(0)).startsWith("record;reason;first_name");
+        assertThat(rejected.get(1)).startsWith("501;INVALID: dateOfBirth");
+        assertThat(rejected.get(2)).startsWith("502;INVALID: firstName");
+        assertThat(rejected.get(3)).startsWith("503;DUPLICATE");
+    }
+
+    @Test
+    @DisplayName("Resume skips the records before the checkpoint")
+    void resume_continuesAfterCheckpoint() throws Exception {
+        String id = UUID.randomUUID().toString();
+        Path source = importDirectory.resolve(id + ".csv");
+        Files.writeString(source, HEADER + rows("IMP-B-", 0, 300));
+        Files.writeString(importDirectory.resolve(id + ".checkpoint"), String.join("\n",
+                "source=" + source.toString().replace("\\", "\\\\"),
+                "delimiter=;", "records=200", "imported=200", "rejected=0", "rejectedBytes=0",
+                "state=RUNNING"));
+
+        assertThat(importService.getStatus(id).state()).isEqualTo(State.INTERRUPTED);
+
+        importService.resume(id);
+        PatientImportStatus status = awaitFinished(id);
+
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.imported()).isEqualTo(300);
+        assertThat(status.checkpoint()).isEqualTo(300);
+        assertThat(patientRepository.existsByInsuranceNumber("IMP-B-199")).isFalse();
+        assertThat(patientRepository.existsByInsuranceNumber("IMP-B-200")).isTrue();
+        assertThatThrownBy(() -> importService.resume(id))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already completed");
+    }
+
+    @Test
+    @DisplayName("A file without the required columns fails the import")
+    void start_missingColumns_fails() throws Exception {
+        PatientImportStatus status = awaitFinished(start("name;number\nA;1\n").id());
+
+        assertThat(status.state()).isEqualTo(State.FAILED);
+        assertThat(status.error()).contains("missing columns");
+    }
+}
@@ -0,0 +1,102 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.dto.PatientSearchPage;
+import de.ait.patientcare.dto.PatientView;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientSpecifications;
+import de.ait.patientcare.service.PatientSearchIndex;
+import de.ait.patientcare.service.PatientService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that searches answered by the in-memory index return the same
+ * patients as the JPQL path and follow writes through {@link PatientService}.
+ */
+@SpringBootTest(properties = "app.search.bitmap-index.enabled=true")
+@ActiveProfiles("test")
+class PatientSearchIndexIntegrationTest {
+
+    private static final PageRequest ALL_BY_ID = PageRequest.of(0, 500, Sort.by("id"));
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientSearchIndex searchIndex;
+
+    private List<Long> viaIndex(Gender gender, BloodType bloodType, Integer ageFrom, Integer ageTo) {
+        PatientSearchPage page = patientService.searchPatients(gender, bloodType, ageFrom, ageTo, ALL_BY_ID, true);
+        return page.items().stream().map(PatientView::id).toList();
+    }
+
+    // Same page as viaIndex, so both sides stop after the first 500 matches
+    private List<Long> viaDatabase(Gender gender, BloodType bloodType, Integer ageFrom, Integer ageTo) {
+        LocalDate today = LocalDate.now();
+        return patientRepository.findAll(PatientSpecifications.matching(gender, bloodType,
+                        ageFrom != null ? today.minusYears(ageFrom) : null,
+                        ageTo != null ? today.minusYears(ageTo) : null),
+                        ALL_BY_ID).stream()
+                .map(Patient::getId)
+                .toList();
+    }
+
+    @ParameterizedTest(name = "gender={0}, bloodType={1}, ageFrom={2}, ageTo={3}")
+    @CsvSource({
+            ",,,",
+            "MALE,,,",
+            "FEMALE,A_POS,,",
+            ",O_NEG,,",
+            ",,30,50",
+            "MALE,,40,",
+            "FEMALE,AB_POS,20,60"
+    })
+    @DisplayName("Index results match the JPQL search")
+    void search_matchesDatabase(Gender gender, BloodType bloodType, Integer ageFrom, Integer ageTo) {
+        assertThat(searchIndex.isReady()).isTrue();
+
+        assertThat(viaIndex(gender, bloodType, ageFrom, ageTo))
+                .isEqualTo(viaDatabase(gender, bloodType, ageFrom, ageTo));
+    }
+
+    @Test
+    @DisplayName("Index follows create, update and soft delete")
+    void search_followsServiceWrites() {
+        Patient created = patientService.createPatient(Patient.builder()
+                .firstName("Index")
+                .lastName("Check")
+                .dateOfBirth(LocalDate.now().minusYears(33))
+                .gender(Gender.OTHER)
+                .insuranceNumber("SEARCH-INDEX-IT-1")
+                .bloodType(BloodType.AB_NEG)
+                .build());
+        assertThat(viaIndex(Gender.OTHER, BloodType.AB_NEG, 30, 35)).contains(created.getId());
+
+        patientService.updatePatient(created.getId(), created.toBuilder()
+                .dateOfBirth(LocalDate.now().minusYears(70))
+                .build());
+        assertThat(viaIndex(Gender.OTHER, BloodType.AB_NEG, 30, 35)).doesNotContain(created.getId());
+        assertThat(viaIndex(Gender.OTHER, BloodType.AB_NEG, 65, 75)).contains(created.getId());
+
+        patientService.deletePatient(created.getId());
+        assertThat(viaIndex(Gender.OTHER, null, null, null)).doesNotContain(created.getId());
+    }
+}
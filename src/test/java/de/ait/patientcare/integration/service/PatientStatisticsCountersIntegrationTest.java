@@ -0,0 +1,82 @@
+package de.ait.patientcare.integration.service;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
+import de.ait.patientcare.service.PatientService;
+import de.ait.patientcare.service.PatientStatisticsCounters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that writes through {@link PatientService} reach the in-memory
+ * statistics counters via the JPA entity listener after commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientStatisticsCountersIntegrationTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1930, 3, 3);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientStatisticsCounters statisticsCounters;
+
+    private long count(Gender gender, BloodType bloodType) {
+        List<PatientStatisticsGroup> groups = statisticsCounters.aggregate(LocalDate.now(), List.of());
+        return groups.stream()
+                .filter(g -> g.gender() == gender && g.bloodType() == bloodType)
+                .mapToLong(PatientStatisticsGroup::count)
+                .sum();
+    }
+
+    @Test
+    @DisplayName("Counters follow create, update and soft delete")
+    void counters_followServiceWrites() {
+        assertThat(statisticsCounters.isReady()).isTrue();
+        long otherAbNeg = count(Gender.OTHER, BloodType.AB_NEG);
+        long femaleBNeg = count(Gender.FEMALE, BloodType.B_NEG);
+
+        Patient created = patientService.createPatient(Patient.builder()
+                .firstName("Counter")
+                .lastName("Check")
+                .dateOfBirth(BIRTH_DATE)
+                .gender(Gender.OTHER)
+                .insuranceNumber("COUNTERS-IT-1")
+                .bloodType(BloodType.AB_NEG)
+                .build());
+        assertThat(count(Gender.OTHER, BloodType.AB_NEG)).isEqualTo(otherAbNeg + 1);
+
+        patientService.updatePatient(created.getId(), created.toBuilder()
+                .gender(Gender.FEMALE)
+                .bloodType(BloodType.B_NEG)
+                .build());
+        assertThat(count(Gender.OTHER, BloodType.AB_NEG)).isEqualTo(otherAbNeg);
+        assertThat(count(Gender.FEMALE, BloodType.B_NEG)).isEqualTo(femaleBNeg + 1);
+
+        patientService.deletePatient(created.getId());
+        assertThat(count(Gender.FEMALE, BloodType.B_NEG)).isEqualTo(femaleBNeg);
+    }
+
+    @Test
+    @DisplayName("Statistics from counters match the aggregate query after a rebuild")
+    void counters_matchDatabaseAfterRebuild() {
+        statisticsCounters.rebuild();
+
+        var statistics = patientService.getStatistics();
+
+        assertThat(statistics.get("totalPatients")).isEqualTo(
+                (long) patientService.getAllPatients().size());
+    }
+}
@@ -0,0 +1,71 @@
+package de.ait.patientcare.unit.config;
+
+import de.ait.patientcare.config.HibernateCacheStatistics;
+import de.ait.patientcare.entity.Patient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HibernateCacheStatisticsTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    private HibernateCacheStatistics cacheStatistics;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        cacheStatistics = new HibernateCacheStatistics(entityManagerFactory);
+    }
+
+    @Test
+    @DisplayName("Second-level cache off - no regions, unknown region not looked up")
+    void regions_cacheDisabled_empty() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+
+        assertThat(cacheStatistics.regions()).isEmpty();
+        cacheStatistics.logStats();
+        verify(statistics, never()).getDomainDataRegionStatistics(any());
+    }
+
+    @Test
+    @DisplayName("Second-level cache on - counters of the patient region")
+    void regions_cacheEnabled_patientRegion() {
+        CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+        when(region.getHitCount()).thenReturn(3L);
+        when(region.getMissCount()).thenReturn(1L);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{Patient.CACHE_REGION});
+        when(statistics.getDomainDataRegionStatistics(Patient.CACHE_REGION)).thenReturn(region);
+
+        assertThat(cacheStatistics.regions())
+                .singleElement()
+                .satisfies(stats -> {
+                    assertThat(stats.region()).isEqualTo(Patient.CACHE_REGION);
+                    assertThat(stats.hitRatio()).isEqualTo(0.75);
+                });
+    }
+}
@@ -0,0 +1,102 @@
+package de.ait.patientcare.unit.config;
+
+import de.ait.patientcare.config.LatencyHistogramFilter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramFilterTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        LatencyHistogramFilter filter = new LatencyHistogramFilter(
+                new LatencyHistogramFilter.Distribution(List.of(0.5, 0.99),
+                        List.of(Duration.ofMillis(10), Duration.ofMillis(100)), false),
+                Map.of(
+                        "/api/patients/search", new LatencyHistogramFilter.Distribution(
+                                List.of(0.999), null, null),
+                        "PUT /api/patients/{id}", new LatencyHistogramFilter.Distribution(
+                                null, List.of(Duration.ofSeconds(1)), null),
+                        "PatientRepository.findViewPage", new LatencyHistogramFilter.Distribution(
+                                List.of(0.9), null, null)),
+                Duration.ofMinutes(2));
+        registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(filter);
+    }
+
+    private HistogramSnapshot record(String name, String... tags) {
+        Timer timer = Timer.builder(name).tags(tags).register(registry);
+        timer.record(5, TimeUnit.MILLISECONDS);
+        timer.record(50, TimeUnit.MILLISECONDS);
+        return timer.takeSnapshot();
+    }
+
+    private static double[] percentiles(HistogramSnapshot snapshot) {
+        return Arrays.stream(snapshot.percentileValues()).mapToDouble(ValueAtPercentile::percentile).toArray();
+    }
+
+    private static double[] bucketsMillis(HistogramSnapshot snapshot) {
+        return Arrays.stream(snapshot.histogramCounts()).mapToDouble(b -> b.bucket(TimeUnit.MILLISECONDS)).toArray();
+    }
+
+    @Test
+    @DisplayName("Endpoint without override - default percentiles and SLO buckets")
+    void configure_defaults() {
+        HistogramSnapshot snapshot = record(LatencyHistogramFilter.HTTP_TIMER,
+                "uri", "/api/patients/{id}", "method", "GET");
+
+        assertThat(percentiles(snapshot)).containsExactly(0.5, 0.99);
+        assertThat(bucketsMillis(snapshot)).containsExactly(10.0, 100.0);
+        assertThat(snapshot.histogramCounts()).extracting(CountAtBucket::count).containsExactly(1.0, 2.0);
+    }
+
+    @Test
+    @DisplayName("Override by uri or method and uri - only the fields it sets")
+    void configure_endpointOverrides() {
+        HistogramSnapshot search = record(LatencyHistogramFilter.HTTP_TIMER,
+                "uri", "/api/patients/search", "method", "GET");
+        HistogramSnapshot update = record(LatencyHistogramFilter.HTTP_TIMER,
+                "uri", "/api/patients/{id}", "method", "PUT");
+
+        assertThat(percentiles(search)).containsExactly(0.999);
+        assertThat(bucketsMillis(search)).containsExactly(10.0, 100.0);
+        assertThat(percentiles(update)).containsExactly(0.5, 0.99);
+        assertThat(bucketsMillis(update)).containsExactly(1000.0);
+    }
+
+    @Test
+    @DisplayName("Service and repository timers keyed by simple class name and method")
+    void configure_methodTimers() {
+        HistogramSnapshot service = record(LatencyHistogramFilter.SERVICE_TIMER,
+                "class", "de.ait.patientcare.service.PatientService", "method", "searchPatients");
+        HistogramSnapshot repository = record(LatencyHistogramFilter.REPOSITORY_TIMER,
+                "repository", "PatientRepository", "method", "findViewPage");
+
+        assertThat(percentiles(service)).containsExactly(0.5, 0.99);
+        assertThat(percentiles(repository)).containsExactly(0.9);
+    }
+
+    @Test
+    @DisplayName("Other timers are left alone")
+    void configure_otherTimers_unchanged() {
+        HistogramSnapshot snapshot = record("jvm.gc.pause", "action", "end of minor GC");
+
+        assertThat(snapshot.percentileValues()).isEmpty();
+        assertThat(snapshot.histogramCounts()).isEmpty();
+    }
+}
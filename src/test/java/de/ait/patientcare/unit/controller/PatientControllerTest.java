@@ -0,0 +1,78 @@
+package de.ait.patientcare.unit.controller;
+
+import de.ait.patientcare.controller.PatientController;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.service.PatientBulkService;
+import de.ait.patientcare.service.PatientBulkUpdateService;
+import de.ait.patientcare.service.PatientExportService;
+import de.ait.patientcare.service.PatientService;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PatientControllerTest {
+
+    @Mock
+    private PatientService patientService;
+
+    @Mock
+    private PatientExportService patientExportService;
+
+    @Mock
+    private PatientBulkService patientBulkService;
+
+    @Mock
+    private PatientBulkUpdateService patientBulkUpdateService;
+
+    private PatientController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new PatientController(patientService, patientExportService, patientBulkService,
+                patientBulkUpdateService);
+    }
+
+    @Test
+    @DisplayName("Update - stale If-Match version answers 412")
+    void update_staleIfMatch_returns412() {
+        when(patientService.updatePatient(eq(1L), any(Patient.class), eq(List.of(2L))))
+                .thenThrow(new OptimisticLockException("Patient was modified (version 3)"));
+
+        assertThat(controller.update(1L, new Patient(), "\"2\"").getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @DisplayName("Update - concurrent write detected at commit answers 412, not 404")
+    void update_concurrentWriteAtCommit_returns412() {
+        when(patientService.updatePatient(eq(1L), any(Patient.class), eq(List.of(2L))))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Patient.class, 1L));
+
+        assertThat(controller.update(1L, new Patient(), "\"2\"").getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @DisplayName("Update - unknown patient answers 404")
+    void update_unknownPatient_returns404() {
+        when(patientService.updatePatient(eq(1L), any(Patient.class), eq(null)))
+                .thenThrow(new RuntimeException("Patient not found"));
+
+        assertThat(controller.update(1L, new Patient(), null).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
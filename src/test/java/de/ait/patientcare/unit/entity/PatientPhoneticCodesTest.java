@@ -0,0 +1,59 @@
+package de.ait.patientcare.unit.entity;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientPhoneticCodes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientPhoneticCodesTest {
+
+    @Test
+    @DisplayName("Koelner Phonetik - German spelling variants share one code")
+    void cologne_spellingVariants() {
+        assertThat(PatientPhoneticCodes.cologne("Meier")).isEqualTo("67");
+        assertThat(PatientPhoneticCodes.cologne("Mayer")).isEqualTo("67");
+        assertThat(PatientPhoneticCodes.cologne("Maier")).isEqualTo("67");
+        assertThat(PatientPhoneticCodes.cologne("Müller")).isEqualTo(PatientPhoneticCodes.cologne("Mueller"));
+        assertThat(PatientPhoneticCodes.cologne("Schmidt")).isNotEqualTo(PatientPhoneticCodes.cologne("Meier"));
+    }
+
+    @Test
+    @DisplayName("Double Metaphone - primary or alternate codes overlap for variants")
+    void metaphone_primaryAndAlternate() {
+        assertThat(PatientPhoneticCodes.metaphone("Meier")).isEqualTo(PatientPhoneticCodes.metaphone("Mayer"));
+        assertThat(PatientPhoneticCodes.metaphone("Müller")).isEqualTo(PatientPhoneticCodes.metaphone("Muller"));
+
+        Set<String> smith = Set.of(PatientPhoneticCodes.metaphone("Smith"),
+                PatientPhoneticCodes.metaphoneAlternate("Smith"));
+        Set<String> schmidt = Set.of(PatientPhoneticCodes.metaphone("Schmidt"),
+                PatientPhoneticCodes.metaphoneAlternate("Schmidt"));
+        assertThat(smith).containsAnyElementsOf(schmidt);
+    }
+
+    @Test
+    @DisplayName("Names without letters have empty codes")
+    void codes_noLetters_empty() {
+        assertThat(PatientPhoneticCodes.cologne("--")).isEmpty();
+        assertThat(PatientPhoneticCodes.metaphone("123")).isEmpty();
+        assertThat(PatientPhoneticCodes.cologne(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Codes are applied to all six patient columns")
+    void applyTo_setsAllCodes() {
+        Patient patient = Patient.builder().firstName("Hans").lastName("Maier").build();
+
+        PatientPhoneticCodes.of(patient.getFirstName(), patient.getLastName()).applyTo(patient);
+
+        assertThat(patient.getFirstNameCologne()).isEqualTo(PatientPhoneticCodes.cologne("Hanns"));
+        assertThat(patient.getLastNameCologne()).isEqualTo("67");
+        assertThat(patient.getFirstNameMetaphone()).isEqualTo("HNS");
+        assertThat(patient.getFirstNameMetaphoneAlt()).isEqualTo("HNS");
+        assertThat(patient.getLastNameMetaphone()).isEqualTo("MR");
+        assertThat(patient.getLastNameMetaphoneAlt()).isEqualTo("MR");
+    }
+}
@@ -0,0 +1,121 @@
+package de.ait.patientcare.unit.generator;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientPhoneticCodes;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.generator.PatientDatasetGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Period;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatientDatasetGeneratorTest {
+
+    private static final int SAMPLE = 100_000;
+
+    private final PatientDatasetGenerator generator = new PatientDatasetGenerator(42);
+
+    private List<Patient> sample() {
+        return LongStream.range(0, SAMPLE).mapToObj(generator::patient).toList();
+    }
+
+    private static <T> Map<T, Double> shares(List<Patient> patients, Function<Patient, T> key) {
+        return patients.stream().collect(Collectors.groupingBy(key,
+                Collectors.collectingAndThen(Collectors.counting(), n -> (double) n / patients.size())));
+    }
+
+    @Test
+    @DisplayName("Same seed and index - same patient, independent of order")
+    void patient_deterministic() {
+        Patient late = generator.patient(12_345);
+        Patient early = new PatientDatasetGenerator(42).patient(0);
+
+        assertThat(new PatientDatasetGenerator(42).patient(12_345))
+                .usingRecursiveComparison().isEqualTo(late);
+        assertThat(generator.patient(0)).usingRecursiveComparison().isEqualTo(early);
+        assertThat(new PatientDatasetGenerator(43).patient(12_345).getInsuranceNumber())
+                .isNotEqualTo(late.getInsuranceNumber());
+    }
+
+    @Test
+    @DisplayName("Insurance numbers - unique, letter plus nine digits")
+    void insuranceNumber_uniqueAndFormatted() {
+        Set<String> numbers = new HashSet<>();
+        for (Patient patient : sample()) {
+            assertThat(patient.getInsuranceNumber()).matches("[A-Z][0-9]{9}");
+            numbers.add(patient.getInsuranceNumber());
+        }
+
+        assertThat(numbers).hasSize(SAMPLE);
+    }
+
+    @Test
+    @DisplayName("Distributions - gender, blood type and age close to the configured shares")
+    void patient_realisticDistributions() {
+        List<Patient> patients = sample();
+
+        Map<Gender, Double> genders = shares(patients, Patient::getGender);
+        assertThat(genders.get(Gender.FEMALE)).isBetween(0.49, 0.52);
+        assertThat(genders.get(Gender.MALE)).isBetween(0.48, 0.51);
+        assertThat(genders.get(Gender.OTHER)).isLessThan(0.005);
+
+        Map<BloodType, Double> bloodTypes = shares(patients, Patient::getBloodType);
+        assertThat(bloodTypes.get(BloodType.A_POS)).isBetween(0.36, 0.38);
+        assertThat(bloodTypes.get(BloodType.AB_NEG)).isBetween(0.005, 0.015);
+
+        Map<Integer, Double> ageBands = shares(patients, p -> Period.between(p.getDateOfBirth(),
+                PatientDatasetGenerator.REFERENCE_DATE).getYears() / 10);
+        assertThat(ageBands.get(5)).isBetween(0.15, 0.165);
+        assertThat(ageBands.get(9)).isBetween(0.009, 0.015);
+        assertThat(patients).allMatch(p -> p.getDateOfBirth().isBefore(PatientDatasetGenerator.REFERENCE_DATE));
+
+        // Zipf-like names: the most frequent last name is common, but far from all patients
+        assertThat(shares(patients, Patient::getLastName).get("Müller")).isBetween(0.04, 0.12);
+    }
+
+    @Test
+    @DisplayName("Phonetic codes match the ones the entity would compute")
+    void patient_phoneticCodes() {
+        Patient patient = generator.patient(7);
+        PatientPhoneticCodes expected = PatientPhoneticCodes.of(patient.getFirstName(), patient.getLastName());
+
+        assertThat(patient.getFirstNameCologne()).isEqualTo(expected.firstNameCologne());
+        assertThat(patient.getLastNameMetaphone()).isEqualTo(expected.lastNameMetaphone());
+        assertThat(patient.getLastNameMetaphoneAlt()).isEqualTo(expected.lastNameMetaphoneAlt());
+        assertThat(patient.getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("CSV - header plus one line per patient, identical on every run")
+    void writeCsv_reproducible() throws IOException {
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        generator.writeCsv(first, 100, 200);
+        new PatientDatasetGenerator(42).writeCsv(second, 100, 200);
+
+        assertThat(first.toString()).isEqualTo(second.toString());
+        List<String> lines = first.toString().lines().toList();
+        assertThat(lines).hasSize(101);
+        assertThat(lines.get(0)).isEqualTo("first_name,last_name,date_of_birth,gender,insurance_number,blood_type");
+        assertThat(lines.get(1)).contains(generator.patient(100).getInsuranceNumber());
+    }
+
+    @Test
+    @DisplayName("Negative index - rejected")
+    void patient_negativeIndex_throws() {
+        assertThatThrownBy(() -> generator.patient(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -37,6 +37,18 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).containsEntry("error", errorMessage);
     }
 
+    @Test
+    @DisplayName("Handle illegal argument exception - returns bad request")
+    void handleIllegalArgument_returnsBadRequest() {
+        // When
+        ResponseEntity<Map<String, String>> response =
+                exceptionHandler.handleIllegalArgument(new IllegalArgumentException("Invalid cursor"));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("error", "Invalid cursor");
+    }
+
     @Test
     @DisplayName("Handle optimistic lock exception - returns conflict with specific message")
     void handleOptimisticLockException_returnsConflictWithSpecificMessage() {
@@ -0,0 +1,109 @@
+package de.ait.patientcare.unit.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.ait.patientcare.dto.PatientView;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.json.PatientJsonSerializers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientJsonSerializersTest {
+
+    // Spring Boot's defaults, with and without the hand-written serializers
+    private final ObjectMapper beanMapper = mapper(false);
+    private final ObjectMapper customMapper = mapper(true);
+
+    private static ObjectMapper mapper(boolean custom) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (custom) {
+            builder.serializers(new PatientJsonSerializers.PatientSerializer(),
+                    new PatientJsonSerializers.PatientViewSerializer());
+        }
+        return builder.build();
+    }
+
+    private static Patient patient(LocalDateTime createdAt) {
+        return Patient.builder()
+                .id(42L)
+                .firstName("Jürgen \"Jo\"")
+                .lastName("Müller-Lüdenscheidt")
+                .dateOfBirth(LocalDate.of(1985, 4, 2))
+                .gender(Gender.MALE)
+                .insuranceNumber("A123456780")
+                .bloodType(BloodType.AB_NEG)
+                .createdAt(createdAt)
+                .version(3L)
+                .firstNameCologne("0746")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Patient - exact output of the bean serializer, ignored fields left out")
+    void serialize_patient_matchesBeanSerializer() throws Exception {
+        Patient patient = patient(LocalDateTime.of(2025, 1, 1, 9, 5, 7, 123_456_000));
+
+        String json = customMapper.writeValueAsString(patient);
+
+        assertThat(json).isEqualTo(beanMapper.writeValueAsString(patient));
+        assertThat(json).isEqualTo("{\"id\":42,\"firstName\":\"Jürgen \\\"Jo\\\"\","
+                + "\"lastName\":\"Müller-Lüdenscheidt\",\"dateOfBirth\":\"1985-04-02\",\"gender\":\"MALE\","
+                + "\"insuranceNumber\":\"A123456780\",\"bloodType\":\"AB_NEG\","
+                + "\"createdAt\":\"2025-01-01T09:05:07.123456\",\"version\":3}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 10, 100_000_000, 120_000_000, 999_999_999})
+    @DisplayName("Fractions of a second - trailing zeros dropped like ISO_LOCAL_DATE_TIME")
+    void serialize_nanos_matchBeanSerializer(int nanos) throws Exception {
+        Patient patient = patient(LocalDateTime.of(2024, 12, 31, 23, 59, 0, nanos));
+
+        assertThat(customMapper.writeValueAsString(patient)).isEqualTo(beanMapper.writeValueAsString(patient));
+    }
+
+    @Test
+    @DisplayName("Nulls and years outside 0..9999 - same output as the bean serializer")
+    void serialize_nullsAndLargeYears_matchBeanSerializer() throws Exception {
+        Patient empty = new Patient();
+        Patient farFuture = patient(LocalDateTime.of(12025, 1, 1, 0, 0));
+        farFuture.setDateOfBirth(LocalDate.of(-5, 6, 7));
+
+        assertThat(customMapper.writeValueAsString(empty)).isEqualTo(beanMapper.writeValueAsString(empty));
+        assertThat(customMapper.writeValueAsString(farFuture)).isEqualTo(beanMapper.writeValueAsString(farFuture));
+    }
+
+    @Test
+    @DisplayName("PatientView list - same objects as serialized patients")
+    void serialize_views_matchPatients() throws Exception {
+        Patient patient = patient(LocalDateTime.of(2025, 3, 4, 5, 6, 7));
+        List<PatientView> views = List.of(PatientView.of(patient), PatientView.of(new Patient()));
+
+        String json = customMapper.writeValueAsString(views);
+
+        assertThat(json).isEqualTo(beanMapper.writeValueAsString(views));
+        assertThat(json).startsWith("[" + customMapper.writeValueAsString(patient) + ",");
+    }
+
+    @Test
+    @DisplayName("Dates as timestamps enabled - delegated to the date serializers")
+    void serialize_timestampsEnabled_matchesBeanSerializer() throws Exception {
+        Patient patient = patient(LocalDateTime.of(2025, 1, 1, 9, 5, 7));
+
+        assertThat(customMapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValueAsString(patient))
+                .isEqualTo(beanMapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .writeValueAsString(patient));
+    }
+}
@@ -0,0 +1,87 @@
+package de.ait.patientcare.unit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import de.ait.patientcare.logging.CountingAsyncAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingAsyncAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("test");
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CountingAsyncAppender appender;
+
+    // Blocks the worker thread on the first event, so the queue fills up
+    private final AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<>() {
+        @Override
+        protected void append(ILoggingEvent event) {
+            writing.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        // Events read the MDC through their context's adapter, which a bare LoggerContext lacks
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        slowAppender.setContext(context);
+        slowAppender.start();
+        appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(10);
+        appender.setDiscardingThreshold(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(slowAppender);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    private void log(Level level) {
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, level, "event", null, null));
+    }
+
+    @Test
+    @DisplayName("Nearly full queue discards INFO, full queue drops everything - both counted")
+    void append_countsLostEvents() throws InterruptedException {
+        CountingAsyncAppender.Stats before = CountingAsyncAppender.stats();
+        log(Level.WARN);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 9; i++) {
+            log(Level.WARN);
+        }
+        log(Level.INFO);
+        log(Level.WARN);
+        log(Level.ERROR);
+        log(Level.ERROR);
+
+        CountingAsyncAppender.Stats after = CountingAsyncAppender.stats();
+        assertThat(after.discarded() - before.discarded()).isEqualTo(1);
+        assertThat(after.dropped() - before.dropped()).isEqualTo(2);
+        assertThat(after.queued()).isGreaterThanOrEqualTo(10);
+    }
+}
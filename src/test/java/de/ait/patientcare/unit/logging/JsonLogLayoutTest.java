@@ -0,0 +1,66 @@
+package de.ait.patientcare.unit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.patientcare.logging.JsonLogLayout;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLogLayoutTest {
+
+    private final Logger logger = context().getLogger("de.ait.patientcare.service.PatientService");
+    private final JsonLogLayout layout = new JsonLogLayout();
+
+    // Events read the MDC through their context's adapter, which a bare LoggerContext lacks
+    private static LoggerContext context() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        return context;
+    }
+
+    private JsonNode layout(LoggingEvent event) throws Exception {
+        String line = layout.doLayout(event);
+        assertThat(line).endsWith(System.lineSeparator());
+        assertThat(line.strip()).doesNotContain("\n");
+        return new ObjectMapper().readTree(line);
+    }
+
+    @Test
+    @DisplayName("Event - one JSON line with formatted message and MDC fields")
+    void doLayout_fieldsAndMdc() throws Exception {
+        LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, Level.INFO,
+                "Fetching patient by ID: {}", null, new Object[]{42L});
+        event.setMDCPropertyMap(Map.of("requestId", "9f86d081884c7d65", "sampled", "true"));
+        event.setTimeStamp(1_735_725_600_123L);
+
+        JsonNode json = layout(event);
+
+        assertThat(json.get("timestamp").asText()).isEqualTo("2025-01-01T10:00:00.123Z");
+        assertThat(json.get("level").asText()).isEqualTo("INFO");
+        assertThat(json.get("logger").asText()).isEqualTo("de.ait.patientcare.service.PatientService");
+        assertThat(json.get("message").asText()).isEqualTo("Fetching patient by ID: 42");
+        assertThat(json.get("requestId").asText()).isEqualTo("9f86d081884c7d65");
+        assertThat(json.has("exception")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Quotes, line breaks and exceptions - escaped inside the line")
+    void doLayout_escapingAndException() throws Exception {
+        LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, Level.ERROR,
+                "Import failed for \"{}\"\nsee below", new IllegalStateException("boom"), new Object[]{"a;b"});
+
+        JsonNode json = layout(event);
+
+        assertThat(json.get("message").asText()).isEqualTo("Import failed for \"a;b\"\nsee below");
+        assertThat(json.get("exception").asText()).contains("java.lang.IllegalStateException: boom");
+    }
+}
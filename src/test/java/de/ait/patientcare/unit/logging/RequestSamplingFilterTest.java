@@ -0,0 +1,46 @@
+package de.ait.patientcare.unit.logging;
+
+import de.ait.patientcare.logging.RequestSamplingFilter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestSamplingFilterTest {
+
+    private Map<String, String> filter(double sampleRate, MockHttpServletRequest request) throws Exception {
+        Map<String, String> mdc = new HashMap<>();
+        FilterChain chain = (req, res) -> mdc.putAll(MDC.getCopyOfContextMap());
+        new RequestSamplingFilter(sampleRate).doFilter(request, new MockHttpServletResponse(), chain);
+        return mdc;
+    }
+
+    @Test
+    @DisplayName("Rate 0 - request not sampled, MDC cleared afterwards")
+    void doFilter_rateZero_notSampled() throws Exception {
+        Map<String, String> mdc = filter(0.0, new MockHttpServletRequest("GET", "/api/patients/1"));
+
+        assertThat(mdc).containsEntry(RequestSamplingFilter.SAMPLED_KEY, "false");
+        assertThat(mdc.get(RequestSamplingFilter.REQUEST_ID_KEY)).hasSize(16);
+        assertThat(MDC.get(RequestSamplingFilter.SAMPLED_KEY)).isNull();
+        assertThat(MDC.get(RequestSamplingFilter.REQUEST_ID_KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("Rate 1 or forced by header - request sampled")
+    void doFilter_rateOneOrForced_sampled() throws Exception {
+        MockHttpServletRequest forced = new MockHttpServletRequest("GET", "/api/patients/1");
+        forced.addHeader(RequestSamplingFilter.FORCE_HEADER, "true");
+
+        assertThat(filter(1.0, new MockHttpServletRequest("GET", "/api/patients/1")))
+                .containsEntry(RequestSamplingFilter.SAMPLED_KEY, "true");
+        assertThat(filter(0.0, forced)).containsEntry(RequestSamplingFilter.SAMPLED_KEY, "true");
+    }
+}
@@ -0,0 +1,78 @@
+package de.ait.patientcare.unit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import de.ait.patientcare.logging.RequestSamplingFilter;
+import de.ait.patientcare.logging.RequestSamplingTurboFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestSamplingTurboFilterTest {
+
+    private RequestSamplingTurboFilter filter;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestSamplingTurboFilter();
+        logger = new LoggerContext().getLogger("de.ait.patientcare.service.PatientService");
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    private FilterReply decide(Level level) {
+        return filter.decide(null, logger, level, "Fetching patient by ID: {}", new Object[]{1L}, null);
+    }
+
+    @Test
+    @DisplayName("Unsampled request - INFO denied and counted, WARN and ERROR pass")
+    void decide_unsampledRequest() {
+        MDC.put(RequestSamplingFilter.SAMPLED_KEY, "false");
+        long before = RequestSamplingTurboFilter.sampledOut();
+
+        assertThat(decide(Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(Level.ERROR)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(RequestSamplingTurboFilter.sampledOut() - before).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sampled request or no request - everything passes")
+    void decide_sampledOrOutsideRequest() {
+        assertThat(decide(Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+
+        MDC.put(RequestSamplingFilter.SAMPLED_KEY, "true");
+        assertThat(decide(Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Level disabled anyway - left to Logback, not counted")
+    void decide_disabledLevel_notCounted() {
+        MDC.put(RequestSamplingFilter.SAMPLED_KEY, "false");
+        long before = RequestSamplingTurboFilter.sampledOut();
+
+        assertThat(decide(Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(RequestSamplingTurboFilter.sampledOut()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("alwaysLevel ERROR - WARN of unsampled requests denied too")
+    void decide_alwaysLevelError() {
+        filter.setAlwaysLevel("ERROR");
+        MDC.put(RequestSamplingFilter.SAMPLED_KEY, "false");
+
+        assertThat(decide(Level.WARN)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(Level.ERROR)).isEqualTo(FilterReply.NEUTRAL);
+    }
+}
@@ -0,0 +1,98 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.service.CsvRecordReader;
+import de.ait.patientcare.service.PatientCsvFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    private static List<List<String>> readAll(String csv, char delimiter) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv), delimiter, 1_000)) {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("Quoted fields may contain delimiters, quotes and line breaks")
+    void next_quotedFields() throws IOException {
+        List<List<String>> records = readAll("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"multi\nline\",,x\n", ',');
+
+        assertThat(records).containsExactly(
+                List.of("a", "b,c", "say \"hi\""),
+                List.of("multi\nline", "", "x"));
+    }
+
+    @Test
+    @DisplayName("Last record without line break and custom delimiter")
+    void next_noTrailingNewline() throws IOException {
+        assertThat(readAll("a;b\nc;d", ';')).containsExactly(List.of("a", "b"), List.of("c", "d"));
+    }
+
+    @Test
+    @DisplayName("Unterminated quote fails instead of reading the rest of the file")
+    void next_unterminatedQuote_fails() {
+        assertThatThrownBy(() -> readAll("a,\"b" + "x".repeat(2_000), ','))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Record 1");
+    }
+
+    @Test
+    @DisplayName("format quotes only where needed and reads back unchanged")
+    void format_roundTrip() throws IOException {
+        List<String> fields = List.of("plain", "with,comma", "with \"quote\"", "two\nlines");
+
+        String line = CsvRecordReader.format(fields, ',');
+
+        assertThat(line).startsWith("plain,\"with,comma\",");
+        assertThat(readAll(line, ',')).containsExactly(fields);
+    }
+
+    @Test
+    @DisplayName("PatientCsvFormat - maps columns by normalized header name")
+    void patientCsvFormat_mapsByHeader() {
+        PatientCsvFormat format = new PatientCsvFormat(
+                List.of("\uFEFFInsurance Number", "first_name", "lastName", "Date-Of-Birth", "GENDER", "blood_type", "notes"));
+
+        Patient patient = format.toPatient(List.of(" INS1 ", "Anna", "Schmidt", "15.06.1985", "female", "ab_neg", "x"));
+
+        assertThat(patient.getInsuranceNumber()).isEqualTo("INS1");
+        assertThat(patient.getFirstName()).isEqualTo("Anna");
+        assertThat(patient.getDateOfBirth()).isEqualTo(LocalDate.of(1985, 6, 15));
+        assertThat(patient.getGender()).isEqualTo(Gender.FEMALE);
+        assertThat(patient.getBloodType()).isEqualTo(BloodType.AB_NEG);
+    }
+
+    @Test
+    @DisplayName("PatientCsvFormat - bad values and missing columns are rejected")
+    void patientCsvFormat_rejects() {
+        PatientCsvFormat format = new PatientCsvFormat(
+                List.of("first_name", "last_name", "date_of_birth", "gender", "insurance_number", "blood_type"));
+
+        assertThatThrownBy(() -> format.toPatient(List.of("A", "B", "1985-13-01", "MALE", "I", "O_POS")))
+                .hasMessageContaining("dateOfBirth");
+        assertThatThrownBy(() -> format.toPatient(List.of("A", "B", "1985-01-01", "MAN", "I", "O_POS")))
+                .hasMessageContaining("gender");
+        assertThat(format.toPatient(List.of("A", "", "1985-01-01")).getLastName()).isNull();
+        assertThatThrownBy(() -> new PatientCsvFormat(List.of("first_name", "last_name")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("insurancenumber");
+    }
+}
@@ -0,0 +1,126 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.service.InsuranceNumberFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class InsuranceNumberFilterTest {
+
+    @Mock
+    private PatientJdbcRepository jdbcRepository;
+
+    private InsuranceNumberFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new InsuranceNumberFilter(jdbcRepository, true, 10_000, 0.01);
+    }
+
+    private void givenNumbers(String... numbers) {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            for (String number : numbers) {
+                consumer.accept(number);
+            }
+            return null;
+        }).when(jdbcRepository).streamInsuranceNumbers(any());
+    }
+
+    private static PatientChangedEvent created(String insuranceNumber) {
+        return new PatientChangedEvent(null, new PatientSnapshot(1L, "John", "Doe", LocalDate.of(1990, 1, 1),
+                Gender.MALE, insuranceNumber, BloodType.O_POS, 0L, false));
+    }
+
+    @Test
+    @DisplayName("Before the first build nothing is ruled out")
+    void isDefinitelyAbsent_notBuilt_false() {
+        assertThat(filter.isDefinitelyAbsent("INS1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Stored numbers are never reported absent")
+    void isDefinitelyAbsent_storedNumbers_false() {
+        String[] numbers = IntStream.range(0, 5_000).mapToObj(i -> "INS" + i).toArray(String[]::new);
+        givenNumbers(numbers);
+
+        filter.rebuild();
+
+        for (String number : numbers) {
+            assertThat(filter.isDefinitelyAbsent(number)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown numbers are ruled out close to the configured rate")
+    void isDefinitelyAbsent_unknownNumbers_mostlyTrue() {
+        givenNumbers(IntStream.range(0, 10_000).mapToObj(i -> "INS" + i).toArray(String[]::new));
+        filter.rebuild();
+
+        long positives = IntStream.range(0, 10_000)
+                .filter(i -> !filter.isDefinitelyAbsent("NEW" + i))
+                .count();
+
+        assertThat(positives).isLessThan(300);
+        assertThat(filter.stats().estimatedFalsePositiveRate()).isLessThan(0.03);
+        assertThat(filter.stats().bytes()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Written numbers are added immediately")
+    void onPatientChanged_addsNumber() {
+        givenNumbers();
+        filter.rebuild();
+        assertThat(filter.isDefinitelyAbsent("INS-NEW")).isTrue();
+
+        filter.onPatientChanged(created("INS-NEW"));
+
+        assertThat(filter.isDefinitelyAbsent("INS-NEW")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Lookup results feed the observed false-positive rate")
+    void recordLookup_countsFalsePositives() {
+        givenNumbers();
+        filter.rebuild();
+        filter.isDefinitelyAbsent("A");
+        filter.isDefinitelyAbsent("B");
+        filter.isDefinitelyAbsent("C");
+
+        filter.recordLookup(false);
+        filter.recordLookup(true);
+
+        InsuranceNumberFilter.Stats stats = filter.stats();
+        assertThat(stats.definitelyAbsent()).isEqualTo(3);
+        assertThat(stats.falsePositives()).isEqualTo(1);
+        assertThat(stats.confirmedPresent()).isEqualTo(1);
+        assertThat(stats.observedFalsePositiveRate()).isEqualTo(0.25);
+    }
+
+    @Test
+    @DisplayName("Disabled filter never rules anything out")
+    void disabled_neverAbsent() {
+        InsuranceNumberFilter disabled = new InsuranceNumberFilter(jdbcRepository, false, 10_000, 0.01);
+
+        disabled.initialize();
+
+        assertThat(disabled.isDefinitelyAbsent("INS1")).isFalse();
+    }
+}
@@ -0,0 +1,153 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.service.PatientCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientCacheTest {
+
+    private PatientCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PatientCache(true, 100, Duration.ofMinutes(10));
+    }
+
+    private static Patient patient(long id, long version) {
+        return Patient.builder()
+                .id(id)
+                .firstName("John")
+                .lastName("Doe")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender(Gender.MALE)
+                .insuranceNumber("INS" + id)
+                .bloodType(BloodType.O_POS)
+                .version(version)
+                .build();
+    }
+
+    private static PatientChangedEvent updated(Patient patient, long newVersion, boolean deleted) {
+        PatientSnapshot before = PatientSnapshot.of(patient);
+        PatientSnapshot after = new PatientSnapshot(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getDateOfBirth(), patient.getGender(), patient.getInsuranceNumber(),
+                patient.getBloodType(), newVersion, deleted);
+        return new PatientChangedEvent(before, after);
+    }
+
+    @Test
+    @DisplayName("Put then get - hit")
+    void get_afterPut_returnsPatient() {
+        Patient patient = patient(1, 0);
+
+        cache.put(patient);
+
+        assertThat(cache.get(1L)).isSameAs(patient);
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Committed update - entry invalidated and older versions rejected")
+    void onPatientChanged_update_rejectsStaleVersion() {
+        Patient v0 = patient(1, 0);
+        cache.put(v0);
+
+        cache.onPatientChanged(updated(v0, 1, false));
+        assertThat(cache.get(1L)).isNull();
+
+        // A reader that loaded version 0 before the commit finishes late
+        cache.put(v0);
+        assertThat(cache.get(1L)).isNull();
+
+        Patient v1 = patient(1, 1);
+        cache.put(v1);
+        assertThat(cache.get(1L)).isSameAs(v1);
+    }
+
+    @Test
+    @DisplayName("Committed soft delete - not cached any more")
+    void onPatientChanged_softDelete_evicts() {
+        Patient patient = patient(1, 0);
+        cache.put(patient);
+
+        cache.onPatientChanged(updated(patient, 1, true));
+
+        assertThat(cache.get(1L)).isNull();
+        cache.put(patient);
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Removed row - never cached again")
+    void onPatientChanged_removed_blocksAnyVersion() {
+        Patient patient = patient(1, 3);
+
+        cache.onPatientChanged(new PatientChangedEvent(PatientSnapshot.of(patient), null));
+        cache.put(patient(1, 4));
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Marker lookups count as misses")
+    void stats_markerLookupIsMiss() {
+        Patient patient = patient(1, 0);
+        cache.put(patient);
+        cache.onPatientChanged(updated(patient, 1, false));
+
+        cache.get(1L);
+
+        assertThat(cache.stats().hits()).isZero();
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Version - known for cached patients only, not counted as lookup")
+    void version_cachedPatientOnly() {
+        Patient patient = patient(1, 3);
+        cache.put(patient);
+        cache.put(patient(2, 0));
+        cache.onPatientChanged(updated(patient(2, 0), 1, false));
+
+        assertThat(cache.version(1L)).isEqualTo(3L);
+        assertThat(cache.version(2L)).isNull();
+        assertThat(cache.version(3L)).isNull();
+        assertThat(cache.stats().hits()).isZero();
+        assertThat(cache.stats().misses()).isZero();
+    }
+
+    @Test
+    @DisplayName("Size bound - evictions are counted")
+    void put_beyondMaximumSize_evicts() {
+        PatientCache small = new PatientCache(true, 10, Duration.ofMinutes(10));
+
+        for (long id = 1; id <= 100; id++) {
+            small.put(patient(id, 0));
+        }
+
+        assertThat(small.stats().size()).isLessThanOrEqualTo(10);
+        assertThat(small.stats().evictions()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Disabled cache - always misses")
+    void disabled_neverCaches() {
+        PatientCache disabled = new PatientCache(false, 100, Duration.ofMinutes(10));
+
+        disabled.put(patient(1, 0));
+
+        assertThat(disabled.get(1L)).isNull();
+    }
+}
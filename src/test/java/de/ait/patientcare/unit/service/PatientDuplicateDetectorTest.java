@@ -0,0 +1,142 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.dto.PatientDuplicateCandidate;
+import de.ait.patientcare.dto.PatientDuplicateRun;
+import de.ait.patientcare.entity.PatientPhoneticCodes;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientDuplicateKey;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.service.PatientDuplicateDetector;
+import de.ait.patientcare.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PatientDuplicateDetectorTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1980, 5, 1);
+
+    @Mock
+    private PatientJdbcRepository jdbcRepository;
+
+    @Mock
+    private PatientService patientService;
+
+    private PatientDuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new PatientDuplicateDetector(jdbcRepository, patientService, 0.85, 1000, 2, 1000);
+    }
+
+    private static PatientDuplicateKey key(long id, String firstName, String lastName, LocalDate dateOfBirth,
+                                           Gender gender) {
+        return new PatientDuplicateKey(id, firstName, lastName, dateOfBirth, gender, BloodType.A_POS,
+                PatientPhoneticCodes.cologne(firstName), PatientPhoneticCodes.cologne(lastName));
+    }
+
+    private void givenPatients(PatientDuplicateKey... keys) {
+        doAnswer(invocation -> {
+            Consumer<PatientDuplicateKey> consumer = invocation.getArgument(0);
+            for (PatientDuplicateKey key : keys) {
+                consumer.accept(key);
+            }
+            return null;
+        }).when(jdbcRepository).streamActiveDuplicateKeys(any());
+    }
+
+    private void givenDefaultPatients() {
+        givenPatients(
+                key(1, "Hans", "Meier", BIRTH_DATE, Gender.MALE),
+                key(2, "Hans", "Maier", BIRTH_DATE, Gender.MALE),
+                // Day and month swapped
+                key(3, "Hans", "Meier", LocalDate.of(1980, 1, 5), Gender.MALE),
+                // Same birth date and last name, but a different person
+                key(4, "Anna", "Meier", BIRTH_DATE, Gender.FEMALE),
+                key(5, "Eva", "Schulz", LocalDate.of(1975, 3, 3), Gender.FEMALE));
+    }
+
+    @Test
+    @DisplayName("Score - spelling variants high, siblings with the same birth date low")
+    void score_weighsNamesAndAttributes() {
+        double variant = PatientDuplicateDetector.score(
+                key(1, "Hans", "Meier", BIRTH_DATE, Gender.MALE), key(2, "Hans", "Maier", BIRTH_DATE, Gender.MALE));
+        double twins = PatientDuplicateDetector.score(
+                key(1, "Anna", "Meier", BIRTH_DATE, Gender.FEMALE), key(2, "Lea", "Meier", BIRTH_DATE, Gender.FEMALE));
+        double same = PatientDuplicateDetector.score(
+                key(1, "Hans", "Meier", BIRTH_DATE, Gender.MALE), key(2, "Hans", "Meier", BIRTH_DATE, Gender.MALE));
+
+        assertThat(same).isEqualTo(1.0, within(1e-9));
+        assertThat(variant).isGreaterThan(0.85).isLessThan(same);
+        assertThat(twins).isLessThan(0.85);
+    }
+
+    @Test
+    @DisplayName("Detect - pairs found through blocking keys, reported once, best first")
+    void detect_findsCandidatesByBlockingKeys() {
+        givenDefaultPatients();
+
+        PatientDuplicateRun run = detector.detect();
+
+        assertThat(run.state()).isEqualTo(PatientDuplicateRun.State.COMPLETED);
+        assertThat(run.patients()).isEqualTo(5);
+        assertThat(run.candidates()).isEqualTo(2);
+        assertThat(run.phaseMillis()).containsOnlyKeys("load", "blocking", "scoring", "review-list");
+        assertThat(detector.getCandidates(null, null))
+                .extracting(PatientDuplicateCandidate::patientId, PatientDuplicateCandidate::duplicateId,
+                        PatientDuplicateCandidate::matchedOn)
+                .containsExactly(
+                        tuple(1L, 2L, "BIRTH_DATE_LAST_NAME"),
+                        tuple(1L, 3L, "BIRTH_YEAR_FULL_NAME"));
+        assertThat(detector.getCandidates(0.9, null)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Merge - duplicate soft-deleted and its pairs leave the review list")
+    void merge_softDeletesDuplicate() {
+        givenDefaultPatients();
+        detector.detect();
+
+        PatientDuplicateCandidate merged = detector.merge(2L, 1L);
+
+        verify(patientService).deletePatient(1L);
+        assertThat(merged.patientId()).isEqualTo(1L);
+        assertThat(detector.getCandidates(null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Merge of a pair not on the review list - exception, nothing deleted")
+    void merge_unknownPair_throwsException() {
+        givenDefaultPatients();
+        detector.detect();
+
+        assertThatThrownBy(() -> detector.merge(1L, 5L)).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> detector.merge(2L, 3L)).isInstanceOf(NoSuchElementException.class);
+        verify(patientService, never()).deletePatient(anyLong());
+    }
+
+    @Test
+    @DisplayName("Status before the first run - exception")
+    void getStatus_beforeFirstRun_throwsException() {
+        assertThatThrownBy(() -> detector.getStatus()).isInstanceOf(NoSuchElementException.class);
+    }
+}
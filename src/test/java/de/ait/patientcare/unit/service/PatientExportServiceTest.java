@@ -0,0 +1,167 @@
+package de.ait.patientcare.unit.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.ait.patientcare.config.BinaryFormatConfig;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.service.PatientExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class PatientExportServiceTest {
+
+    @Mock
+    private PatientJdbcRepository patientJdbcRepository;
+
+    private ObjectMapper objectMapper;
+    private PatientExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new PatientExportService(patientJdbcRepository, objectMapper,
+                new MappingJackson2CborHttpMessageConverter(binaryMapper(BinaryFormatConfig.cborFactory(true))),
+                new MappingJackson2SmileHttpMessageConverter(binaryMapper(BinaryFormatConfig.smileFactory(true))));
+    }
+
+    private static ObjectMapper binaryMapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamPatients(Patient... patients) {
+        doAnswer(invocation -> {
+            Consumer<Patient> consumer = invocation.getArgument(0);
+            for (Patient patient : patients) {
+                consumer.accept(patient);
+            }
+            return null;
+        }).when(patientJdbcRepository).streamActive(any(Consumer.class));
+    }
+
+    private Patient patient(long id, String insuranceNumber) {
+        return Patient.builder()
+                .id(id)
+                .firstName("John")
+                .lastName("Doe")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender(Gender.MALE)
+                .insuranceNumber(insuranceNumber)
+                .bloodType(BloodType.O_POS)
+                .version(0L)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Export writes one JSON object per line")
+    void exportActive_writesNewlineDelimitedJson() throws IOException {
+        streamPatients(patient(1L, "INS1"), patient(2L, "INS2"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportActive(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        assertThat(lines).hasSize(2);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("insuranceNumber").asText()).isEqualTo("INS1");
+        assertThat(first.get("dateOfBirth").asText()).isEqualTo("1990-01-01");
+        assertThat(first.has("deleted")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MediaType.APPLICATION_CBOR_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    @DisplayName("Binary export - one CBOR/Smile value per patient, smaller than NDJSON")
+    void exportActive_binaryFormats_writeValueSequence(String mediaType) throws IOException {
+        Patient[] patients = new Patient[100];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = patient(i, "INS" + i);
+        }
+        streamPatients(patients);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        MediaType format = MediaType.valueOf(mediaType);
+
+        exportService.exportActive(json);
+        long rows = exportService.exportActive(binary, format);
+
+        ObjectMapper mapper = binaryMapper(MediaType.APPLICATION_CBOR.equals(format)
+                ? BinaryFormatConfig.cborFactory(true) : BinaryFormatConfig.smileFactory(true));
+        List<Patient> read;
+        try (MappingIterator<Patient> values = mapper.readerFor(Patient.class).readValues(binary.toByteArray())) {
+            read = values.readAll();
+        }
+        assertThat(rows).isEqualTo(100);
+        assertThat(read).hasSize(100);
+        assertThat(read.get(42).getInsuranceNumber()).isEqualTo("INS42");
+        assertThat(read.get(42).getDateOfBirth()).isEqualTo(LocalDate.of(1990, 1, 1));
+        assertThat(binary.size()).isLessThan(json.size());
+    }
+
+    @Test
+    @DisplayName("Export of an empty table writes nothing")
+    void exportActive_emptyTable_writesNothing() throws IOException {
+        streamPatients();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.exportActive(out)).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Write failure (client disconnect) aborts the export with IOException")
+    void exportActive_clientDisconnect_abortsWithIOException() {
+        Patient[] patients = new Patient[5000];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = patient(i, "INS" + i);
+        }
+        streamPatients(patients);
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exportService.exportActive(broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+}
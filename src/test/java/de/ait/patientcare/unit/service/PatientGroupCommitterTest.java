@@ -0,0 +1,146 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.dto.PatientBulkItemResult;
+import de.ait.patientcare.entity.Patient;
+import de.ait.patientcare.service.PatientBulkService;
+import de.ait.patientcare.service.PatientGroupCommitter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PatientGroupCommitterTest {
+
+    @Mock
+    private PatientBulkService patientBulkService;
+
+    private PatientGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(patientBulkService.violations(any())).thenReturn(List.of());
+        lenient().when(patientBulkService.findStoredInsuranceNumbers(anyCollection())).thenReturn(Set.of());
+        committer = new PatientGroupCommitter(patientBulkService, true, 1, Duration.ZERO, 100,
+                Duration.ofSeconds(5));
+        committer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.shutdown();
+    }
+
+    private static Patient patient(String insuranceNumber) {
+        return Patient.builder().insuranceNumber(insuranceNumber).build();
+    }
+
+    @Test
+    @DisplayName("Error while committing - the batch fails, the committer keeps running")
+    void create_errorInCommit_failsBatchAndContinues() {
+        when(patientBulkService.insertAll(any(), anyInt()))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(List.of(PatientBulkItemResult.created(0, 7L)));
+
+        assertThatThrownBy(() -> committer.create(patient("GC-1")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(committer.create(patient("GC-2")).getInsuranceNumber()).isEqualTo("GC-2");
+    }
+
+    @Test
+    @DisplayName("Caller interrupted before its request was taken - the patient is never stored")
+    void create_interruptedWhileQueued_isWithdrawn() throws Exception {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(patientBulkService.insertAll(any(), anyInt())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(PatientBulkItemResult.created(0, 1L));
+        });
+        // Keeps the committer busy, so the second request stays in the queue
+        CompletableFuture<Patient> first = CompletableFuture.supplyAsync(() -> committer.create(patient("GC-FIRST")));
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = Thread.ofPlatform().start(() -> {
+            try {
+                committer.create(patient("GC-WITHDRAWN"));
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        while (caller.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        caller.interrupt();
+        caller.join(5_000);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getInsuranceNumber()).isEqualTo("GC-FIRST");
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class)
+                .hasMessage("Interrupted while waiting for group commit");
+        committer.shutdown();
+        verify(patientBulkService, never()).insertAll(
+                argThat(patients -> patients.stream().anyMatch(p -> "GC-WITHDRAWN".equals(p.getInsuranceNumber()))),
+                eq(0));
+    }
+
+    @Test
+    @DisplayName("Commit slower than the wait timeout - queued requests are withdrawn, taken ones reported as unknown")
+    void create_timeout_isWithdrawn() throws InterruptedException {
+        committer.shutdown();
+        committer = new PatientGroupCommitter(patientBulkService, true, 1, Duration.ZERO, 100,
+                Duration.ofMillis(50));
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(patientBulkService.insertAll(any(), anyInt())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(PatientBulkItemResult.created(0, 1L));
+        });
+        committer.start();
+        CompletableFuture<Patient> first = CompletableFuture.supplyAsync(() -> committer.create(patient("GC-SLOW")));
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> committer.create(patient("GC-LATE")))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Timed out waiting for group commit");
+            // Already taken by the committer: the caller waited once more, then reported the unknown outcome
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasMessageEndingWith("the patient may have been stored");
+        } finally {
+            release.countDown();
+        }
+        committer.shutdown();
+        verify(patientBulkService, never()).insertAll(
+                argThat(patients -> patients.stream().anyMatch(p -> "GC-LATE".equals(p.getInsuranceNumber()))),
+                eq(0));
+    }
+}
@@ -0,0 +1,173 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientNameKey;
+import de.ait.patientcare.service.PatientNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class PatientNameIndexTest {
+
+    @Mock
+    private PatientJdbcRepository jdbcRepository;
+
+    private PatientNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientNameIndex(jdbcRepository, true, 0.3);
+    }
+
+    private void givenPatients(PatientNameKey... keys) {
+        doAnswer(invocation -> {
+            Consumer<PatientNameKey> consumer = invocation.getArgument(0);
+            for (PatientNameKey key : keys) {
+                consumer.accept(key);
+            }
+            return null;
+        }).when(jdbcRepository).streamActiveNames(any());
+    }
+
+    private void givenDefaultPatients() {
+        givenPatients(
+                new PatientNameKey(1, "Hans", "Meier"),
+                new PatientNameKey(2, "Anna", "Mayer"),
+                new PatientNameKey(3, "Jürgen", "Müller"),
+                new PatientNameKey(4, "Anna", "Schmidt"),
+                new PatientNameKey(5, "Peter", "Maier"));
+        index.rebuild();
+    }
+
+    private static PatientSnapshot snapshot(long id, String firstName, String lastName, boolean deleted) {
+        return new PatientSnapshot(id, firstName, lastName, LocalDate.of(1980, 1, 1), Gender.MALE,
+                "INS" + id, BloodType.O_POS, 0L, deleted);
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).stream().map(PatientNameIndex.Hit::id).toList();
+    }
+
+    @Test
+    @DisplayName("Not ready until built; disabled index never ready")
+    void isReady_onlyAfterRebuildWhenEnabled() {
+        givenPatients();
+        PatientNameIndex disabled = new PatientNameIndex(jdbcRepository, false, 0.3);
+
+        assertThat(index.isReady()).isFalse();
+        index.rebuild();
+        disabled.initialize();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(disabled.isReady()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Spelling variants are ranked by similarity, ties in id order")
+    void search_rankedBySimilarity() {
+        givenDefaultPatients();
+
+        List<PatientNameIndex.Hit> hits = index.search("Maier", 10);
+
+        assertThat(hits).extracting(PatientNameIndex.Hit::id).containsExactly(5L, 1L, 2L);
+        assertThat(hits.get(0).similarity()).isEqualTo(1.0);
+        assertThat(hits.get(1).similarity()).isCloseTo(1.0 / 3, within(1e-9));
+        assertThat(index.search("Maier", 1)).extracting(PatientNameIndex.Hit::id).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Umlauts, case and accents are normalized")
+    void search_normalizesNames() {
+        givenDefaultPatients();
+
+        assertThat(ids("MUELLER")).containsExactly(3L);
+        assertThat(ids("Jürgen Müller")).containsExactly(3L);
+        assertThat(ids("Pétér")).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Misspelled full names match, unrelated and blank queries do not")
+    void search_fullNameAndMisses() {
+        givenDefaultPatients();
+
+        assertThat(ids("Ana Shmidt")).containsExactly(4L);
+        assertThat(ids("Xylophon")).isEmpty();
+        assertThat(ids(" - ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Committed renames, deletes and inserts are reflected immediately")
+    void onPatientChanged_updatesIndex() {
+        givenDefaultPatients();
+
+        index.onPatientChanged(new PatientChangedEvent(
+                snapshot(5, "Peter", "Maier", false), snapshot(5, "Peter", "Schulz", false)));
+        index.onPatientChanged(new PatientChangedEvent(
+                snapshot(1, "Hans", "Meier", false), snapshot(1, "Hans", "Meier", true)));
+        index.onPatientChanged(new PatientChangedEvent(null, snapshot(6, "Eva", "Maier", false)));
+
+        assertThat(ids("Maier")).containsExactly(6L, 2L);
+        assertThat(ids("Schulz")).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Rebuild replaces the incremental state with the stored names")
+    void rebuild_afterChanges_matchesIncrementalState() {
+        givenDefaultPatients();
+        index.onPatientChanged(new PatientChangedEvent(
+                snapshot(2, "Anna", "Mayer", false), snapshot(2, "Anna", "Maier", false)));
+        List<Long> incremental = ids("Maier");
+
+        givenPatients(
+                new PatientNameKey(1, "Hans", "Meier"),
+                new PatientNameKey(2, "Anna", "Maier"),
+                new PatientNameKey(3, "Jürgen", "Müller"),
+                new PatientNameKey(4, "Anna", "Schmidt"),
+                new PatientNameKey(5, "Peter", "Maier"));
+        index.rebuild();
+
+        assertThat(incremental).containsExactly(2L, 5L, 1L);
+        assertThat(ids("Maier")).isEqualTo(incremental);
+    }
+
+    @Test
+    @DisplayName("Sparse, large ids - counts follow the indexed patients, deletes keep the others findable")
+    void onPatientChanged_sparseLargeIds() {
+        givenPatients();
+        index.rebuild();
+        long base = 2_000_000_000L;
+        for (int i = 0; i < 2_000; i++) {
+            index.onPatientChanged(new PatientChangedEvent(null, snapshot(base + i * 50L, "Anna", "Kowalski", false)));
+        }
+        index.onPatientChanged(new PatientChangedEvent(null, snapshot(base - 1, "Hans", "Meier", false)));
+        // Remove every other entry, so probe chains in the count table have holes to close
+        for (int i = 0; i < 2_000; i += 2) {
+            index.onPatientChanged(new PatientChangedEvent(
+                    snapshot(base + i * 50L, "Anna", "Kowalski", false), null));
+        }
+
+        List<PatientNameIndex.Hit> hits = index.search("Anna Kowalski", 5_000);
+        assertThat(hits).hasSize(1_000)
+                .allSatisfy(hit -> assertThat(hit.similarity()).isEqualTo(1.0))
+                .extracting(PatientNameIndex.Hit::id)
+                .allMatch(id -> (id - base) % 100 == 50);
+        assertThat(ids("Meier")).containsExactly(base - 1);
+    }
+}
@@ -0,0 +1,182 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientSearchKey;
+import de.ait.patientcare.service.PatientSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class PatientSearchIndexTest {
+
+    @Mock
+    private PatientJdbcRepository jdbcRepository;
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientSearchIndex(jdbcRepository, true);
+    }
+
+    private void givenPatients(PatientSearchKey... keys) {
+        doAnswer(invocation -> {
+            Consumer<PatientSearchKey> consumer = invocation.getArgument(0);
+            for (PatientSearchKey key : keys) {
+                consumer.accept(key);
+            }
+            return null;
+        }).when(jdbcRepository).streamActiveSearchKeys(any());
+    }
+
+    private static PatientSearchKey key(long id, Gender gender, BloodType bloodType, LocalDate dateOfBirth) {
+        return new PatientSearchKey(id, gender, bloodType, dateOfBirth);
+    }
+
+    private static PatientSnapshot snapshot(long id, Gender gender, BloodType bloodType,
+                                            LocalDate dateOfBirth, boolean deleted) {
+        return new PatientSnapshot(id, "John", "Doe", dateOfBirth, gender,
+                "INS" + id, bloodType, 0L, deleted);
+    }
+
+    private List<Long> all(Gender gender, BloodType bloodType, LocalDate from, LocalDate to) {
+        return index.search(gender, bloodType, from, to, 0, 100, false).ids();
+    }
+
+    private void givenDefaultPatients() {
+        givenPatients(
+                key(1, Gender.MALE, BloodType.O_POS, LocalDate.of(1950, 5, 1)),
+                key(2, Gender.FEMALE, BloodType.A_POS, LocalDate.of(1985, 3, 15)),
+                key(3, Gender.FEMALE, BloodType.O_POS, LocalDate.of(1990, 1, 1)),
+                key(4, Gender.MALE, BloodType.A_POS, LocalDate.of(2000, 12, 31)),
+                key(5, Gender.FEMALE, BloodType.A_POS, LocalDate.of(1990, 1, 1)));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Not ready until built; disabled index never ready")
+    void isReady_onlyAfterRebuildWhenEnabled() {
+        givenPatients();
+        PatientSearchIndex disabled = new PatientSearchIndex(jdbcRepository, false);
+
+        assertThat(index.isReady()).isFalse();
+        index.rebuild();
+        disabled.initialize();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(disabled.isReady()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Only id ordered pages are supported")
+    void supports_onlyIdSort() {
+        assertThat(PatientSearchIndex.supports(Sort.unsorted())).isTrue();
+        assertThat(PatientSearchIndex.supports(Sort.by(Sort.Direction.DESC, "id"))).isTrue();
+        assertThat(PatientSearchIndex.supports(Sort.by("lastName", "id"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Enum filters intersect the bitmaps")
+    void search_enumFilters() {
+        givenDefaultPatients();
+
+        assertThat(all(null, null, null, null)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(all(Gender.FEMALE, null, null, null)).containsExactly(2L, 3L, 5L);
+        assertThat(all(Gender.FEMALE, BloodType.A_POS, null, null)).containsExactly(2L, 5L);
+        assertThat(all(Gender.OTHER, null, null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Date range bounds are inclusive on both the range and the candidate path")
+    void search_dateRange() {
+        givenDefaultPatients();
+        LocalDate from = LocalDate.of(1985, 3, 15);
+        LocalDate to = LocalDate.of(1990, 1, 1);
+
+        // Broad candidate set: ids are collected from the sorted date array
+        assertThat(all(null, null, from, to)).containsExactly(2L, 3L, 5L);
+        // Selective enum filter: candidates are checked one by one
+        assertThat(all(Gender.MALE, BloodType.O_POS, null, to)).containsExactly(1L);
+        assertThat(all(null, null, LocalDate.of(2000, 12, 31), null)).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Pages are cut in id order in both directions")
+    void search_paging() {
+        givenDefaultPatients();
+
+        PatientSearchIndex.Hits ascending = index.search(null, null, null, null, 2, 2, false);
+        PatientSearchIndex.Hits descending = index.search(null, null, null, null, 0, 2, true);
+        PatientSearchIndex.Hits beyond = index.search(null, null, null, null, 10, 2, false);
+
+        assertThat(ascending.ids()).containsExactly(3L, 4L);
+        assertThat(ascending.total()).isEqualTo(5L);
+        assertThat(descending.ids()).containsExactly(5L, 4L);
+        assertThat(beyond.ids()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Committed changes move ids between bitmaps and date positions")
+    void onPatientChanged_updatesIndex() {
+        givenDefaultPatients();
+        LocalDate born1985 = LocalDate.of(1985, 3, 15);
+
+        // Insert
+        index.onPatientChanged(new PatientChangedEvent(null,
+                snapshot(6, Gender.OTHER, BloodType.B_NEG, LocalDate.of(1970, 6, 6), false)));
+        // Gender, blood type and date of birth change
+        index.onPatientChanged(new PatientChangedEvent(
+                snapshot(3, Gender.FEMALE, BloodType.O_POS, LocalDate.of(1990, 1, 1), false),
+                snapshot(3, Gender.MALE, BloodType.B_NEG, LocalDate.of(1960, 1, 1), false)));
+        // Soft delete
+        index.onPatientChanged(new PatientChangedEvent(
+                snapshot(2, Gender.FEMALE, BloodType.A_POS, born1985, false),
+                snapshot(2, Gender.FEMALE, BloodType.A_POS, born1985, true)));
+
+        assertThat(all(null, BloodType.B_NEG, null, null)).containsExactly(3L, 6L);
+        assertThat(all(Gender.FEMALE, null, null, null)).containsExactly(5L);
+        assertThat(all(null, null, LocalDate.of(1955, 1, 1), LocalDate.of(1989, 12, 31)))
+                .containsExactly(3L, 6L);
+        assertThat(all(null, null, LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 1)))
+                .containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Rebuild folds changed dates back into the sorted array")
+    void rebuild_afterChanges_matchesIncrementalState() {
+        givenDefaultPatients();
+        index.onPatientChanged(new PatientChangedEvent(
+                snapshot(4, Gender.MALE, BloodType.A_POS, LocalDate.of(2000, 12, 31), false),
+                snapshot(4, Gender.MALE, BloodType.A_POS, LocalDate.of(1980, 1, 1), false)));
+        List<Long> incremental = all(null, null, LocalDate.of(1975, 1, 1), LocalDate.of(1986, 1, 1));
+
+        givenPatients(
+                key(1, Gender.MALE, BloodType.O_POS, LocalDate.of(1950, 5, 1)),
+                key(2, Gender.FEMALE, BloodType.A_POS, LocalDate.of(1985, 3, 15)),
+                key(3, Gender.FEMALE, BloodType.O_POS, LocalDate.of(1990, 1, 1)),
+                key(4, Gender.MALE, BloodType.A_POS, LocalDate.of(1980, 1, 1)),
+                key(5, Gender.FEMALE, BloodType.A_POS, LocalDate.of(1990, 1, 1)));
+        index.rebuild();
+
+        assertThat(incremental).containsExactly(2L, 4L);
+        assertThat(all(null, null, LocalDate.of(1975, 1, 1), LocalDate.of(1986, 1, 1)))
+                .isEqualTo(incremental);
+    }
+}
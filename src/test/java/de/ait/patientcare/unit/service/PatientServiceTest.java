@@ -1,30 +1,49 @@
 package de.ait.patientcare.unit.service;
 
+import de.ait.patientcare.dto.PatientNameMatch;
+import de.ait.patientcare.dto.PatientPage;
+import de.ait.patientcare.dto.PatientSearchPage;
+import de.ait.patientcare.dto.PatientView;
 import de.ait.patientcare.entity.Patient;
 import de.ait.patientcare.entity.enums.BloodType;
 import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.entity.enums.PhoneticAlgorithm;
 import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
+import de.ait.patientcare.service.InsuranceNumberFilter;
+import de.ait.patientcare.service.PatientCache;
+import de.ait.patientcare.service.PatientCursor;
+import de.ait.patientcare.service.PatientGroupCommitter;
+import de.ait.patientcare.service.PatientNameIndex;
+import de.ait.patientcare.service.PatientSearchIndex;
 import de.ait.patientcare.service.PatientService;
+import de.ait.patientcare.service.PatientStatisticsCounters;
+import jakarta.persistence.OptimisticLockException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,11 +59,30 @@ import static org.mockito.Mockito.*;
  */
 
 @ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
 class PatientServiceTest {
 
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private PatientStatisticsCounters statisticsCounters;
+
+    @Mock
+    private PatientSearchIndex searchIndex;
+
+    @Mock
+    private PatientNameIndex nameIndex;
+
+    @Mock
+    private PatientCache patientCache;
+
+    @Mock
+    private InsuranceNumberFilter insuranceNumberFilter;
+
+    @Mock
+    private PatientGroupCommitter groupCommitter;
+
     @InjectMocks
     private PatientService patientService;
 
@@ -143,6 +181,36 @@ class PatientServiceTest {
                     .hasMessage("Insurance number must be unique");
 
             verify(patientRepository, never()).save(any(Patient.class));
+            verify(insuranceNumberFilter).recordLookup(true);
+        }
+
+        @Test
+        @DisplayName("Create patient with a number the filter rules out - no uniqueness query")
+        void createPatient_definitelyAbsent_skipsExistsQuery() {
+            Patient newPatient = basePatient.toBuilder().id(null).build();
+
+            when(insuranceNumberFilter.isDefinitelyAbsent(DEFAULT_INSURANCE_NUMBER)).thenReturn(true);
+            when(patientRepository.save(newPatient)).thenReturn(basePatient);
+
+            Patient result = patientService.createPatient(newPatient);
+
+            assertThat(result).isEqualTo(basePatient);
+            verify(patientRepository, never()).existsByInsuranceNumber(any());
+            verify(insuranceNumberFilter, never()).recordLookup(anyBoolean());
+        }
+
+        @Test
+        @DisplayName("Create patient with group commit enabled - delegated to the committer")
+        void createPatient_groupCommit_delegates() {
+            Patient newPatient = basePatient.toBuilder().id(null).build();
+
+            when(groupCommitter.isEnabled()).thenReturn(true);
+            when(groupCommitter.create(newPatient)).thenReturn(basePatient);
+
+            Patient result = patientService.createPatient(newPatient);
+
+            assertThat(result).isEqualTo(basePatient);
+            verifyNoInteractions(patientRepository, insuranceNumberFilter);
         }
     }
 
@@ -159,6 +227,18 @@ class PatientServiceTest {
 
             assertThat(result).isEqualTo(basePatient);
             verify(patientRepository).findById(1L);
+            verify(patientCache).put(basePatient);
+        }
+
+        @Test
+        @DisplayName("Get patient by ID - cache hit skips the database")
+        void getPatientById_cached_skipsRepository() {
+            when(patientCache.get(1L)).thenReturn(basePatient);
+
+            Patient result = patientService.getPatientById(1L);
+
+            assertThat(result).isSameAs(basePatient);
+            verifyNoInteractions(patientRepository);
         }
 
         @Test
@@ -185,6 +265,20 @@ class PatientServiceTest {
                     .hasMessage("Patient not found");
         }
 
+        @Test
+        @DisplayName("Get patient version - cache first, then version-only query")
+        void getPatientVersion_cacheThenRepository() {
+            when(patientCache.version(1L)).thenReturn(4L);
+            when(patientCache.version(2L)).thenReturn(null);
+            when(patientRepository.findActiveVersionById(2L)).thenReturn(Optional.of(7L));
+
+            assertThat(patientService.getPatientVersion(1L)).contains(4L);
+            assertThat(patientService.getPatientVersion(2L)).contains(7L);
+
+            verify(patientRepository, never()).findActiveVersionById(1L);
+            verify(patientRepository, never()).findById(anyLong());
+        }
+
         @Test
         @DisplayName("Get all active patients")
         void getAllPatients_returnsOnlyActive() {
@@ -195,19 +289,90 @@ class PatientServiceTest {
                     .insuranceNumber("INS654321")
                     .build();
 
-            List<Patient> activePatients = Arrays.asList(patient1, patient2);
+            List<PatientView> activePatients = Arrays.asList(PatientView.of(patient1), PatientView.of(patient2));
 
-            when(patientRepository.findByDeletedFalse()).thenReturn(activePatients);
+            when(patientRepository.findActiveViews()).thenReturn(activePatients);
 
-            List<Patient> result = patientService.getAllPatients();
+            List<PatientView> result = patientService.getAllPatients();
 
             assertThat(result).hasSize(2);
-            assertThat(result.get(0).getId()).isEqualTo(1L);
-            assertThat(result.get(0).getFirstName()).isEqualTo("John");
-            assertThat(result.get(1).getId()).isEqualTo(2L);
-            assertThat(result.get(1).getFirstName()).isEqualTo("Jane");
+            assertThat(result.get(0).id()).isEqualTo(1L);
+            assertThat(result.get(0).firstName()).isEqualTo("John");
+            assertThat(result.get(1).id()).isEqualTo(2L);
+            assertThat(result.get(1).firstName()).isEqualTo("Jane");
+
+            verify(patientRepository).findActiveViews();
+            verify(patientRepository, never()).findByDeletedFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Keyset Pagination Tests")
+    class KeysetPaginationTests {
+
+        @Test
+        @DisplayName("First page - fetches one extra row and returns next cursor")
+        void getPatientsPage_firstPage_returnsNextCursor() {
+            PatientView first = PatientView.of(createPatient(1L, "Anna", "Adams", DEFAULT_BIRTH_DATE,
+                    Gender.FEMALE, "INS1", BloodType.A_POS));
+            PatientView second = PatientView.of(createPatient(2L, "Bob", "Baker", DEFAULT_BIRTH_DATE,
+                    Gender.MALE, "INS2", BloodType.O_POS));
+            PatientView third = PatientView.of(createPatient(3L, "Carl", "Cooper", DEFAULT_BIRTH_DATE,
+                    Gender.MALE, "INS3", BloodType.B_POS));
+
+            when(patientRepository.findFirstPage(Limit.of(3))).thenReturn(List.of(first, second, third));
+
+            PatientPage page = patientService.getPatientsPage(null, 2);
+
+            assertThat(page.items()).containsExactly(first, second);
+            assertThat(page.size()).isEqualTo(2);
+            assertThat(page.nextCursor()).isNotNull();
+            assertThat(PatientCursor.decode(page.nextCursor()))
+                    .isEqualTo(new PatientCursor("Baker", "Bob", 2L));
+        }
+
+        @Test
+        @DisplayName("Page after cursor - last page has no next cursor")
+        void getPatientsPage_withCursor_lastPage() {
+            String cursor = new PatientCursor("Baker", "Bob", 2L).encode();
+            PatientView patient = PatientView.of(basePatient);
+
+            when(patientRepository.findPageAfter("Baker", "Bob", 2L, Limit.of(3)))
+                    .thenReturn(List.of(patient));
+
+            PatientPage page = patientService.getPatientsPage(cursor, 2);
+
+            assertThat(page.items()).containsExactly(patient);
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Page size is capped at the configured maximum")
+        void getPatientsPage_sizeAboveMaximum_isCapped() {
+            when(patientRepository.findFirstPage(Limit.of(501))).thenReturn(List.of());
+
+            PatientPage page = patientService.getPatientsPage(null, 10_000);
+
+            assertThat(page.size()).isEqualTo(500);
+            assertThat(page.items()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Malformed cursor - exception")
+        void getPatientsPage_invalidCursor_throwsException() {
+            assertThatThrownBy(() -> patientService.getPatientsPage("not-a-cursor", 10))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+
+            verifyNoInteractions(patientRepository);
+        }
 
-            verify(patientRepository).findByDeletedFalse();
+        @Test
+        @DisplayName("Cursor survives names with special characters")
+        void patientCursor_roundTrip() {
+            PatientCursor cursor = new PatientCursor("Müller-Lüdenscheidt", "José Ñ", 42L);
+
+            assertThat(PatientCursor.decode(cursor.encode())).isEqualTo(cursor);
         }
     }
 
@@ -247,6 +412,7 @@ class PatientServiceTest {
 
             verify(patientRepository).findById(1L);
             verify(patientRepository).save(any(Patient.class));
+            verifyNoInteractions(patientCache);
         }
 
         @Test
@@ -323,6 +489,36 @@ class PatientServiceTest {
             verify(patientRepository, never()).existsByInsuranceNumber(anyString());
             verify(patientRepository).save(any(Patient.class));
         }
+
+        @Test
+        @DisplayName("Update with matching expected version - success")
+        void updatePatient_expectedVersionMatches_success() {
+            Patient updatedData = basePatient.toBuilder().id(null).firstName("John Updated").build();
+
+            when(patientRepository.findActiveVersionById(1L)).thenReturn(Optional.of(0L));
+            when(patientRepository.findById(1L)).thenReturn(Optional.of(basePatient));
+            when(patientRepository.save(any(Patient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            Patient result = patientService.updatePatient(1L, updatedData, List.of(0L));
+
+            assertThat(result.getFirstName()).isEqualTo("John Updated");
+            verify(patientRepository).save(any(Patient.class));
+        }
+
+        @Test
+        @DisplayName("Update with stale expected version - exception before the entity is loaded")
+        void updatePatient_staleVersion_throwsException() {
+            Patient updatedData = basePatient.toBuilder().id(null).firstName("John Updated").build();
+
+            when(patientRepository.findActiveVersionById(1L)).thenReturn(Optional.of(2L));
+
+            assertThatThrownBy(() -> patientService.updatePatient(1L, updatedData, List.of(0L, 1L)))
+                    .isInstanceOf(OptimisticLockException.class)
+                    .hasMessageContaining("current version is 2");
+
+            verify(patientRepository, never()).findById(anyLong());
+            verify(patientRepository, never()).save(any(Patient.class));
+        }
     }
 
     @Nested
@@ -351,126 +547,176 @@ class PatientServiceTest {
     @DisplayName("Search Patients Tests")
     class SearchPatientsTests {
 
-        @Test
-        @DisplayName("Search patients with all filters - correct logic")
-        void searchPatients_withFilters_correctLogic() {
-            LocalDate today = LocalDate.now();
-            LocalDate birthBefore = today.minusYears(20);
-            LocalDate birthAfter = today.minusYears(40);
-
-            Patient patientInRange = createPatientWithAge(2L, "Jane", 30,
-                    Gender.FEMALE, BloodType.A_POS);
-
-            when(patientRepository.search(
-                    eq(Gender.FEMALE),
-                    eq(BloodType.A_POS),
-                    eq(birthBefore),
-                    eq(birthAfter)
-            )).thenReturn(List.of(patientInRange));
+        private final Pageable firstPage = PageRequest.of(0, 20);
 
-            List<Patient> result = patientService.searchPatients(
-                    Gender.FEMALE,
-                    BloodType.A_POS,
-                    20,
-                    40
-            );
+        @Test
+        @DisplayName("Search without total - uses count-free slice with stable default sort")
+        void searchPatients_withoutTotal_usesSlice() {
+            PatientView patientInRange = PatientView.of(createPatientWithAge(2L, "Jane", 30,
+                    Gender.FEMALE, BloodType.A_POS));
+            Pageable expected = PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id"));
+
+            when(patientRepository.findViewSlice(any(), eq(expected)))
+                    .thenReturn(new SliceImpl<>(List.of(patientInRange), expected, true));
+
+            PatientSearchPage result = patientService.searchPatients(
+                    Gender.FEMALE, BloodType.A_POS, 20, 40, firstPage, false);
+
+            assertThat(result.items()).containsExactly(patientInRange);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(result.totalElements()).isNull();
+            verify(patientRepository, never()).findViewPage(any(), any());
+            verify(patientRepository, never()).findSlice(any(), any());
+        }
 
-            assertThat(result).hasSize(1);
-            assertThat(result.get(0).getId()).isEqualTo(2L);
-            assertThat(result.get(0).getGender()).isEqualTo(Gender.FEMALE);
-            assertThat(result.get(0).getBloodType()).isEqualTo(BloodType.A_POS);
+        @Test
+        @DisplayName("Search with total - uses page query and reports total elements")
+        void searchPatients_withTotal_returnsTotal() {
+            PatientView patient1 = PatientView.of(createPatientWithAge(1L, "John", 25, Gender.MALE, BloodType.O_POS));
+            PatientView patient2 = PatientView.of(createPatientWithAge(2L, "Jane", 30, Gender.FEMALE, BloodType.A_POS));
+            Pageable expected = PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id"));
+
+            when(patientRepository.findViewPage(any(), eq(expected)))
+                    .thenReturn(new PageImpl<>(List.of(patient1, patient2), expected, 42));
+
+            PatientSearchPage result = patientService.searchPatients(
+                    null, null, null, null, firstPage, true);
+
+            assertThat(result.items()).extracting(PatientView::firstName).containsExactly("John", "Jane");
+            assertThat(result.totalElements()).isEqualTo(42L);
+            assertThat(result.hasNext()).isTrue();
+            verify(patientRepository, never()).findViewSlice(any(), any());
+            verify(patientRepository, never()).findAll(any(Specification.class), any(Pageable.class));
         }
 
         @Test
-        @DisplayName("Search without filters - returns all active patients")
-        void searchPatients_withoutFilters_returnsAllActive() {
-            Patient patient1 = createPatientWithAge(1L, "John", 25, Gender.MALE, BloodType.O_POS);
-            Patient patient2 = createPatientWithAge(2L, "Jane", 30, Gender.FEMALE, BloodType.A_POS);
-            Patient patient3 = createPatientWithAge(3L, "Bob", 35, Gender.MALE, BloodType.B_POS);
+        @DisplayName("Requested sort is kept and id is appended as tie-breaker")
+        void searchPatients_customSort_appendsId() {
+            Pageable requested = PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "dateOfBirth"));
+            Pageable expected = PageRequest.of(2, 10,
+                    Sort.by(Sort.Direction.DESC, "dateOfBirth").and(Sort.by("id")));
 
-            List<Patient> allPatients = Arrays.asList(patient1, patient2, patient3);
+            when(patientRepository.findViewSlice(any(), eq(expected)))
+                    .thenReturn(new SliceImpl<>(List.of(), expected, false));
 
-            when(patientRepository.search(null, null, null, null))
-                    .thenReturn(allPatients);
+            PatientSearchPage result = patientService.searchPatients(
+                    Gender.MALE, null, null, null, requested, false);
 
-            List<Patient> result = patientService.searchPatients(null, null, null, null);
+            assertThat(result.items()).isEmpty();
+            assertThat(result.page()).isEqualTo(2);
+            assertThat(result.size()).isEqualTo(10);
+        }
 
-            assertThat(result).hasSize(3);
-            assertThat(result.get(0).getFirstName()).isEqualTo("John");
-            assertThat(result.get(1).getFirstName()).isEqualTo("Jane");
-            assertThat(result.get(2).getFirstName()).isEqualTo("Bob");
+        @Test
+        @DisplayName("Index ready and sorted by id - loads only the page ids in index order")
+        void searchPatients_indexReady_loadsPageById() {
+            PatientView patient3 = PatientView.of(createPatientWithAge(3L, "Anna", 30, Gender.FEMALE, BloodType.A_POS));
+            PatientView patient7 = PatientView.of(createPatientWithAge(7L, "Eva", 35, Gender.FEMALE, BloodType.A_POS));
+            Pageable requested = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+            when(searchIndex.isReady()).thenReturn(true);
+            when(searchIndex.search(eq(Gender.FEMALE), eq(BloodType.A_POS), any(), any(), eq(2L), eq(2), eq(true)))
+                    .thenReturn(new PatientSearchIndex.Hits(List.of(7L, 3L), 5));
+            when(patientRepository.findViewsByIdIn(List.of(7L, 3L))).thenReturn(List.of(patient3, patient7));
+
+            PatientSearchPage result = patientService.searchPatients(
+                    Gender.FEMALE, BloodType.A_POS, 20, 40, requested, true);
+
+            assertThat(result.items()).extracting(PatientView::id).containsExactly(7L, 3L);
+            assertThat(result.totalElements()).isEqualTo(5L);
+            assertThat(result.hasNext()).isTrue();
+            verify(patientRepository, never()).findViewSlice(any(), any());
+            verify(patientRepository, never()).findViewPage(any(), any());
         }
 
-        @ParameterizedTest(name = "gender={0}, bloodType={1}, ageFrom={2}, ageTo={3}")
-        @MethodSource("searchFilterProvider")
-        @DisplayName("Search patients with various filters")
-        void searchPatients_withVariousFilters(Gender gender, BloodType bloodType,
-                                               Integer ageFrom, Integer ageTo) {
-            LocalDate today = LocalDate.now();
-            LocalDate birthBefore = ageFrom != null ? today.minusYears(ageFrom) : null;
-            LocalDate birthAfter = ageTo != null ? today.minusYears(ageTo) : null;
+        @Test
+        @DisplayName("Index ready but sorted by name - falls back to the database query")
+        void searchPatients_indexReadyNameSort_usesDatabase() {
+            Pageable expected = PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id"));
+
+            when(searchIndex.isReady()).thenReturn(true);
+            when(patientRepository.findViewSlice(any(), eq(expected)))
+                    .thenReturn(new SliceImpl<>(List.of(), expected, false));
 
-            Patient testPatient = createPatientWithAge(1L, "Test", 30,
-                    gender != null ? gender : Gender.MALE,
-                    bloodType != null ? bloodType : BloodType.O_POS);
+            patientService.searchPatients(Gender.MALE, null, null, null, firstPage, false);
 
-            when(patientRepository.search(
-                    eq(gender), eq(bloodType), eq(birthBefore), eq(birthAfter)))
-                    .thenReturn(List.of(testPatient));
+            verify(searchIndex, never()).search(any(), any(), any(), any(), anyLong(), anyInt(), anyBoolean());
+        }
 
-            List<Patient> result = patientService.searchPatients(gender, bloodType, ageFrom, ageTo);
+        @Test
+        @DisplayName("Sort by unknown property - exception")
+        void searchPatients_unsupportedSort_throwsException() {
+            Pageable requested = PageRequest.of(0, 10, Sort.by("insuranceNumber"));
 
-            assertThat(result).hasSize(1);
+            assertThatThrownBy(() -> patientService.searchPatients(
+                    null, null, null, null, requested, false))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Unsupported sort property: insuranceNumber");
 
-            if (gender != null) {
-                assertThat(result.get(0).getGender()).isEqualTo(gender);
-            }
-            if (bloodType != null) {
-                assertThat(result.get(0).getBloodType()).isEqualTo(bloodType);
-            }
+            verifyNoInteractions(patientRepository);
         }
+    }
 
-        private static Stream<Arguments> searchFilterProvider() {
-            return Stream.of(
-                    Arguments.of(Gender.MALE, null, null, null),
-                    Arguments.of(null, BloodType.O_POS, null, null),
-                    Arguments.of(null, null, 18, null),
-                    Arguments.of(null, null, null, 65),
-                    Arguments.of(Gender.FEMALE, BloodType.A_POS, 20, 40)
-            );
-        }
+    @Nested
+    @DisplayName("Name Search Tests")
+    class NameSearchTests {
 
         @Test
-        @DisplayName("Search with empty result")
-        void searchPatients_emptyResult() {
-            LocalDate today = LocalDate.now();
-            LocalDate birthBefore = today.minusYears(100);
-            LocalDate birthAfter = today.minusYears(120);
+        @DisplayName("Name search - index order kept, rows deleted since the lookup dropped")
+        void searchByName_keepsIndexOrder() {
+            Patient patient4 = createPatient(4L, "Hans", "Meier", DEFAULT_BIRTH_DATE, Gender.MALE, "INS4", BloodType.O_POS);
+            Patient patient9 = createPatient(9L, "Peter", "Maier", DEFAULT_BIRTH_DATE, Gender.MALE, "INS9", BloodType.A_POS);
 
-            when(patientRepository.search(
-                    eq(Gender.FEMALE), eq(BloodType.AB_NEG), eq(birthBefore), eq(birthAfter)))
-                    .thenReturn(List.of());
+            when(nameIndex.isReady()).thenReturn(true);
+            when(nameIndex.search("Maier", 20)).thenReturn(List.of(
+                    new PatientNameIndex.Hit(9L, 1.0), new PatientNameIndex.Hit(6L, 0.5),
+                    new PatientNameIndex.Hit(4L, 0.4)));
+            when(patientRepository.findAllById(List.of(9L, 6L, 4L))).thenReturn(List.of(patient4, patient9));
 
-            List<Patient> result = patientService.searchPatients(
-                    Gender.FEMALE, BloodType.AB_NEG, 100, 120);
+            List<PatientNameMatch> result = patientService.searchByName("Maier", null);
 
-            assertThat(result).isEmpty();
+            assertThat(result).extracting(m -> m.patient().getId()).containsExactly(9L, 4L);
+            assertThat(result).extracting(PatientNameMatch::similarity).containsExactly(1.0, 0.4);
         }
 
         @Test
-        @DisplayName("Search with ageFrom > ageTo - should return empty list")
-        void searchPatients_ageFromGreaterThanAgeTo() {
-            LocalDate today = LocalDate.now();
-            LocalDate birthBefore = today.minusYears(40);
-            LocalDate birthAfter = today.minusYears(20);
+        @DisplayName("Name search before the index is built - exception")
+        void searchByName_indexNotReady_throwsException() {
+            assertThatThrownBy(() -> patientService.searchByName("Maier", 10))
+                    .isInstanceOf(IllegalStateException.class);
+
+            assertThatThrownBy(() -> patientService.searchByName(" ", 10))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(patientRepository);
+        }
+    }
 
-            when(patientRepository.search(
-                    isNull(), isNull(), eq(birthBefore), eq(birthAfter)))
-                    .thenReturn(List.of());
+    @Nested
+    @DisplayName("Phonetic Search Tests")
+    class PhoneticSearchTests {
+
+        @Test
+        @DisplayName("Phonetic search - first page ordered by name, limit capped")
+        void searchByPhonetic_usesSliceOrderedByName() {
+            Patient patient = createPatient(4L, "Hans", "Meier", DEFAULT_BIRTH_DATE, Gender.MALE, "INS4", BloodType.O_POS);
+            when(patientRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new SliceImpl<>(List.of(patient)));
+
+            List<Patient> result = patientService.searchByPhonetic("Mayer", "Hanns", null, 1000);
 
-            List<Patient> result = patientService.searchPatients(null, null, 40, 20);
+            assertThat(result).containsExactly(patient);
+            verify(patientRepository).findSlice(any(Specification.class),
+                    eq(PageRequest.of(0, 100, Sort.by("lastName", "firstName", "id"))));
+        }
 
-            assertThat(result).isEmpty();
+        @Test
+        @DisplayName("Phonetic search with a blank name or a name without letters - exception")
+        void searchByPhonetic_invalidName_throwsException() {
+            assertThatThrownBy(() -> patientService.searchByPhonetic(" ", null, PhoneticAlgorithm.COLOGNE, 10))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> patientService.searchByPhonetic("123", null, PhoneticAlgorithm.DOUBLE_METAPHONE, 10))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(patientRepository);
         }
     }
 
@@ -479,28 +725,81 @@ class PatientServiceTest {
     class StatisticsTests {
 
         @Test
-        @DisplayName("Get statistics")
+        @DisplayName("Get statistics - single aggregate query")
         void getStatistics_returnsCorrectData() {
-            when(patientRepository.countByDeletedFalse()).thenReturn(10L);
-            when(patientRepository.countByGender(Gender.MALE)).thenReturn(5L);
-            when(patientRepository.countByGender(Gender.FEMALE)).thenReturn(4L);
-            when(patientRepository.countByGender(Gender.OTHER)).thenReturn(1L);
-            when(patientRepository.countByDateOfBirthBefore(any(LocalDate.class))).thenReturn(3L);
+            // Cumulative counts per default bucket bound 0, 18, 40, 60, 80
+            when(patientRepository.aggregateStatistics(any(LocalDate.class), anyList())).thenReturn(List.of(
+                    new PatientStatisticsGroup(Gender.MALE, BloodType.O_POS, 5L, 2L, new long[]{5, 5, 3, 2, 1}),
+                    new PatientStatisticsGroup(Gender.FEMALE, BloodType.O_POS, 3L, 1L, new long[]{3, 2, 1, 1, 0}),
+                    new PatientStatisticsGroup(Gender.FEMALE, BloodType.A_NEG, 1L, 0L, new long[]{1, 1, 0, 0, 0}),
+                    new PatientStatisticsGroup(Gender.OTHER, BloodType.B_POS, 1L, 0L, new long[]{1, 1, 1, 0, 0})
+            ));
 
             var result = patientService.getStatistics();
 
-            assertThat(result).hasSize(5);
+            assertThat(result).hasSize(7);
             assertThat(result.get("totalPatients")).isEqualTo(10L);
             assertThat(result.get("maleCount")).isEqualTo(5L);
             assertThat(result.get("femaleCount")).isEqualTo(4L);
             assertThat(result.get("otherCount")).isEqualTo(1L);
             assertThat(result.get("olderThan60")).isEqualTo(3L);
-
-            verify(patientRepository).countByDeletedFalse();
-            verify(patientRepository, times(3)).countByGender(any());
-            verify(patientRepository).countByDateOfBirthBefore(any(LocalDate.class));
+            assertThat((Map<String, Long>) result.get("bloodTypeDistribution"))
+                    .hasSize(BloodType.values().length)
+                    .containsEntry("O_POS", 8L)
+                    .containsEntry("A_NEG", 1L)
+                    .containsEntry("B_POS", 1L)
+                    .containsEntry("AB_NEG", 0L);
+            assertThat((Map<String, Long>) result.get("ageBuckets"))
+                    .containsExactly(
+                            Map.entry("0-17", 1L),
+                            Map.entry("18-39", 4L),
+                            Map.entry("40-59", 2L),
+                            Map.entry("60-79", 2L),
+                            Map.entry("80+", 1L));
+
+            verify(patientRepository).aggregateStatistics(
+                    eq(LocalDate.now().minusYears(60)), argThat(cutoffs -> cutoffs.size() == 5));
             verifyNoMoreInteractions(patientRepository);
         }
+
+        @Test
+        @DisplayName("Get statistics - answered from in-memory counters when ready")
+        void getStatistics_countersReady_skipsDatabase() {
+            when(statisticsCounters.isReady()).thenReturn(true);
+            when(statisticsCounters.aggregate(any(LocalDate.class), anyList())).thenReturn(List.of(
+                    new PatientStatisticsGroup(Gender.OTHER, BloodType.AB_NEG, 2L, 1L, new long[]{2, 2, 2, 1, 0})));
+
+            var result = patientService.getStatistics();
+
+            assertThat(result.get("totalPatients")).isEqualTo(2L);
+            assertThat(result.get("otherCount")).isEqualTo(2L);
+            assertThat(result.get("olderThan60")).isEqualTo(1L);
+            verifyNoInteractions(patientRepository);
+        }
+
+        @Test
+        @DisplayName("Custom age buckets - sorted, de-duplicated and starting at 0")
+        void getStatistics_customAgeBuckets() {
+            LocalDate today = LocalDate.now();
+            when(patientRepository.aggregateStatistics(any(LocalDate.class), anyList())).thenReturn(List.of());
+
+            var result = patientService.getStatistics(List.of(65, 30, 30));
+
+            assertThat(((Map<String, Long>) result.get("ageBuckets")).keySet())
+                    .containsExactly("0-29", "30-64", "65+");
+            assertThat(result.get("totalPatients")).isEqualTo(0L);
+            verify(patientRepository).aggregateStatistics(today.minusYears(60),
+                    List.of(today, today.minusYears(30), today.minusYears(65)));
+        }
+
+        @Test
+        @DisplayName("Negative age bucket bound - exception")
+        void getStatistics_invalidAgeBucket_throwsException() {
+            assertThatThrownBy(() -> patientService.getStatistics(List.of(-1)))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verifyNoInteractions(patientRepository);
+        }
     }
 
     @ParameterizedTest
@@ -0,0 +1,189 @@
+package de.ait.patientcare.unit.service;
+
+import de.ait.patientcare.entity.PatientSnapshot;
+import de.ait.patientcare.entity.enums.BloodType;
+import de.ait.patientcare.entity.enums.Gender;
+import de.ait.patientcare.event.PatientChangedEvent;
+import de.ait.patientcare.repository.PatientBirthDateCount;
+import de.ait.patientcare.repository.PatientJdbcRepository;
+import de.ait.patientcare.repository.PatientRepository;
+import de.ait.patientcare.repository.PatientRowVersion;
+import de.ait.patientcare.repository.PatientStatisticsGroup;
+import de.ait.patientcare.service.PatientStatisticsCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PatientStatisticsCountersTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientJdbcRepository patientJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PatientStatisticsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new PatientStatisticsCounters(patientRepository, patientJdbcRepository,
+                transactionManager, true);
+    }
+
+    private static PatientSnapshot snapshot(long id, Gender gender, BloodType bloodType,
+                                            LocalDate dateOfBirth, boolean deleted) {
+        return snapshot(id, gender, bloodType, dateOfBirth, 0L, deleted);
+    }
+
+    private static PatientSnapshot snapshot(long id, Gender gender, BloodType bloodType,
+                                            LocalDate dateOfBirth, long version, boolean deleted) {
+        return new PatientSnapshot(id, "John", "Doe", dateOfBirth, gender,
+                "INS" + id, bloodType, version, deleted);
+    }
+
+    private static long total(List<PatientStatisticsGroup> groups) {
+        return groups.stream().mapToLong(PatientStatisticsGroup::count).sum();
+    }
+
+    @Test
+    @DisplayName("Not ready until rebuilt from the database")
+    void isReady_onlyAfterRebuild() {
+        when(patientRepository.countByGenderBloodTypeAndBirthDate()).thenReturn(List.of());
+
+        assertThat(counters.isReady()).isFalse();
+        counters.rebuild();
+        assertThat(counters.isReady()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Disabled counters never report ready")
+    void isReady_disabled() {
+        PatientStatisticsCounters disabled = new PatientStatisticsCounters(patientRepository,
+                patientJdbcRepository, transactionManager, false);
+
+        disabled.initialize();
+
+        assertThat(disabled.isReady()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Rebuild loads the birth-date histogram")
+    void rebuild_loadsHistogram() {
+        when(patientRepository.countByGenderBloodTypeAndBirthDate()).thenReturn(List.of(
+                new PatientBirthDateCount(Gender.MALE, BloodType.O_POS, LocalDate.of(1950, 2, 1), 3L),
+                new PatientBirthDateCount(Gender.FEMALE, BloodType.A_NEG, LocalDate.of(2000, 9, 9), 2L)));
+
+        counters.rebuild();
+        List<PatientStatisticsGroup> groups = counters.aggregate(
+                LocalDate.of(1960, 1, 1), List.of(LocalDate.of(1990, 1, 1)));
+
+        assertThat(total(groups)).isEqualTo(5L);
+        PatientStatisticsGroup males = groups.stream()
+                .filter(g -> g.gender() == Gender.MALE).findFirst().orElseThrow();
+        assertThat(males.bloodType()).isEqualTo(BloodType.O_POS);
+        assertThat(males.bornBefore()).isEqualTo(3L);
+        assertThat(males.bornOnOrBefore()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Changes delivered during a rebuild are replayed unless the query already counted them")
+    void rebuild_replaysOnlyChangesNotInSnapshot() {
+        LocalDate dob = LocalDate.of(1970, 1, 1);
+        PatientSnapshot counted = snapshot(1L, Gender.MALE, BloodType.O_POS, dob, false);
+        PatientSnapshot later = snapshot(2L, Gender.MALE, BloodType.O_POS, dob, false);
+        PatientSnapshot changedBefore = snapshot(3L, Gender.FEMALE, BloodType.A_POS, dob, 4L, false);
+        PatientSnapshot changedAfter = snapshot(3L, Gender.FEMALE, BloodType.B_POS, dob, 5L, false);
+        // Patient 1 was committed before the snapshot, but its event arrives while the query runs
+        when(patientRepository.countByGenderBloodTypeAndBirthDate()).thenAnswer(invocation -> {
+            counters.onPatientChanged(new PatientChangedEvent(null, counted));
+            counters.onPatientChanged(new PatientChangedEvent(null, later));
+            counters.onPatientChanged(new PatientChangedEvent(changedBefore, changedAfter));
+            return List.of(
+                    new PatientBirthDateCount(Gender.MALE, BloodType.O_POS, dob, 1L),
+                    new PatientBirthDateCount(Gender.FEMALE, BloodType.A_POS, dob, 1L));
+        });
+        when(patientJdbcRepository.findVersions(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(new PatientRowVersion(1L, 0L, false), new PatientRowVersion(3L, 4L, false)));
+
+        counters.rebuild();
+
+        assertThat(counters.aggregate(LocalDate.now(), List.of()))
+                .extracting(PatientStatisticsGroup::gender, PatientStatisticsGroup::bloodType,
+                        PatientStatisticsGroup::count)
+                .containsExactlyInAnyOrder(
+                        tuple(Gender.MALE, BloodType.O_POS, 2L),
+                        tuple(Gender.FEMALE, BloodType.B_POS, 1L));
+    }
+
+    @Test
+    @DisplayName("Create, gender/blood type change and soft delete keep the cells consistent")
+    void onPatientChanged_tracksWrites() {
+        LocalDate dob = LocalDate.of(1980, 5, 5);
+        PatientSnapshot created = snapshot(1L, Gender.MALE, BloodType.O_POS, dob, false);
+        PatientSnapshot updated = snapshot(1L, Gender.FEMALE, BloodType.B_NEG, dob, false);
+        PatientSnapshot deleted = snapshot(1L, Gender.FEMALE, BloodType.B_NEG, dob, true);
+
+        counters.onPatientChanged(new PatientChangedEvent(null, created));
+        counters.onPatientChanged(new PatientChangedEvent(null, snapshot(2L, Gender.MALE, BloodType.O_POS, dob, false)));
+        counters.onPatientChanged(new PatientChangedEvent(created, updated));
+
+        List<PatientStatisticsGroup> groups = counters.aggregate(LocalDate.now(), List.of());
+        assertThat(groups).extracting(PatientStatisticsGroup::gender, PatientStatisticsGroup::bloodType,
+                        PatientStatisticsGroup::count)
+                .containsExactlyInAnyOrder(
+                        tuple(Gender.MALE, BloodType.O_POS, 1L),
+                        tuple(Gender.FEMALE, BloodType.B_NEG, 1L));
+
+        counters.onPatientChanged(new PatientChangedEvent(updated, deleted));
+        counters.onPatientChanged(new PatientChangedEvent(snapshot(2L, Gender.MALE, BloodType.O_POS, dob, false), null));
+
+        assertThat(counters.aggregate(LocalDate.now(), List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Boundary birth year is counted exactly by birth date")
+    void aggregate_boundaryYearIsExact() {
+        when(patientRepository.countByGenderBloodTypeAndBirthDate()).thenReturn(List.of(
+                new PatientBirthDateCount(Gender.OTHER, BloodType.AB_POS, LocalDate.of(1964, 1, 1), 10L),
+                new PatientBirthDateCount(Gender.OTHER, BloodType.AB_POS, LocalDate.of(1964, 6, 30), 20L),
+                new PatientBirthDateCount(Gender.OTHER, BloodType.AB_POS, LocalDate.of(1964, 7, 1), 30L),
+                new PatientBirthDateCount(Gender.OTHER, BloodType.AB_POS, LocalDate.of(1964, 12, 31), 40L)));
+        counters.rebuild();
+
+        List<PatientStatisticsGroup> groups = counters.aggregate(LocalDate.of(1964, 7, 1),
+                List.of(LocalDate.of(1963, 12, 31), LocalDate.of(1964, 7, 1), LocalDate.of(1964, 12, 31)));
+
+        PatientStatisticsGroup group = groups.get(0);
+        assertThat(group.bornBefore()).isEqualTo(30L);
+        assertThat(group.bornOnOrBefore()).containsExactly(0L, 60L, 100L);
+    }
+
+    @Test
+    @DisplayName("Counts by birth date follow writes in the boundary year")
+    void aggregate_boundaryYearFollowsWrites() {
+        counters.onPatientChanged(new PatientChangedEvent(null,
+                snapshot(1L, Gender.MALE, BloodType.A_POS, LocalDate.of(1965, 3, 1), false)));
+        counters.onPatientChanged(new PatientChangedEvent(null,
+                snapshot(2L, Gender.MALE, BloodType.A_POS, LocalDate.of(1965, 3, 2), false)));
+
+        PatientStatisticsGroup group = counters.aggregate(LocalDate.of(1965, 3, 2), List.of()).get(0);
+
+        assertThat(group.count()).isEqualTo(2L);
+        assertThat(group.bornBefore()).isEqualTo(1L);
+    }
+}